@@ -0,0 +1,24 @@
+package sootup.core.cache;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.model.Body;
+import sootup.core.signatures.MethodSignature;
+
+/**
+ * Interface for caching strategies of resolved method bodies. In contrast to the memoization inside
+ * of a {@link sootup.core.model.SootMethod}, a body cache may evict bodies independently of the
+ * lifetime of their classes; an evicted body is resolved again from its {@link
+ * sootup.core.frontend.BodySource} on the next request.
+ */
+public interface BodyCache {
+
+  @Nullable
+  Body getBody(@Nonnull MethodSignature methodSignature);
+
+  void putBody(@Nonnull MethodSignature methodSignature, @Nonnull Body body);
+
+  boolean hasBody(@Nonnull MethodSignature methodSignature);
+
+  int size();
+}
@@ -18,4 +18,13 @@ public interface ClassCache<S extends SootClass<?>> {
   boolean hasClass(ClassType classType);
 
   int size();
+
+  /**
+   * Returns the statistics of this cache. Caches which do not keep statistics return {@link
+   * ClassCacheStatistics#disabled()}.
+   */
+  @Nonnull
+  default ClassCacheStatistics getStatistics() {
+    return ClassCacheStatistics.disabled();
+  }
 }
@@ -0,0 +1,147 @@
+package sootup.core.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import javax.annotation.Nonnull;
+
+/**
+ * Statistics of a {@link ClassCache}. The cache records its evictions and knows its current weight,
+ * while the view that owns the cache records hits, misses, the lookups of class sources in the
+ * input locations and the loading (i.e. building) of classes from their sources.
+ *
+ * <p>All counters are thread-safe.
+ */
+public class ClassCacheStatistics {
+
+  private static final ClassCacheStatistics DISABLED = new ClassCacheStatistics(() -> 0, false);
+
+  private final boolean enabled;
+  @Nonnull private final LongSupplier weight;
+
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder lookupCount = new LongAdder();
+  private final LongAdder totalLookupTime = new LongAdder();
+  private final LongAdder loadCount = new LongAdder();
+  private final LongAdder totalLoadTime = new LongAdder();
+  private final LongAdder evictionCount = new LongAdder();
+
+  /** @param weight supplies the current weight of the cache, e.g. the amount of stored classes */
+  public ClassCacheStatistics(@Nonnull LongSupplier weight) {
+    this(weight, true);
+  }
+
+  private ClassCacheStatistics(@Nonnull LongSupplier weight, boolean enabled) {
+    this.weight = weight;
+    this.enabled = enabled;
+  }
+
+  /** Returns statistics which ignore everything that is recorded into them. */
+  @Nonnull
+  public static ClassCacheStatistics disabled() {
+    return DISABLED;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void recordHit() {
+    if (enabled) {
+      hitCount.increment();
+    }
+  }
+
+  public void recordMiss() {
+    if (enabled) {
+      missCount.increment();
+    }
+  }
+
+  /** Records the search for a class source in the input locations which took the given time. */
+  public void recordLookup(long nanos) {
+    if (enabled) {
+      lookupCount.increment();
+      totalLookupTime.add(nanos);
+    }
+  }
+
+  /** Records the loading of a class from its class source which took the given time. */
+  public void recordLoad(long nanos) {
+    if (enabled) {
+      loadCount.increment();
+      totalLoadTime.add(nanos);
+    }
+  }
+
+  public void recordEviction() {
+    if (enabled) {
+      evictionCount.increment();
+    }
+  }
+
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  /** Returns the ratio of hits to all requests or 1.0 if there was no request yet. */
+  public double getHitRate() {
+    long hits = getHitCount();
+    long requests = hits + getMissCount();
+    return requests == 0 ? 1.0 : (double) hits / requests;
+  }
+
+  public long getLookupCount() {
+    return lookupCount.sum();
+  }
+
+  /** Returns the cumulative time in nanoseconds spent searching class sources. */
+  public long getTotalLookupTime() {
+    return totalLookupTime.sum();
+  }
+
+  public long getLoadCount() {
+    return loadCount.sum();
+  }
+
+  /** Returns the cumulative time in nanoseconds spent loading classes from their sources. */
+  public long getTotalLoadTime() {
+    return totalLoadTime.sum();
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.sum();
+  }
+
+  /** Returns the current weight of the cache. */
+  public long getWeight() {
+    return weight.getAsLong();
+  }
+
+  @Override
+  public String toString() {
+    return "ClassCacheStatistics{"
+        + "hits="
+        + getHitCount()
+        + ", misses="
+        + getMissCount()
+        + ", lookups="
+        + getLookupCount()
+        + ", lookupTime="
+        + TimeUnit.NANOSECONDS.toMillis(getTotalLookupTime())
+        + "ms, loads="
+        + getLoadCount()
+        + ", loadTime="
+        + TimeUnit.NANOSECONDS.toMillis(getTotalLoadTime())
+        + "ms, evictions="
+        + getEvictionCount()
+        + ", weight="
+        + getWeight()
+        + '}';
+  }
+}
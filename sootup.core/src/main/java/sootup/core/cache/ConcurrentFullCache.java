@@ -0,0 +1,45 @@
+package sootup.core.cache;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import sootup.core.model.SootClass;
+import sootup.core.types.ClassType;
+
+/**
+ * Thread-safe version of the {@link FullCache} that is backed by a {@link ConcurrentHashMap}.
+ * Lookups and insertions of different classes do not block each other, which allows multiple
+ * threads to resolve classes of the same view in parallel.
+ */
+public class ConcurrentFullCache<S extends SootClass<?>> extends FullCache<S> {
+
+  public ConcurrentFullCache() {
+    super(new ConcurrentHashMap<>());
+  }
+
+  @Override
+  public S getClass(ClassType classType) {
+    return cache.get(classType);
+  }
+
+  @Nonnull
+  @Override
+  public Collection<S> getClasses() {
+    return cache.values();
+  }
+
+  @Override
+  public void putClass(ClassType classType, S sootClass) {
+    cache.putIfAbsent(classType, sootClass);
+  }
+
+  @Override
+  public boolean hasClass(ClassType classType) {
+    return cache.containsKey(classType);
+  }
+
+  @Override
+  public int size() {
+    return cache.size();
+  }
+}
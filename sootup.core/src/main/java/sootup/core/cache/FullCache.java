@@ -1,5 +1,6 @@
 package sootup.core.cache;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
@@ -10,7 +11,17 @@ import sootup.core.types.ClassType;
 /** Cache that stores any class that has been resolved. */
 public class FullCache<S extends SootClass<?>> implements ClassCache<S> {
 
-  protected final Map<ClassType, S> cache = new HashMap<>();
+  protected final Map<ClassType, S> cache;
+  @Nonnull protected final ClassCacheStatistics statistics = new ClassCacheStatistics(this::size);
+
+  public FullCache() {
+    this(new HashMap<>());
+  }
+
+  /** Creates a cache that stores its classes in the given (empty) backing map. */
+  protected FullCache(@Nonnull Map<ClassType, S> cache) {
+    this.cache = cache;
+  }
 
   @Override
   public synchronized S getClass(ClassType classType) {
@@ -20,21 +31,28 @@ public class FullCache<S extends SootClass<?>> implements ClassCache<S> {
   @Nonnull
   @Override
   public synchronized Collection<S> getClasses() {
-    return cache.values();
+    // a copy, as the classes may be iterated while other threads add classes to the cache
+    return new ArrayList<>(cache.values());
   }
 
   @Override
-  public void putClass(ClassType classType, S sootClass) {
+  public synchronized void putClass(ClassType classType, S sootClass) {
     cache.putIfAbsent(classType, sootClass);
   }
 
   @Override
-  public boolean hasClass(ClassType classType) {
+  public synchronized boolean hasClass(ClassType classType) {
     return cache.containsKey(classType);
   }
 
   @Override
-  public int size() {
+  public synchronized int size() {
     return cache.size();
   }
+
+  @Nonnull
+  @Override
+  public ClassCacheStatistics getStatistics() {
+    return statistics;
+  }
 }
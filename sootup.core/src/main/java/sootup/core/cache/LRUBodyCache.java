@@ -0,0 +1,96 @@
+package sootup.core.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.ToLongFunction;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.model.Body;
+import sootup.core.signatures.MethodSignature;
+
+/**
+ * Body cache that implements a least recently used strategy. If the accumulated weight of the
+ * stored bodies exceeds a specified maximum, the least recently used bodies will be evicted. By
+ * default a body weighs the amount of its statements.
+ */
+public class LRUBodyCache implements BodyCache {
+  private final long maximumWeight;
+  @Nonnull private final ToLongFunction<Body> weigher;
+  private long currentWeight = 0;
+
+  /** access ordered, i.e. the least recently used entry is the first one */
+  private final LinkedHashMap<MethodSignature, WeightedBody> cache =
+      new LinkedHashMap<>(16, 0.75f, true);
+
+  /** Creates a cache which holds bodies with up to the given amount of statements in total. */
+  public LRUBodyCache(long maximumStmtCount) {
+    this(maximumStmtCount, LRUBodyCache::stmtCountWeigher);
+  }
+
+  /**
+   * Creates a cache whose bound is the accumulated weight of its bodies.
+   *
+   * @param maximumWeight the maximum accumulated weight of the stored bodies
+   * @param weigher computes the weight of a body once when it is put into the cache
+   */
+  public LRUBodyCache(long maximumWeight, @Nonnull ToLongFunction<Body> weigher) {
+    if (maximumWeight < 1) throw new IllegalArgumentException("Cache size has to be at least 1");
+    this.maximumWeight = maximumWeight;
+    this.weigher = weigher;
+  }
+
+  @Nullable
+  @Override
+  public synchronized Body getBody(@Nonnull MethodSignature methodSignature) {
+    WeightedBody entry = cache.get(methodSignature);
+    return entry == null ? null : entry.body;
+  }
+
+  @Override
+  public synchronized void putBody(@Nonnull MethodSignature methodSignature, @Nonnull Body body) {
+    if (cache.containsKey(methodSignature)) {
+      return;
+    }
+
+    long weight = weigher.applyAsLong(body);
+    cache.put(methodSignature, new WeightedBody(body, weight));
+    currentWeight += weight;
+
+    // the body that was just added is kept even if it exceeds the maximum weight on its own
+    Iterator<WeightedBody> leastRecentlyUsed = cache.values().iterator();
+    while (currentWeight > maximumWeight && cache.size() > 1) {
+      currentWeight -= leastRecentlyUsed.next().weight;
+      leastRecentlyUsed.remove();
+    }
+  }
+
+  @Override
+  public synchronized boolean hasBody(@Nonnull MethodSignature methodSignature) {
+    return cache.containsKey(methodSignature);
+  }
+
+  @Override
+  public synchronized int size() {
+    return cache.size();
+  }
+
+  /** Returns the accumulated weight of the bodies that are currently stored in the cache. */
+  public synchronized long getWeight() {
+    return currentWeight;
+  }
+
+  /** A weigher that estimates the memory footprint of a body by the amount of its statements. */
+  public static long stmtCountWeigher(@Nonnull Body body) {
+    return Math.max(1, body.getStmtGraph().getNodes().size());
+  }
+
+  private static class WeightedBody {
+    @Nonnull private final Body body;
+    private final long weight;
+
+    private WeightedBody(@Nonnull Body body, long weight) {
+      this.body = body;
+      this.weight = weight;
+    }
+  }
+}
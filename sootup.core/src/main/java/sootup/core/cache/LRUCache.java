@@ -1,58 +1,124 @@
 package sootup.core.cache;
 
 import java.util.*;
+import java.util.function.ToLongFunction;
 import javax.annotation.Nonnull;
 import sootup.core.model.SootClass;
 import sootup.core.types.ClassType;
 
 /**
- * Cache that implements a least recently used strategy. If the amount of stored classes exceeds a
- * specified amount, the lest recently used class will be overwritten.
+ * Cache that implements a least recently used strategy. If the accumulated weight of the stored
+ * classes exceeds a specified maximum, the least recently used classes will be evicted. By default
+ * every class weighs 1, i.e. the maximum weight is the amount of stored classes.
+ *
+ * <p>Lookups, insertions and evictions take constant time.
  */
 public class LRUCache<S extends SootClass<?>> implements ClassCache<S> {
-  private final int cacheSize;
-  private final Map<ClassType, S> cache = new HashMap<>();
-  private final LinkedList<ClassType> accessOrder = new LinkedList<>();
+  private final long maximumWeight;
+  @Nonnull private final ToLongFunction<? super S> weigher;
+  private long currentWeight = 0;
+
+  @Nonnull
+  private final ClassCacheStatistics statistics = new ClassCacheStatistics(this::getWeight);
+
+  /** access ordered, i.e. the least recently used entry is the first one */
+  private final LinkedHashMap<ClassType, WeightedClass<S>> cache =
+      new LinkedHashMap<>(16, 0.75f, true);
 
   public LRUCache(int cacheSize) {
-    this.cacheSize = cacheSize;
+    this(cacheSize, sootClass -> 1);
+  }
+
+  /**
+   * Creates a cache whose bound is the accumulated weight of its classes.
+   *
+   * @param maximumWeight the maximum accumulated weight of the stored classes
+   * @param weigher computes the weight of a class once when it is put into the cache. It is not
+   *     called while the cache is locked, so it may resolve parts of the class.
+   */
+  public LRUCache(long maximumWeight, @Nonnull ToLongFunction<? super S> weigher) {
+    if (maximumWeight < 1) throw new IllegalArgumentException("Cache size has to be at least 1");
+    this.maximumWeight = maximumWeight;
+    this.weigher = weigher;
   }
 
   @Override
   public synchronized S getClass(ClassType classType) {
-    S sootClass = cache.get(classType);
-    if (sootClass != null) {
-      accessOrder.remove(classType);
-      accessOrder.addFirst(classType);
-    }
-
-    return sootClass;
+    WeightedClass<S> entry = cache.get(classType);
+    return entry == null ? null : entry.sootClass;
   }
 
   @Nonnull
   @Override
   public synchronized Collection<S> getClasses() {
-    return cache.values();
+    List<S> classes = new ArrayList<>(cache.size());
+    for (WeightedClass<S> entry : cache.values()) {
+      classes.add(entry.sootClass);
+    }
+    return classes;
   }
 
   @Override
   public void putClass(ClassType classType, S sootClass) {
-    if (accessOrder.size() >= cacheSize) {
-      ClassType leastAccessed = accessOrder.removeLast();
-      cache.remove(leastAccessed);
+    if (hasClass(classType)) {
+      return;
     }
 
-    accessOrder.addFirst(classType);
-    cache.putIfAbsent(classType, sootClass);
+    // computed without holding the lock, as e.g. methodCountWeigher resolves the methods
+    long weight = weigher.applyAsLong(sootClass);
+    synchronized (this) {
+      if (cache.containsKey(classType)) {
+        return;
+      }
+      cache.put(classType, new WeightedClass<>(sootClass, weight));
+      currentWeight += weight;
+
+      // the class that was just added is kept even if it exceeds the maximum weight on its own
+      Iterator<WeightedClass<S>> leastRecentlyUsed = cache.values().iterator();
+      while (currentWeight > maximumWeight && cache.size() > 1) {
+        currentWeight -= leastRecentlyUsed.next().weight;
+        leastRecentlyUsed.remove();
+        statistics.recordEviction();
+      }
+    }
   }
 
   @Override
-  public boolean hasClass(ClassType classType) {
+  public synchronized boolean hasClass(ClassType classType) {
     return cache.containsKey(classType);
   }
 
   @Override
-  public int size() {
+  public synchronized int size() {
     return cache.size();
   }
+
+  /** Returns the accumulated weight of the classes that are currently stored in the cache. */
+  public synchronized long getWeight() {
+    return currentWeight;
+  }
+
+  @Nonnull
+  @Override
+  public ClassCacheStatistics getStatistics() {
+    return statistics;
+  }
+
+  /**
+   * A weigher that estimates the memory footprint of a class by the amount of its methods. Note
+   * that this resolves the methods of the class.
+   */
+  public static long methodCountWeigher(@Nonnull SootClass<?> sootClass) {
+    return Math.max(1, sootClass.getMethods().size());
+  }
+
+  private static class WeightedClass<S> {
+    @Nonnull private final S sootClass;
+    private final long weight;
+
+    private WeightedClass(@Nonnull S sootClass, long weight) {
+      this.sootClass = sootClass;
+      this.weight = weight;
+    }
+  }
 }
@@ -12,7 +12,7 @@ public class MutableFullCache<S extends SootClass<?>> extends FullCache<S>
     implements MutableClassCache<S> {
 
   @Override
-  public S removeClass(@Nonnull ClassType classType) {
+  public synchronized S removeClass(@Nonnull ClassType classType) {
     if (this.hasClass(classType)) {
       return cache.remove(classType);
     }
@@ -0,0 +1,65 @@
+package sootup.core.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import sootup.core.types.ClassType;
+
+/**
+ * Remembers the types of classes that could not be found in any input location (phantom classes),
+ * e.g. because a dependency is missing on the class path, so that repeated lookups of such a type
+ * do not search all input locations again.
+ *
+ * <p>The cache is bounded: if it holds more than the maximum number of types, the least recently
+ * queried type is forgotten and will be searched again on its next lookup. All methods are
+ * thread-safe.
+ */
+public class PhantomClassCache {
+
+  /** The number of phantom class types that a view remembers by default. */
+  public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+  @Nonnull private final Map<ClassType, Boolean> phantomClasses;
+
+  public PhantomClassCache() {
+    this(DEFAULT_MAXIMUM_SIZE);
+  }
+
+  /** @param maximumSize the maximum number of phantom class types to remember */
+  public PhantomClassCache(int maximumSize) {
+    if (maximumSize < 0) {
+      throw new IllegalArgumentException("The maximum size must not be negative.");
+    }
+    this.phantomClasses =
+        new LinkedHashMap<ClassType, Boolean>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<ClassType, Boolean> eldest) {
+            return size() > maximumSize;
+          }
+        };
+  }
+
+  /** Returns whether the given type is known to be a phantom class. */
+  public synchronized boolean isPhantom(@Nonnull ClassType type) {
+    return phantomClasses.get(type) != null;
+  }
+
+  /** Remembers that the class of the given type could not be found. */
+  public synchronized void addPhantom(@Nonnull ClassType type) {
+    phantomClasses.put(type, Boolean.TRUE);
+  }
+
+  /** Forgets the given type, e.g. because its class has been added to the view. */
+  public synchronized void removePhantom(@Nonnull ClassType type) {
+    phantomClasses.remove(type);
+  }
+
+  /** Forgets all phantom class types. */
+  public synchronized void clear() {
+    phantomClasses.clear();
+  }
+
+  public synchronized int size() {
+    return phantomClasses.size();
+  }
+}
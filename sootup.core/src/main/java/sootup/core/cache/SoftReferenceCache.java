@@ -0,0 +1,87 @@
+package sootup.core.cache;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.*;
+import javax.annotation.Nonnull;
+import sootup.core.model.SootClass;
+import sootup.core.types.ClassType;
+
+/**
+ * Cache that holds the resolved classes through {@link SoftReference}s, i.e. the garbage collector
+ * may reclaim cached classes under memory pressure. A collected class is no longer contained in the
+ * cache, so the view resolves it from its input locations again on the next request.
+ */
+public class SoftReferenceCache<S extends SootClass<?>> implements ClassCache<S> {
+
+  private final Map<ClassType, ClassReference<S>> cache = new HashMap<>();
+  private final ReferenceQueue<S> collectedClasses = new ReferenceQueue<>();
+  @Nonnull private final ClassCacheStatistics statistics = new ClassCacheStatistics(this::size);
+
+  @Override
+  public synchronized S getClass(ClassType classType) {
+    expungeCollectedClasses();
+    ClassReference<S> reference = cache.get(classType);
+    return reference == null ? null : reference.get();
+  }
+
+  @Nonnull
+  @Override
+  public synchronized Collection<S> getClasses() {
+    expungeCollectedClasses();
+    List<S> classes = new ArrayList<>(cache.size());
+    for (ClassReference<S> reference : cache.values()) {
+      S sootClass = reference.get();
+      if (sootClass != null) {
+        classes.add(sootClass);
+      }
+    }
+    return classes;
+  }
+
+  @Override
+  public synchronized void putClass(ClassType classType, S sootClass) {
+    expungeCollectedClasses();
+    ClassReference<S> reference = cache.get(classType);
+    if (reference == null || reference.get() == null) {
+      cache.put(classType, new ClassReference<>(classType, sootClass, collectedClasses));
+    }
+  }
+
+  @Override
+  public synchronized boolean hasClass(ClassType classType) {
+    return getClass(classType) != null;
+  }
+
+  @Override
+  public synchronized int size() {
+    expungeCollectedClasses();
+    return cache.size();
+  }
+
+  @Nonnull
+  @Override
+  public ClassCacheStatistics getStatistics() {
+    return statistics;
+  }
+
+  /** Removes the entries whose classes have been reclaimed by the garbage collector. */
+  private void expungeCollectedClasses() {
+    ClassReference<?> reference;
+    while ((reference = (ClassReference<?>) collectedClasses.poll()) != null) {
+      if (cache.remove(reference.classType, reference)) {
+        statistics.recordEviction();
+      }
+    }
+  }
+
+  private static class ClassReference<S> extends SoftReference<S> {
+    @Nonnull private final ClassType classType;
+
+    private ClassReference(
+        @Nonnull ClassType classType, @Nonnull S sootClass, ReferenceQueue<? super S> queue) {
+      super(sootClass, queue);
+      this.classType = classType;
+    }
+  }
+}
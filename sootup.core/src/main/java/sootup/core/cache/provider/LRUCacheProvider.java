@@ -1,12 +1,15 @@
 package sootup.core.cache.provider;
 
+import java.util.function.ToLongFunction;
+import javax.annotation.Nonnull;
 import sootup.core.cache.ClassCache;
 import sootup.core.cache.LRUCache;
 import sootup.core.model.SootClass;
 
 /** Provides a new {@link LRUCache} object. */
 public class LRUCacheProvider<S extends SootClass<?>> implements ClassCacheProvider<S> {
-  private final int cacheSize;
+  private final long maximumWeight;
+  @Nonnull private final ToLongFunction<? super S> weigher;
 
   /** Create a new LRUCacheProvider that returns a {@link LRUCache} with a default size of 100. */
   public LRUCacheProvider() {
@@ -15,12 +18,21 @@ public class LRUCacheProvider<S extends SootClass<?>> implements ClassCacheProvi
 
   /** Create a new LRUCacheProvider that returns a {@link LRUCache} with the specified size. */
   public LRUCacheProvider(int cacheSize) {
-    if (cacheSize < 1) throw new IllegalArgumentException("Cache size has to be at least 1");
-    this.cacheSize = cacheSize;
+    this(cacheSize, sootClass -> 1);
+  }
+
+  /**
+   * Create a new LRUCacheProvider that returns a {@link LRUCache} which is bounded by the
+   * accumulated weight of its classes, e.g. {@link LRUCache#methodCountWeigher(SootClass)}.
+   */
+  public LRUCacheProvider(long maximumWeight, @Nonnull ToLongFunction<? super S> weigher) {
+    if (maximumWeight < 1) throw new IllegalArgumentException("Cache size has to be at least 1");
+    this.maximumWeight = maximumWeight;
+    this.weigher = weigher;
   }
 
   @Override
   public ClassCache<S> createCache() {
-    return new LRUCache<>(cacheSize);
+    return new LRUCache<>(maximumWeight, weigher);
   }
 }
@@ -0,0 +1,14 @@
+package sootup.core.cache.provider;
+
+import sootup.core.cache.ClassCache;
+import sootup.core.cache.SoftReferenceCache;
+import sootup.core.model.SootClass;
+
+/** Provides a new {@link SoftReferenceCache} object. */
+public class SoftReferenceCacheProvider<S extends SootClass<?>> implements ClassCacheProvider<S> {
+
+  @Override
+  public ClassCache<S> createCache() {
+    return new SoftReferenceCache<>();
+  }
+}
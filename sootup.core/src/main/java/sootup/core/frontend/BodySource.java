@@ -22,7 +22,9 @@ package sootup.core.frontend;
  */
 
 import java.io.IOException;
+import java.util.Optional;
 import javax.annotation.Nonnull;
+import sootup.core.cache.BodyCache;
 import sootup.core.model.Body;
 import sootup.core.model.MethodModifier;
 import sootup.core.signatures.MethodSignature;
@@ -48,4 +50,35 @@ public interface BodySource {
 
   @Nonnull
   MethodSignature getSignature();
+
+  /**
+   * Returns an estimate of how expensive it is to resolve the body, e.g. the length of its
+   * bytecode, without resolving it. It is used to resolve the most expensive bodies first when many
+   * bodies are resolved concurrently (see {@link
+   * sootup.core.views.View#resolveBodies(java.util.Collection, java.util.concurrent.Executor)}).
+   *
+   * @return the estimated size or 0 if it is unknown
+   */
+  default int estimateBodySize() {
+    return 0;
+  }
+
+  /**
+   * Returns whether the body can be resolved. It is not available if the method was loaded without
+   * its code, e.g. because its class was read with {@link
+   * sootup.core.inputlocation.ClassLoadingOptions#isLoadingMethodBodies()} turned off.
+   */
+  default boolean isBodyAvailable() {
+    return true;
+  }
+
+  /**
+   * Returns the cache that stores the bodies resolved by this source. If a cache is present, the
+   * {@link sootup.core.model.SootMethod} does not keep its body itself, so the body can be evicted
+   * and is resolved again when it is requested the next time.
+   */
+  @Nonnull
+  default Optional<BodyCache> getBodyCache() {
+    return Optional.empty();
+  }
 }
@@ -72,6 +72,17 @@ public class OverridingBodySource implements BodySource {
     return body != null ? body : delegate.resolveBody(modifiers);
   }
 
+  @Override
+  public int estimateBodySize() {
+    // an overridden body is already resolved
+    return body != null ? 0 : delegate.estimateBodySize();
+  }
+
+  @Override
+  public boolean isBodyAvailable() {
+    return body != null || delegate.isBodyAvailable();
+  }
+
   @Override
   public Object resolveAnnotationsDefaultValue() {
     return delegate.resolveAnnotationsDefaultValue();
@@ -94,6 +94,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
       @Nonnull List<Stmt> stmts,
       @Nonnull Map<BranchingStmt, List<Stmt>> branchingMap,
       @Nonnull List<Trap> traps) {
+    modificationCount++;
 
     if (stmts.isEmpty()) {
       return;
@@ -348,6 +349,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
   @Override
   public void addExceptionalEdge(
       @Nonnull Stmt stmt, @Nonnull ClassType exceptionType, @Nonnull Stmt traphandlerStmt) {
+    modificationCount++;
 
     MutableBasicBlock block = stmtToBlock.get(stmt);
     if (block == null) {
@@ -369,6 +371,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
   @Override
   public void removeExceptionalEdge(@Nonnull Stmt node, @Nonnull ClassType exceptionType) {
+    modificationCount++;
     final MutableBasicBlock block = stmtToBlock.get(node);
     if (block == null) {
       throw new IllegalArgumentException("Stmt is not in the StmtGraph!");
@@ -379,6 +382,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
   @Override
   public void clearExceptionalEdges(@Nonnull Stmt node) {
+    modificationCount++;
     final MutableBasicBlock block = stmtToBlock.get(node);
     if (block == null) {
       throw new IllegalArgumentException("Stmt is not in the StmtGraph!");
@@ -407,6 +411,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
    */
   @Override
   public void addBlock(@Nonnull List<Stmt> stmts, @Nonnull Map<ClassType, Stmt> trapMap) {
+    modificationCount++;
     if (stmts.isEmpty()) {
       return;
     }
@@ -474,6 +479,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
   @Override
   public void addNode(@Nonnull Stmt stmt, @Nonnull Map<ClassType, Stmt> exceptions) {
+    modificationCount++;
     MutableBasicBlock block = stmtToBlock.get(stmt);
     if (block == null) {
       // Stmt does not exist in the graph -> create
@@ -723,6 +729,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
   }
 
   public void removeNode(@Nonnull Stmt stmt, boolean keepFlow) {
+    modificationCount++;
 
     MutableBasicBlock blockOfRemovedStmt = stmtToBlock.remove(stmt);
     if (blockOfRemovedStmt == null) {
@@ -780,6 +787,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
   @Override
   public void replaceNode(@Nonnull Stmt oldStmt, @Nonnull Stmt newStmt) {
+    modificationCount++;
 
     final MutableBasicBlock blockOfOldStmt = stmtToBlock.get(oldStmt);
     if (blockOfOldStmt == null) {
@@ -823,6 +831,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
       @Nonnull Stmt beforeStmt,
       @Nonnull List<Stmt> stmts,
       @Nonnull Map<ClassType, Stmt> exceptionMap) {
+    modificationCount++;
     if (stmts.isEmpty()) {
       return;
     }
@@ -860,6 +869,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
   @Override
   public void putEdge(@Nonnull Stmt stmtA, @Nonnull Stmt stmtB) {
+    modificationCount++;
     MutableBasicBlock blockA = stmtToBlock.get(stmtA);
     MutableBasicBlock blockB = stmtToBlock.get(stmtB);
 
@@ -958,6 +968,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
   @Override
   public void removeEdge(@Nonnull Stmt from, @Nonnull Stmt to) {
+    modificationCount++;
     // FIXME: how to handle "partial" removals of targets of flows starting from a Branching Stmt..
     // e.g. because one of the targets are removed.. that changes the whole logic there..
 
@@ -1044,6 +1055,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
 
   @Override
   public void setEdges(@Nonnull Stmt fromStmt, @Nonnull List<Stmt> targets) {
+    modificationCount++;
     if (fromStmt.getExpectedSuccessorCount() != targets.size()) {
       throw new IllegalArgumentException(
           "Size of Targets is not the amount of from's expected successors.");
@@ -1089,6 +1101,7 @@ public class MutableBlockStmtGraph extends MutableStmtGraph {
   }
 
   public void setStartingStmt(@Nonnull Stmt startingStmt) {
+    modificationCount++;
     if (stmtToBlock.get(startingStmt) == null) {
       MutableBasicBlock block = stmtToBlock.get(startingStmt);
       if (block == null) {
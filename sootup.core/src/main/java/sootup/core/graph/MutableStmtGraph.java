@@ -33,6 +33,18 @@ import sootup.core.types.ClassType;
  *     MutableBasicBlock
  */
 public abstract class MutableStmtGraph extends StmtGraph<MutableBasicBlock> {
+
+  /** incremented by each modification of the StmtGraph */
+  protected int modificationCount = 0;
+
+  /**
+   * Returns a counter of the modifications of this StmtGraph i.e. information which was derived
+   * from the StmtGraph is outdated if the counter changed since then.
+   */
+  public int getModificationCount() {
+    return modificationCount;
+  }
+
   @Nonnull
   public abstract StmtGraph<?> unmodifiableStmtGraph();
 
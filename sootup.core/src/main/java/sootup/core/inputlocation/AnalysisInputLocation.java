@@ -23,6 +23,7 @@ package sootup.core.inputlocation;
 
 import java.util.Collection;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import sootup.core.frontend.AbstractClassSource;
@@ -65,6 +66,34 @@ public interface AnalysisInputLocation<T extends AbstractClass> {
   @Nonnull
   Collection<? extends AbstractClassSource<T>> getClassSources(@Nonnull View<?> view);
 
+  /**
+   * Scan the input location and create ClassSources for every compilation / interpretation unit
+   * like {@link #getClassSources(View)}, but the ClassSources may be created concurrently by the
+   * given executor. The calling thread takes part in the work, so this method also completes if the
+   * executor is busy.
+   *
+   * @return The source entries.
+   */
+  @Nonnull
+  default Collection<? extends AbstractClassSource<T>> getClassSources(
+      @Nonnull View<?> view, @Nonnull Executor executor) {
+    return getClassSources(view);
+  }
+
+  /**
+   * Lists the types of all classes of this input location without creating their class sources,
+   * e.g. by listing the class files of a directory. Views use this to index their input locations
+   * (see {@link ClassLocationIndex}) so that a class lookup does not have to probe every input
+   * location.
+   *
+   * @return the types of the contained classes or an empty Optional if this input location can not
+   *     list them cheaply and has to be asked for every class
+   */
+  @Nonnull
+  default Optional<? extends Collection<? extends ClassType>> getClassTypes(@Nonnull View<?> view) {
+    return Optional.empty();
+  }
+
   /**
    * If the AnalysisInputLocation is initialized with the SourceType then this method should return
    * that specific SourceType. This is the default implementation and it returns null when no source
@@ -20,7 +20,9 @@ package sootup.core.inputlocation;
  * <http://www.gnu.org/licenses/lgpl-2.1.html>.
  * #L%
  */
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
 import javax.annotation.Nonnull;
 import sootup.core.transform.BodyInterceptor;
 
@@ -42,4 +44,26 @@ public interface ClassLoadingOptions {
    */
   @Nonnull
   List<BodyInterceptor> getBodyInterceptors();
+
+  /**
+   * Whether the method bodies are loaded. If not, only the class headers, the fields and the method
+   * signatures are loaded, which is considerably faster and needs less memory, e.g. for library
+   * classes whose hierarchy and signatures are needed but whose bodies are never analyzed.
+   * Resolving the body of a method that was loaded without its body fails.
+   */
+  default boolean isLoadingMethodBodies() {
+    return true;
+  }
+
+  /**
+   * The directory in which the method bodies are stored after the interceptors were applied, so
+   * that later runs can load a body from there instead of converting it again. A stored body is
+   * only used for the same class file and the same interceptors, but not checked against the other
+   * classes it refers to, e.g. its type hierarchy. Loaded bodies are not counted by the {@link
+   * sootup.core.transform.BodyInterceptorStatistics}. By default, bodies are not stored.
+   */
+  @Nonnull
+  default Optional<Path> getBodyStoreDirectory() {
+    return Optional.empty();
+  }
 }
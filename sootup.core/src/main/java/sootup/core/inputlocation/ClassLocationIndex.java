@@ -0,0 +1,129 @@
+package sootup.core.inputlocation;
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+import sootup.core.frontend.AbstractClassSource;
+import sootup.core.model.AbstractClass;
+import sootup.core.types.ClassType;
+import sootup.core.views.View;
+
+/**
+ * Maps the fully qualified name of every class of an ordered list of {@link AnalysisInputLocation}s
+ * to the first input location that contains it, so that a lookup only has to ask that one input
+ * location for the class instead of probing every input location in order.
+ *
+ * <p>Like the Java class path, the first input location containing a class wins (see split
+ * packages). Input locations which cannot enumerate their classes (see {@link
+ * AnalysisInputLocation#getClassTypes(View)}) are not indexed but are still probed at their
+ * position in the list, so the result of a lookup is the same as probing all input locations in
+ * order.
+ *
+ * <p>The index is built once in its constructor and is immutable afterwards, hence it can be
+ * queried concurrently.
+ */
+public class ClassLocationIndex<T extends AbstractClass> {
+
+  @Nonnull private final List<AnalysisInputLocation<? extends T>> inputLocations;
+
+  /** class name -&gt; position of the first indexed input location that contains the class */
+  @Nonnull private final Map<String, Integer> firstLocationOfClass = new HashMap<>();
+
+  /** positions of the input locations that have to be probed, in ascending order */
+  @Nonnull private final List<Integer> unindexedLocations = new ArrayList<>();
+
+  public ClassLocationIndex(
+      @Nonnull List<? extends AnalysisInputLocation<? extends T>> inputLocations,
+      @Nonnull View<?> view) {
+    this.inputLocations = new ArrayList<>(inputLocations);
+    for (int i = 0; i < this.inputLocations.size(); i++) {
+      Optional<? extends Collection<? extends ClassType>> classTypes =
+          this.inputLocations.get(i).getClassTypes(view);
+      if (!classTypes.isPresent()) {
+        unindexedLocations.add(i);
+        continue;
+      }
+      for (ClassType classType : classTypes.get()) {
+        firstLocationOfClass.putIfAbsent(classType.getFullyQualifiedName(), i);
+      }
+    }
+  }
+
+  /** Returns the number of classes which are indexed. */
+  public int size() {
+    return firstLocationOfClass.size();
+  }
+
+  /** Returns whether every input location could be indexed, i.e. no lookup needs to probe. */
+  public boolean isComplete() {
+    return unindexedLocations.isEmpty();
+  }
+
+  /**
+   * Searches the class source of the given type in the input locations of this index.
+   *
+   * @return the class source of the first input location that provides one
+   */
+  @Nonnull
+  public Optional<? extends AbstractClassSource<? extends T>> getClassSource(
+      @Nonnull ClassType type, @Nonnull View<?> view) {
+    Integer indexedLocation = firstLocationOfClass.get(type.getFullyQualifiedName());
+    int firstCandidate = indexedLocation == null ? inputLocations.size() : indexedLocation;
+
+    // input locations that precede the indexed one but could not be indexed might contain the
+    // class, too
+    for (int unindexedLocation : unindexedLocations) {
+      if (unindexedLocation > firstCandidate) {
+        break;
+      }
+      Optional<? extends AbstractClassSource<? extends T>> classSource =
+          inputLocations.get(unindexedLocation).getClassSource(type, view);
+      if (classSource.isPresent()) {
+        return classSource;
+      }
+    }
+    if (indexedLocation == null) {
+      return Optional.empty();
+    }
+
+    Optional<? extends AbstractClassSource<? extends T>> classSource =
+        inputLocations.get(indexedLocation).getClassSource(type, view);
+    if (classSource.isPresent()) {
+      return classSource;
+    }
+    // the indexed input location could not create a class source from its file (e.g. the file is
+    // corrupt) - fall back to probing the remaining input locations like an unindexed lookup
+    for (int i = indexedLocation + 1; i < inputLocations.size(); i++) {
+      classSource = inputLocations.get(i).getClassSource(type, view);
+      if (classSource.isPresent()) {
+        return classSource;
+      }
+    }
+    return Optional.empty();
+  }
+}
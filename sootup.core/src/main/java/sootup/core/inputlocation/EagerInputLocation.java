@@ -70,6 +70,12 @@ public class EagerInputLocation<S extends SootClass<? extends SootClassSource<S>
     return map.values();
   }
 
+  @Nonnull
+  @Override
+  public Optional<? extends Collection<? extends ClassType>> getClassTypes(@Nullable View<?> view) {
+    return Optional.of(map.keySet());
+  }
+
   @Nonnull
   @Override
   public SourceType getSourceType() {
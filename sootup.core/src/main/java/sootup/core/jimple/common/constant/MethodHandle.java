@@ -123,6 +123,11 @@ public class MethodHandle implements Constant {
     return methodSignature;
   }
 
+  /** Returns the referenced field if the handle refers to a field instead of a method. */
+  public JFieldRef getFieldRef() {
+    return fieldRef;
+  }
+
   @Override
   public void accept(@Nonnull ConstantVisitor v) {
     v.caseMethodHandle(this);
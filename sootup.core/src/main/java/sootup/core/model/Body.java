@@ -373,6 +373,7 @@ public class Body implements Copyable {
     @Nullable private MethodSignature methodSig = null;
 
     @Nullable private List<Stmt> cachedLinearizedStmts = null;
+    @Nullable private BodyAnalysisContext analysisContext = null;
 
     BodyBuilder() {
       graph = new MutableBlockStmtGraph();
@@ -395,6 +396,18 @@ public class Body implements Copyable {
       return graph;
     }
 
+    /**
+     * Returns the information about this body which is shared between BodyInterceptors e.g. the
+     * defs and uses of Locals.
+     */
+    @Nonnull
+    public BodyAnalysisContext getAnalysisContext() {
+      if (analysisContext == null) {
+        analysisContext = new BodyAnalysisContext(graph);
+      }
+      return analysisContext;
+    }
+
     /* Gets an ordered copy of the Stmts in the StmtGraph */
     @Nonnull
     public List<Stmt> getStmts() {
@@ -463,14 +476,22 @@ public class Body implements Copyable {
     /** replace the oldStmt with newStmt in stmtGraph and branches */
     @Nonnull
     public BodyBuilder replaceStmt(@Nonnull Stmt oldStmt, @Nonnull Stmt newStmt) {
-      graph.replaceNode(oldStmt, newStmt);
+      if (analysisContext != null) {
+        analysisContext.replaceStmt(oldStmt, newStmt);
+      } else {
+        graph.replaceNode(oldStmt, newStmt);
+      }
       return this;
     }
 
     /** remove the a stmt from the graph and stmt */
     @Nonnull
     public BodyBuilder removeStmt(@Nonnull Stmt stmt) {
-      graph.removeNode(stmt);
+      if (analysisContext != null) {
+        analysisContext.removeStmt(stmt);
+      } else {
+        graph.removeNode(stmt);
+      }
       cachedLinearizedStmts = null;
       return this;
     }
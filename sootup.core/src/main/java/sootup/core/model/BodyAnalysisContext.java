@@ -0,0 +1,202 @@
+package sootup.core.model;
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.graph.MutableStmtGraph;
+import sootup.core.graph.StmtGraph;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.stmt.Stmt;
+
+/**
+ * Caches information about a {@link Body.BodyBuilder} which is needed by several {@link
+ * sootup.core.transform.BodyInterceptor}s, i.e. the defining and using Stmts of each Local and
+ * analyses like the liveness of Locals, so that each interceptor does not compute them from scratch
+ * again.
+ *
+ * <p>The cached information is discarded as soon as the StmtGraph of the builder is modified.
+ * Replacing or removing a Stmt via {@link Body.BodyBuilder#replaceStmt(Stmt, Stmt)} or {@link
+ * Body.BodyBuilder#removeStmt(Stmt)} updates the defs and uses incrementally instead, whereas other
+ * analyses are computed again on their next request.
+ */
+public class BodyAnalysisContext {
+
+  @Nonnull private final MutableStmtGraph graph;
+
+  /** the modification count of the graph from which the cached information was derived */
+  private int modificationCount;
+
+  @Nullable private Map<Local, List<Stmt>> defs = null;
+  @Nullable private Map<Local, List<Stmt>> uses = null;
+  @Nonnull private final Map<Class<?>, Object> analyses = new HashMap<>();
+
+  BodyAnalysisContext(@Nonnull MutableStmtGraph graph) {
+    this.graph = graph;
+    this.modificationCount = graph.getModificationCount();
+  }
+
+  /** Returns the defining Stmts of each Local. */
+  @Nonnull
+  public Map<Local, List<Stmt>> getDefs() {
+    discardIfOutdated();
+    if (defs == null) {
+      defs = new HashMap<>();
+      for (Stmt stmt : graph.getNodes()) {
+        addAll(defs, stmt, stmt.getDefs());
+      }
+    }
+    return Collections.unmodifiableMap(defs);
+  }
+
+  /** Returns the using Stmts of each Local. A Stmt is contained once per use of the Local. */
+  @Nonnull
+  public Map<Local, List<Stmt>> getUses() {
+    discardIfOutdated();
+    if (uses == null) {
+      uses = new HashMap<>();
+      for (Stmt stmt : graph.getNodes()) {
+        addAll(uses, stmt, stmt.getUses());
+      }
+    }
+    return Collections.unmodifiableMap(uses);
+  }
+
+  @Nonnull
+  public List<Stmt> getDefsOf(@Nonnull Local local) {
+    List<Stmt> localDefs = getDefs().get(local);
+    return localDefs == null ? Collections.emptyList() : Collections.unmodifiableList(localDefs);
+  }
+
+  @Nonnull
+  public List<Stmt> getUsesOf(@Nonnull Local local) {
+    List<Stmt> localUses = getUses().get(local);
+    return localUses == null ? Collections.emptyList() : Collections.unmodifiableList(localUses);
+  }
+
+  /**
+   * Returns the analysis of the given type for the current StmtGraph, e.g. <code>
+   * getAnalysis(LocalLivenessAnalyser.class, LocalLivenessAnalyser::new)</code>.
+   *
+   * @param analysisFactory computes the analysis if there is none of the given type for the current
+   *     StmtGraph
+   */
+  @Nonnull
+  public <A> A getAnalysis(
+      @Nonnull Class<A> analysisType,
+      @Nonnull Function<? super StmtGraph<?>, ? extends A> analysisFactory) {
+    discardIfOutdated();
+    Object analysis = analyses.get(analysisType);
+    if (analysis == null) {
+      analysis = analysisFactory.apply(graph);
+      analyses.put(analysisType, analysis);
+    }
+    return analysisType.cast(analysis);
+  }
+
+  /**
+   * Discards all cached information, e.g. after an interceptor modified Stmts or Locals in a way
+   * which is not visible to the StmtGraph.
+   */
+  public void invalidate() {
+    defs = null;
+    uses = null;
+    analyses.clear();
+  }
+
+  void replaceStmt(@Nonnull Stmt oldStmt, @Nonnull Stmt newStmt) {
+    boolean upToDate = isUpToDate();
+    graph.replaceNode(oldStmt, newStmt);
+    if (!upToDate) {
+      return;
+    }
+    analyses.clear();
+    if (defs != null) {
+      removeAll(defs, oldStmt, oldStmt.getDefs());
+      addAll(defs, newStmt, newStmt.getDefs());
+    }
+    if (uses != null) {
+      removeAll(uses, oldStmt, oldStmt.getUses());
+      addAll(uses, newStmt, newStmt.getUses());
+    }
+    modificationCount = graph.getModificationCount();
+  }
+
+  void removeStmt(@Nonnull Stmt stmt) {
+    boolean upToDate = isUpToDate();
+    graph.removeNode(stmt);
+    if (!upToDate) {
+      return;
+    }
+    analyses.clear();
+    if (defs != null) {
+      removeAll(defs, stmt, stmt.getDefs());
+    }
+    if (uses != null) {
+      removeAll(uses, stmt, stmt.getUses());
+    }
+    modificationCount = graph.getModificationCount();
+  }
+
+  private boolean isUpToDate() {
+    return modificationCount == graph.getModificationCount();
+  }
+
+  private void discardIfOutdated() {
+    if (!isUpToDate()) {
+      invalidate();
+      modificationCount = graph.getModificationCount();
+    }
+  }
+
+  private static void addAll(
+      @Nonnull Map<Local, List<Stmt>> map, @Nonnull Stmt stmt, @Nonnull Collection<Value> values) {
+    for (Value value : values) {
+      if (value instanceof Local) {
+        map.computeIfAbsent((Local) value, local -> new ArrayList<>()).add(stmt);
+      }
+    }
+  }
+
+  private static void removeAll(
+      @Nonnull Map<Local, List<Stmt>> map, @Nonnull Stmt stmt, @Nonnull Collection<Value> values) {
+    for (Value value : values) {
+      if (value instanceof Local) {
+        List<Stmt> stmts = map.get(value);
+        if (stmts != null) {
+          stmts.removeIf(s -> s == stmt);
+          if (stmts.isEmpty()) {
+            map.remove(value);
+          }
+        }
+      }
+    }
+  }
+}
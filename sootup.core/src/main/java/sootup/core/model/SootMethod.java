@@ -35,6 +35,7 @@ import java.util.function.Function;
 import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import sootup.core.cache.BodyCache;
 import sootup.core.frontend.BodySource;
 import sootup.core.frontend.OverridingBodySource;
 import sootup.core.frontend.ResolveException;
@@ -171,15 +172,45 @@ public class SootMethod extends SootClassMember<MethodSignature> implements Meth
 
   @Nonnull private final Supplier<Body> _lazyBody = Suppliers.memoize(this::lazyBodyInitializer);
 
-  /** Retrieves the active body for this method. */
+  /**
+   * Retrieves the active body for this method. If the {@link BodySource} provides a {@link
+   * BodyCache}, the body is looked up in (and stored into) that cache instead of being kept by this
+   * method.
+   *
+   * @throws ResolveException if the method has no body (see {@link #hasBody()}), e.g. if it is
+   *     abstract or its class was loaded without method bodies
+   */
   @Nonnull
   public Body getBody() {
-    return this._lazyBody.get();
+    Optional<BodyCache> bodyCacheOpt = bodySource.getBodyCache();
+    if (!bodyCacheOpt.isPresent()) {
+      return this._lazyBody.get();
+    }
+
+    BodyCache bodyCache = bodyCacheOpt.get();
+    MethodSignature signature = getSignature();
+    Body body = bodyCache.getBody(signature);
+    if (body != null) {
+      return body;
+    }
+    // a BodySource is not required to support concurrent resolution
+    synchronized (bodySource) {
+      body = bodyCache.getBody(signature);
+      if (body == null) {
+        body = lazyBodyInitializer();
+        bodyCache.putBody(signature, body);
+      }
+    }
+    return body;
   }
 
-  /** Returns true if this method has a body. */
+  /**
+   * Returns true if this method has a body which can be retrieved by {@link #getBody()}, i.e. if it
+   * is concrete and its body is available, which it is not if its class was loaded without method
+   * bodies (see {@link sootup.core.inputlocation.ClassLoadingOptions#isLoadingMethodBodies()}).
+   */
   public boolean hasBody() {
-    return isConcrete();
+    return isConcrete() && bodySource.isBodyAvailable();
   }
 
   @Nonnull
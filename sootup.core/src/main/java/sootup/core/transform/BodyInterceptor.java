@@ -37,4 +37,14 @@ public interface BodyInterceptor {
    * @param view
    */
   void interceptBody(@Nonnull Body.BodyBuilder builder, @Nonnull View<?> view);
+
+  /**
+   * Returns a key which identifies the transformation of this interceptor, e.g. to decide whether a
+   * stored body was intercepted the same way. Interceptors whose transformation depends on their
+   * configuration have to include the configuration in the key.
+   */
+  @Nonnull
+  default String getConfigurationKey() {
+    return getClass().getName();
+  }
 }
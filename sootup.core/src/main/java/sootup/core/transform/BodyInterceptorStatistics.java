@@ -0,0 +1,270 @@
+package sootup.core.transform;
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.Body;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.views.View;
+
+/**
+ * Statistics of the {@link BodyInterceptor}s which were applied to the bodies of a view, aggregated
+ * per interceptor class: the amount of invocations, the time spent, the Stmts removed from and
+ * added to the bodies, the Locals that changed and the method which took the longest. A replaced
+ * Stmt counts as removed and added.
+ *
+ * <p>All counters are thread-safe.
+ */
+public class BodyInterceptorStatistics {
+
+  private static final BodyInterceptorStatistics DISABLED = new BodyInterceptorStatistics(false);
+
+  private final boolean enabled;
+
+  @Nonnull
+  private final Map<Class<? extends BodyInterceptor>, Entry> entries = new ConcurrentHashMap<>();
+
+  public BodyInterceptorStatistics() {
+    this(true);
+  }
+
+  private BodyInterceptorStatistics(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /** Returns statistics which only apply the interceptors without measuring them. */
+  @Nonnull
+  public static BodyInterceptorStatistics disabled() {
+    return DISABLED;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Applies the interceptor to the builder and records its effect if the statistics are enabled.
+   */
+  public void interceptBody(
+      @Nonnull BodyInterceptor interceptor,
+      @Nonnull Body.BodyBuilder builder,
+      @Nonnull View<?> view) {
+    if (!enabled) {
+      interceptor.interceptBody(builder, view);
+      return;
+    }
+
+    Set<Stmt> stmtsBefore = new HashSet<>(builder.getStmtGraph().getNodes());
+    Set<Local> localsBefore = new HashSet<>(builder.getLocals());
+    long start = System.nanoTime();
+    interceptor.interceptBody(builder, view);
+    long nanos = System.nanoTime() - start;
+
+    Collection<Stmt> stmtsAfter = builder.getStmtGraph().getNodes();
+    int removedStmts = 0;
+    for (Stmt stmt : stmtsBefore) {
+      if (!stmtsAfter.contains(stmt)) {
+        removedStmts++;
+      }
+    }
+    int addedStmts = stmtsAfter.size() - (stmtsBefore.size() - removedStmts);
+
+    Set<Local> localsAfter = builder.getLocals();
+    int changedLocals = 0;
+    for (Local local : localsBefore) {
+      if (!localsAfter.contains(local)) {
+        changedLocals++;
+      }
+    }
+    for (Local local : localsAfter) {
+      if (!localsBefore.contains(local)) {
+        changedLocals++;
+      }
+    }
+
+    entries
+        .computeIfAbsent(interceptor.getClass(), interceptorClass -> new Entry())
+        .record(nanos, removedStmts, addedStmts, changedLocals, builder.getMethodSignature());
+  }
+
+  /** Returns the statistics of each interceptor class that was applied so far. */
+  @Nonnull
+  public Map<Class<? extends BodyInterceptor>, Entry> getEntries() {
+    return Collections.unmodifiableMap(entries);
+  }
+
+  /** Returns the statistics of the given interceptor class if it was applied so far. */
+  @Nullable
+  public Entry getEntry(@Nonnull Class<? extends BodyInterceptor> interceptorClass) {
+    return entries.get(interceptorClass);
+  }
+
+  /**
+   * Exports the statistics as comma separated values with a header line and one line per
+   * interceptor class, sorted by the time spent in descending order. Times are in nanoseconds.
+   */
+  @Nonnull
+  public String toCsv() {
+    StringBuilder sb =
+        new StringBuilder(
+            "interceptor,invocations,totalTime,maxTime,removedStmts,addedStmts,changedLocals,slowestMethod\n");
+    for (Map.Entry<Class<? extends BodyInterceptor>, Entry> entry : getSortedEntries().entrySet()) {
+      Entry stats = entry.getValue();
+      sb.append(entry.getKey().getName())
+          .append(',')
+          .append(stats.getInvocationCount())
+          .append(',')
+          .append(stats.getTotalTime())
+          .append(',')
+          .append(stats.getMaxTime())
+          .append(',')
+          .append(stats.getRemovedStmtCount())
+          .append(',')
+          .append(stats.getAddedStmtCount())
+          .append(',')
+          .append(stats.getChangedLocalCount())
+          .append(",\"")
+          .append(stats.getSlowestMethod() == null ? "" : stats.getSlowestMethod())
+          .append("\"\n");
+    }
+    return sb.toString();
+  }
+
+  @Nonnull
+  private Map<Class<? extends BodyInterceptor>, Entry> getSortedEntries() {
+    Map<Class<? extends BodyInterceptor>, Entry> sortedEntries = new LinkedHashMap<>();
+    entries.entrySet().stream()
+        .sorted((a, b) -> Long.compare(b.getValue().getTotalTime(), a.getValue().getTotalTime()))
+        .forEachOrdered(entry -> sortedEntries.put(entry.getKey(), entry.getValue()));
+    return sortedEntries;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("BodyInterceptorStatistics{");
+    String separator = "";
+    for (Map.Entry<Class<? extends BodyInterceptor>, Entry> entry : getSortedEntries().entrySet()) {
+      sb.append(separator)
+          .append(entry.getKey().getSimpleName())
+          .append('=')
+          .append(entry.getValue());
+      separator = ", ";
+    }
+    return sb.append('}').toString();
+  }
+
+  /** The statistics of a single interceptor class. */
+  public static class Entry {
+
+    private final LongAdder invocationCount = new LongAdder();
+    private final LongAdder totalTime = new LongAdder();
+    private final LongAdder removedStmtCount = new LongAdder();
+    private final LongAdder addedStmtCount = new LongAdder();
+    private final LongAdder changedLocalCount = new LongAdder();
+
+    private volatile long maxTime = -1;
+    @Nullable private volatile MethodSignature slowestMethod = null;
+
+    private void record(
+        long nanos,
+        int removedStmts,
+        int addedStmts,
+        int changedLocals,
+        @Nullable MethodSignature method) {
+      invocationCount.increment();
+      totalTime.add(nanos);
+      removedStmtCount.add(removedStmts);
+      addedStmtCount.add(addedStmts);
+      changedLocalCount.add(changedLocals);
+      if (nanos > maxTime) {
+        synchronized (this) {
+          if (nanos > maxTime) {
+            maxTime = nanos;
+            slowestMethod = method;
+          }
+        }
+      }
+    }
+
+    public long getInvocationCount() {
+      return invocationCount.sum();
+    }
+
+    /** Returns the cumulative time in nanoseconds spent in the interceptor. */
+    public long getTotalTime() {
+      return totalTime.sum();
+    }
+
+    /** Returns the longest time in nanoseconds the interceptor spent on a single body. */
+    public long getMaxTime() {
+      return Math.max(maxTime, 0);
+    }
+
+    /** Returns the method whose body took the interceptor the longest time. */
+    @Nullable
+    public MethodSignature getSlowestMethod() {
+      return slowestMethod;
+    }
+
+    public long getRemovedStmtCount() {
+      return removedStmtCount.sum();
+    }
+
+    public long getAddedStmtCount() {
+      return addedStmtCount.sum();
+    }
+
+    /** Returns the amount of Locals which were removed from or added to the bodies. */
+    public long getChangedLocalCount() {
+      return changedLocalCount.sum();
+    }
+
+    @Override
+    public String toString() {
+      return "{invocations="
+          + getInvocationCount()
+          + ", totalTime="
+          + TimeUnit.NANOSECONDS.toMillis(getTotalTime())
+          + "ms, maxTime="
+          + TimeUnit.NANOSECONDS.toMillis(getMaxTime())
+          + "ms, removedStmts="
+          + getRemovedStmtCount()
+          + ", addedStmts="
+          + getAddedStmtCount()
+          + ", changedLocals="
+          + getChangedLocalCount()
+          + '}';
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package sootup.core.typehierarchy;
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import javax.annotation.Nonnull;
+import sootup.core.types.ClassType;
+import sootup.core.types.Type;
+
+/**
+ * Memoizes the answers of a {@link TypeHierarchy} to queries which are asked again and again while
+ * the bodies of a view are resolved, e.g. by the type assignment of each body. The cache is owned
+ * by the view (see {@link sootup.core.views.View#getTypeHierarchyCache()}), so that the answers are
+ * shared between all bodies.
+ *
+ * <p>The cache is thread-safe. A value may be computed more than once if it is requested
+ * concurrently, but only one of the results is kept.
+ */
+public class TypeHierarchyCache {
+
+  @Nonnull private final TypeHierarchy typeHierarchy;
+
+  @Nonnull private final Map<ClassType, Set<ClassType>> subtypes = new ConcurrentHashMap<>();
+  @Nonnull private final Map<ClassType, List<ClassType>> superClasses = new ConcurrentHashMap<>();
+
+  @Nonnull private final Map<TypePair, Set<Type>> leastCommonAncestors = new ConcurrentHashMap<>();
+
+  public TypeHierarchyCache(@Nonnull TypeHierarchy typeHierarchy) {
+    this.typeHierarchy = typeHierarchy;
+  }
+
+  /** @see TypeHierarchy#subtypesOf(ClassType) */
+  @Nonnull
+  public Set<ClassType> subtypesOf(@Nonnull ClassType type) {
+    Set<ClassType> types = subtypes.get(type);
+    if (types == null) {
+      types = Collections.unmodifiableSet(typeHierarchy.subtypesOf(type));
+      subtypes.putIfAbsent(type, types);
+    }
+    return types;
+  }
+
+  /**
+   * Returns the superclasses of the given type, starting with its direct superclass. The list ends
+   * early if a superclass can not be found.
+   *
+   * @see TypeHierarchy#incompleteSuperClassesOf(ClassType)
+   */
+  @Nonnull
+  public List<ClassType> superClassesOf(@Nonnull ClassType type) {
+    List<ClassType> types = superClasses.get(type);
+    if (types == null) {
+      types = Collections.unmodifiableList(typeHierarchy.incompleteSuperClassesOf(type));
+      superClasses.putIfAbsent(type, types);
+    }
+    return types;
+  }
+
+  /**
+   * Returns the least common ancestors of the given types which are computed by the given function
+   * if they are not cached yet. The function may request the least common ancestors of other types
+   * from this cache, e.g. of the element types of two array types. As the least common ancestors do
+   * not depend on the order of the types, the answer for <code>(a, b)</code> is also used for
+   * <code>
+   * (b, a)</code>.
+   */
+  @Nonnull
+  public Set<Type> leastCommonAncestorsOf(
+      @Nonnull Type a,
+      @Nonnull Type b,
+      @Nonnull BiFunction<Type, Type, ? extends Set<Type>> computation) {
+    TypePair key = new TypePair(a, b);
+    Set<Type> ancestors = leastCommonAncestors.get(key);
+    if (ancestors == null) {
+      // no computeIfAbsent(), as the computation may update the map recursively
+      ancestors = Collections.unmodifiableSet(computation.apply(a, b));
+      leastCommonAncestors.putIfAbsent(key, ancestors);
+    }
+    return ancestors;
+  }
+
+  /** Removes all cached answers, e.g. after the classes of the view changed. */
+  public void clear() {
+    subtypes.clear();
+    superClasses.clear();
+    leastCommonAncestors.clear();
+  }
+
+  /** An unordered pair of types. */
+  private static final class TypePair {
+    @Nonnull private final Type a;
+    @Nonnull private final Type b;
+
+    TypePair(@Nonnull Type a, @Nonnull Type b) {
+      this.a = a;
+      this.b = b;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof TypePair)) {
+        return false;
+      }
+      TypePair other = (TypePair) o;
+      return (a.equals(other.a) && b.equals(other.b)) || (a.equals(other.b) && b.equals(other.a));
+    }
+
+    @Override
+    public int hashCode() {
+      // symmetric, so that (a, b) and (b, a) have the same hash code
+      return a.hashCode() + b.hashCode();
+    }
+  }
+}
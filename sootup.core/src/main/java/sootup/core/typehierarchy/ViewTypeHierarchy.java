@@ -297,6 +297,34 @@ public class ViewTypeHierarchy implements MutableTypeHierarchy {
     return sootClassFor(classType).getSuperclass().orElse(null);
   }
 
+  /**
+   * Like {@link TypeHierarchy#incompleteSuperClassesOf(ClassType)}, but asks the view for phantom
+   * classes instead of relying on the exception thrown by {@link #superClassOf(ClassType)}.
+   */
+  @Nonnull
+  @Override
+  public List<ClassType> incompleteSuperClassesOf(@Nonnull ClassType classType) {
+    List<ClassType> superClasses = new ArrayList<>();
+    ClassType currentClass = classType;
+    while (true) {
+      Optional<? extends SootClass<?>> sootClass = view.getClass(currentClass);
+      if (!sootClass.isPresent()) {
+        logger.warn(
+            "Could not find "
+                + currentClass
+                + " and stopped there the resolve of superclasses of "
+                + classType);
+        return superClasses;
+      }
+      Optional<? extends ClassType> superClass = sootClass.get().getSuperclass();
+      if (!superClass.isPresent()) {
+        return superClasses;
+      }
+      currentClass = superClass.get();
+      superClasses.add(currentClass);
+    }
+  }
+
   public boolean isInterface(@Nonnull ClassType type) {
     Vertex vertex = lazyScanResult.get().typeToVertex.get(type);
     if (vertex == null) {
@@ -34,6 +34,7 @@ import sootup.core.model.SootMethod;
 import sootup.core.signatures.FieldSignature;
 import sootup.core.signatures.MethodSignature;
 import sootup.core.typehierarchy.TypeHierarchy;
+import sootup.core.typehierarchy.TypeHierarchyCache;
 import sootup.core.typehierarchy.ViewTypeHierarchy;
 
 /**
@@ -46,6 +47,7 @@ public abstract class AbstractView<T extends SootClass<?>> implements View<T> {
   @Nonnull private final Project<T, ? extends View<T>> project;
 
   @Nullable private TypeHierarchy typeHierarchy;
+  @Nonnull private final TypeHierarchyCache typeHierarchyCache;
 
   @Override
   @Nonnull
@@ -56,9 +58,16 @@ public abstract class AbstractView<T extends SootClass<?>> implements View<T> {
     return typeHierarchy;
   }
 
+  @Override
+  @Nonnull
+  public TypeHierarchyCache getTypeHierarchyCache() {
+    return typeHierarchyCache;
+  }
+
   public AbstractView(@Nonnull Project<?, ? extends View<?>> project) {
     this.project = (Project<T, ? extends View<T>>) project;
     this.typeHierarchy = new ViewTypeHierarchy(this);
+    this.typeHierarchyCache = new TypeHierarchyCache(typeHierarchy);
   }
 
   @Override
@@ -22,21 +22,31 @@ package sootup.core.views;
  * #L%
  */
 
+import java.util.AbstractMap;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import sootup.core.IdentifierFactory;
 import sootup.core.Project;
 import sootup.core.Scope;
+import sootup.core.cache.BodyCache;
 import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.inputlocation.ClassLoadingOptions;
 import sootup.core.model.SootClass;
 import sootup.core.model.SootField;
 import sootup.core.model.SootMethod;
 import sootup.core.signatures.FieldSignature;
 import sootup.core.signatures.MethodSignature;
 import sootup.core.transform.BodyInterceptor;
+import sootup.core.transform.BodyInterceptorStatistics;
 import sootup.core.typehierarchy.TypeHierarchy;
+import sootup.core.typehierarchy.TypeHierarchyCache;
 import sootup.core.types.ClassType;
 
 /**
@@ -52,6 +62,12 @@ public interface View<T extends SootClass> {
   @Nonnull
   List<BodyInterceptor> getBodyInterceptors(AnalysisInputLocation inputLocation);
 
+  /** Returns the {@link ClassLoadingOptions} the given input location loads its classes with. */
+  @Nonnull
+  default ClassLoadingOptions getClassLoadingOptions(AnalysisInputLocation inputLocation) {
+    return () -> getBodyInterceptors(inputLocation);
+  }
+
   /** Return all classes in the view. */
   @Nonnull
   Collection<T> getClasses();
@@ -79,10 +95,81 @@ public interface View<T extends SootClass> {
   @Nonnull
   TypeHierarchy getTypeHierarchy();
 
+  /**
+   * Returns the cache for queries to the {@link TypeHierarchy} of this view which are shared by the
+   * bodies of its methods, e.g. while their types are resolved. By default the cache is not shared.
+   */
+  @Nonnull
+  default TypeHierarchyCache getTypeHierarchyCache() {
+    return new TypeHierarchyCache(getTypeHierarchy());
+  }
+
   /** Returns the {@link IdentifierFactory} for this view. */
   @Nonnull
   IdentifierFactory getIdentifierFactory();
 
+  /**
+   * Returns the cache for resolved method bodies of this view, if bodies are cached independently
+   * of the methods that declare them.
+   */
+  @Nonnull
+  default Optional<BodyCache> getBodyCache() {
+    return Optional.empty();
+  }
+
+  /**
+   * Returns the statistics which record the effect of each {@link BodyInterceptor} on the bodies of
+   * this view. By default the statistics are disabled.
+   */
+  @Nonnull
+  default BodyInterceptorStatistics getBodyInterceptorStatistics() {
+    return BodyInterceptorStatistics.disabled();
+  }
+
+  /**
+   * Resolves the bodies of the given methods concurrently by the given executor, e.g. a {@link
+   * java.util.concurrent.ForkJoinPool}, so that the bodies are available when they are needed
+   * later. The methods with the largest bodies (see {@link
+   * sootup.core.frontend.BodySource#estimateBodySize()}) are submitted first, so that they do not
+   * delay the end of the resolution. Methods without a body are skipped.
+   *
+   * @throws RuntimeException an exception which was thrown while resolving a body, after all other
+   *     bodies were resolved
+   */
+  default void resolveBodies(
+      @Nonnull Collection<? extends SootMethod> methods, @Nonnull Executor executor) {
+    List<Map.Entry<SootMethod, Integer>> methodsBySize =
+        methods.stream()
+            .filter(SootMethod::hasBody)
+            .map(
+                method ->
+                    new AbstractMap.SimpleImmutableEntry<SootMethod, Integer>(
+                        method, method.getBodySource().estimateBodySize()))
+            .sorted(Map.Entry.<SootMethod, Integer>comparingByValue().reversed())
+            .collect(Collectors.toList());
+
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[methodsBySize.size()];
+    for (int i = 0; i < futures.length; i++) {
+      futures[i] = CompletableFuture.runAsync(methodsBySize.get(i).getKey()::getBody, executor);
+    }
+    try {
+      CompletableFuture.allOf(futures).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Returns whether the given type is referenced but its class can not be found in this view (a
+   * phantom class), e.g. because a dependency is missing on the class path.
+   */
+  default boolean isPhantomClass(@Nonnull ClassType classType) {
+    return !getClass(classType).isPresent();
+  }
+
   @Nonnull
   default T getClassOrThrow(@Nonnull ClassType classType) {
     return getClass(classType)
@@ -0,0 +1,144 @@
+package sootup.core.transform;
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import javax.annotation.Nonnull;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.common.stmt.JNopStmt;
+import sootup.core.jimple.common.stmt.JReturnVoidStmt;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.Body;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.signatures.MethodSubSignature;
+import sootup.core.signatures.PackageName;
+import sootup.core.types.ClassType;
+import sootup.core.types.PrimitiveType;
+import sootup.core.types.VoidType;
+import sootup.core.views.View;
+
+@Category(Java8Test.class)
+public class BodyInterceptorStatisticsTest {
+
+  /** Removes the nops which follow the starting stmt of a body. */
+  private static class NopRemover implements BodyInterceptor {
+    @Override
+    public void interceptBody(@Nonnull Body.BodyBuilder builder, @Nonnull View<?> view) {
+      Stmt startingStmt = builder.getStmtGraph().getStartingStmt();
+      for (Stmt successor : new ArrayList<>(builder.getStmtGraph().successors(startingStmt))) {
+        if (successor instanceof JNopStmt) {
+          builder.removeStmt(successor);
+        }
+      }
+    }
+  }
+
+  /** Renames all locals of a body. */
+  private static class LocalRenamer implements BodyInterceptor {
+    @Override
+    public void interceptBody(@Nonnull Body.BodyBuilder builder, @Nonnull View<?> view) {
+      for (Local local : new ArrayList<>(builder.getLocals())) {
+        builder.replaceLocal(local, local.withName(local.getName() + "_renamed"));
+      }
+    }
+  }
+
+  // the interceptors of this test do not need a view
+  private final View<?> view = null;
+
+  @Test
+  public void testEffectsAreRecorded() {
+    BodyInterceptorStatistics statistics = new BodyInterceptorStatistics();
+    for (int i = 0; i < 3; i++) {
+      Body.BodyBuilder builder = createBodyBuilder("method" + i);
+      statistics.interceptBody(new NopRemover(), builder, view);
+      statistics.interceptBody(new LocalRenamer(), builder, view);
+      // the interceptors are applied
+      assertEquals(2, builder.getStmtGraph().getNodes().size());
+      assertTrue(
+          builder.getLocals().stream().allMatch(local -> local.getName().endsWith("_renamed")));
+    }
+
+    assertEquals(2, statistics.getEntries().size());
+    BodyInterceptorStatistics.Entry nopRemover = statistics.getEntry(NopRemover.class);
+    assertEquals(3, nopRemover.getInvocationCount());
+    assertEquals(3, nopRemover.getRemovedStmtCount());
+    assertEquals(0, nopRemover.getAddedStmtCount());
+    assertEquals(0, nopRemover.getChangedLocalCount());
+    assertNotNull(nopRemover.getSlowestMethod());
+
+    BodyInterceptorStatistics.Entry localRenamer = statistics.getEntry(LocalRenamer.class);
+    assertEquals(3, localRenamer.getInvocationCount());
+    assertEquals(0, localRenamer.getRemovedStmtCount());
+    // each renamed local is counted as removed and as added local
+    assertEquals(3 * 2 * 2, localRenamer.getChangedLocalCount());
+
+    // a header line and a line per interceptor
+    assertEquals(3, statistics.toCsv().split("\n").length);
+  }
+
+  @Test
+  public void testDisabledStatisticsOnlyApplyTheInterceptors() {
+    BodyInterceptorStatistics statistics = BodyInterceptorStatistics.disabled();
+    assertFalse(statistics.isEnabled());
+
+    Body.BodyBuilder builder = createBodyBuilder("method");
+    statistics.interceptBody(new NopRemover(), builder, view);
+    assertEquals(2, builder.getStmtGraph().getNodes().size());
+    assertTrue(statistics.getEntries().isEmpty());
+  }
+
+  /** Creates a body with two locals and the statements nop, nop, return. */
+  @Nonnull
+  private static Body.BodyBuilder createBodyBuilder(@Nonnull String methodName) {
+    StmtPositionInfo noPosition = StmtPositionInfo.createNoStmtPositionInfo();
+    Stmt firstNop = new JNopStmt(noPosition);
+    Stmt secondNop = new JNopStmt(noPosition);
+    Stmt returnStmt = new JReturnVoidStmt(noPosition);
+
+    Body.BodyBuilder builder = Body.builder();
+    builder
+        .setMethodSignature(
+            new MethodSignature(
+                generateClass("Example", new PackageName("a.b")),
+                new MethodSubSignature(
+                    methodName, Collections.emptyList(), VoidType.getInstance())))
+        .setModifiers(Collections.emptySet())
+        .addLocal(new Local("a", PrimitiveType.getInt()))
+        .addLocal(new Local("b", PrimitiveType.getInt()));
+    builder.getStmtGraph().addBlock(Arrays.asList(firstNop, secondNop, returnStmt));
+    builder.setStartingStmt(firstNop);
+    return builder;
+  }
+
+  @Nonnull
+  private static ClassType generateClass(@Nonnull String name, @Nonnull PackageName pckg) {
+    return new ClassType() {
+      @Override
+      public boolean isBuiltInClass() {
+        return false;
+      }
+
+      @Override
+      public String getFullyQualifiedName() {
+        return getPackageName().toString() + "." + getClassName();
+      }
+
+      @Override
+      public String getClassName() {
+        return name;
+      }
+
+      @Override
+      public PackageName getPackageName() {
+        return pckg;
+      }
+    };
+  }
+}
@@ -21,9 +21,15 @@ package sootup.java.bytecode.frontend;
  * #L%
  */
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.tree.ClassNode;
 import org.slf4j.Logger;
@@ -31,6 +37,7 @@ import org.slf4j.LoggerFactory;
 import sootup.core.frontend.ClassProvider;
 import sootup.core.frontend.SootClassSource;
 import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.inputlocation.ClassLoadingOptions;
 import sootup.core.inputlocation.FileType;
 import sootup.core.model.SootClass;
 import sootup.core.types.ClassType;
@@ -47,6 +54,9 @@ public class AsmJavaClassProvider implements ClassProvider<JavaSootClass> {
   @Nonnull private final View<?> view;
   private static final @Nonnull Logger logger = LoggerFactory.getLogger(AsmJavaClassProvider.class);
 
+  /** the store of each body store directory (see {@link ClassLoadingOptions}) */
+  @Nonnull private final Map<Path, PersistentBodyStore> bodyStores = new ConcurrentHashMap<>();
+
   public AsmJavaClassProvider(@Nonnull View<?> view) {
     this.view = view;
   }
@@ -56,18 +66,60 @@ public class AsmJavaClassProvider implements ClassProvider<JavaSootClass> {
       AnalysisInputLocation<? extends SootClass<?>> analysisInputLocation,
       Path sourcePath,
       ClassType classType) {
-    SootClassNode classNode = new SootClassNode(analysisInputLocation);
+    byte[] classFile;
+    try {
+      classFile = Files.readAllBytes(sourcePath);
+    } catch (IOException exception) {
+      logResolveFailure(classType, sourcePath, exception);
+      return Optional.empty();
+    }
+    return createClassSource(analysisInputLocation, sourcePath, classType, classFile);
+  }
+
+  /**
+   * Creates the class source from the content of a class file which has already been read, e.g.
+   * from an archive.
+   *
+   * @param sourcePath the location of the class file, which is not read again
+   * @param classFile the content of the class file
+   */
+  public Optional<SootClassSource<JavaSootClass>> createClassSource(
+      AnalysisInputLocation<? extends SootClass<?>> analysisInputLocation,
+      Path sourcePath,
+      ClassType classType,
+      byte[] classFile) {
+    ClassLoadingOptions classLoadingOptions = view.getClassLoadingOptions(analysisInputLocation);
+    boolean loadMethodBodies = classLoadingOptions.isLoadingMethodBodies();
+    BodyStoreEntry bodyStoreEntry =
+        loadMethodBodies
+            ? classLoadingOptions
+                .getBodyStoreDirectory()
+                .map(
+                    directory ->
+                        new BodyStoreEntry(
+                            bodyStores.computeIfAbsent(directory, PersistentBodyStore::new),
+                            PersistentBodyStore.classFileHash(classFile)))
+                .orElse(null)
+            : null;
+    SootClassNode classNode;
 
     try {
-      AsmUtil.initAsmClassSource(sourcePath, classNode);
-    } catch (IOException | IllegalArgumentException exception) {
-      logger.warn(
-          "ASM could not resolve class source of "
-              + classType
-              + " in "
-              + sourcePath
-              + " causing "
-              + exception.getMessage());
+      ClassReader classReader = new ClassReader(classFile);
+      // the class is read without method bodies: a body is read from the retained class file when
+      // it is resolved (see AsmMethodSource), so only the bodies which are needed are materialized
+      classNode =
+          new SootClassNode(
+              analysisInputLocation,
+              loadMethodBodies ? classReader : null,
+              sourcePath,
+              bodyStoreEntry);
+      classReader.accept(
+          classNode,
+          loadMethodBodies
+              ? ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES
+              : ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+    } catch (IllegalArgumentException exception) {
+      logResolveFailure(classType, sourcePath, exception);
       return Optional.empty();
     }
 
@@ -87,6 +139,17 @@ public class AsmJavaClassProvider implements ClassProvider<JavaSootClass> {
     }
   }
 
+  private void logResolveFailure(
+      ClassType classType, Path sourcePath, @Nonnull Exception exception) {
+    logger.warn(
+        "ASM could not resolve class source of "
+            + classType
+            + " in "
+            + sourcePath
+            + " causing "
+            + exception.getMessage());
+  }
+
   @Override
   @Nonnull
   public FileType getHandledFileType() {
@@ -97,9 +160,29 @@ public class AsmJavaClassProvider implements ClassProvider<JavaSootClass> {
 
     private final AnalysisInputLocation<? extends SootClass<?>> analysisInputLocation;
 
-    SootClassNode(AnalysisInputLocation<? extends SootClass<?>> analysisInputLocation) {
+    /** the class file to read method bodies from or null if bodies are not loaded */
+    @Nullable private final ClassReader classReader;
+
+    /** the length of the code of each method by its name and descriptor */
+    @Nonnull private final Map<String, Integer> codeLengths;
+
+    @Nonnull private final Path sourcePath;
+
+    /** where the bodies of the class are stored or null if they are not stored */
+    @Nullable private final BodyStoreEntry bodyStoreEntry;
+
+    SootClassNode(
+        AnalysisInputLocation<? extends SootClass<?>> analysisInputLocation,
+        @Nullable ClassReader classReader,
+        @Nonnull Path sourcePath,
+        @Nullable BodyStoreEntry bodyStoreEntry) {
       super(AsmUtil.SUPPORTED_ASM_OPCODE);
       this.analysisInputLocation = analysisInputLocation;
+      this.classReader = classReader;
+      this.codeLengths =
+          classReader == null ? Collections.emptyMap() : AsmUtil.getCodeLengths(classReader);
+      this.sourcePath = sourcePath;
+      this.bodyStoreEntry = bodyStoreEntry;
     }
 
     @Override
@@ -119,9 +202,25 @@ public class AsmJavaClassProvider implements ClassProvider<JavaSootClass> {
               signature,
               exceptions,
               view,
-              view.getBodyInterceptors(analysisInputLocation));
+              view.getBodyInterceptors(analysisInputLocation),
+              classReader,
+              codeLengths.getOrDefault(name + desc, 0),
+              sourcePath,
+              bodyStoreEntry);
       methods.add(mn);
       return mn;
     }
   }
+
+  /** The store of the bodies of a class file together with the hash of that class file. */
+  static class BodyStoreEntry {
+
+    @Nonnull final PersistentBodyStore bodyStore;
+    @Nonnull final String classFileHash;
+
+    BodyStoreEntry(@Nonnull PersistentBodyStore bodyStore, @Nonnull String classFileHash) {
+      this.bodyStore = bodyStore;
+      this.classFileHash = classFileHash;
+    }
+  }
 }
@@ -40,6 +40,7 @@ import static org.objectweb.asm.tree.AbstractInsnNode.VAR_INSN;
 
 import com.google.common.base.Suppliers;
 import com.google.common.collect.*;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.function.BiFunction;
@@ -48,11 +49,21 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.Attribute;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.TypePath;
 import org.objectweb.asm.commons.JSRInlinerAdapter;
 import org.objectweb.asm.tree.*;
+import sootup.core.cache.BodyCache;
 import sootup.core.frontend.BodySource;
+import sootup.core.frontend.ResolveException;
 import sootup.core.graph.MutableBlockStmtGraph;
+import sootup.core.inputlocation.ClassLoadingOptions;
 import sootup.core.jimple.Jimple;
 import sootup.core.jimple.basic.*;
 import sootup.core.jimple.common.constant.DoubleConstant;
@@ -81,6 +92,7 @@ import sootup.core.model.*;
 import sootup.core.signatures.FieldSignature;
 import sootup.core.signatures.MethodSignature;
 import sootup.core.transform.BodyInterceptor;
+import sootup.core.transform.BodyInterceptorStatistics;
 import sootup.core.types.ArrayType;
 import sootup.core.types.ClassType;
 import sootup.core.types.PrimitiveType;
@@ -131,6 +143,30 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
   private final View<?> view;
   private final List<BodyInterceptor> bodyInterceptors;
 
+  /**
+   * The class file which contains the code of this method or null if the class is loaded without
+   * method bodies (see {@link ClassLoadingOptions}).
+   */
+  @Nullable private final ClassReader classReader;
+
+  /** the length of the bytecode of this method in bytes, see {@link #estimateBodySize()} */
+  private final int codeLength;
+
+  /** the location of the class file */
+  @Nonnull private final Path sourcePath;
+
+  /**
+   * where the body of this method is loaded from and stored after its conversion or null if it is
+   * not stored (see {@link ClassLoadingOptions#getBodyStoreDirectory()})
+   */
+  @Nullable private final AsmJavaClassProvider.BodyStoreEntry bodyStoreEntry;
+
+  /** whether the instructions, try-catch blocks etc. of this method have been read already */
+  private boolean codeLoaded = false;
+
+  /** whether the code contains jsr instructions, see {@link #releaseCode()} */
+  private boolean containsSubroutines = false;
+
   @Nonnull private final Set<LabelNode> inlineExceptionLabels = new HashSet<>();
 
   @Nonnull
@@ -149,9 +185,17 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
       @Nonnull String signature,
       @Nonnull String[] exceptions,
       View<?> view,
-      @Nonnull List<BodyInterceptor> bodyInterceptors) {
+      @Nonnull List<BodyInterceptor> bodyInterceptors,
+      @Nullable ClassReader classReader,
+      int codeLength,
+      @Nonnull Path sourcePath,
+      @Nullable AsmJavaClassProvider.BodyStoreEntry bodyStoreEntry) {
     super(AsmUtil.SUPPORTED_ASM_OPCODE, null, access, name, desc, signature, exceptions);
     this.bodyInterceptors = bodyInterceptors;
+    this.classReader = classReader;
+    this.codeLength = codeLength;
+    this.sourcePath = sourcePath;
+    this.bodyStoreEntry = bodyStoreEntry;
     this.view = view;
 
     identifierFactory = (JavaIdentifierFactory) view.getIdentifierFactory();
@@ -181,11 +225,59 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
         : StmtPositionInfo.createNoStmtPositionInfo();
   }
 
+  /**
+   * Returns the length of the bytecode of this method, which is read together with the lengths of
+   * the other methods of its class from the class file without reading the code itself.
+   */
+  @Override
+  public int estimateBodySize() {
+    return classReader == null ? 0 : codeLength;
+  }
+
+  /** Returns false if the class of this method was loaded without method bodies. */
+  @Override
+  public boolean isBodyAvailable() {
+    return classReader != null;
+  }
+
+  /**
+   * Converts the bytecode of this method into a body. The conversion keeps its state in this
+   * source, so concurrent resolutions of the same method are serialized; different methods, even of
+   * the same class, can be resolved concurrently.
+   */
   @Override
   @Nonnull
-  public Body resolveBody(@Nonnull Iterable<MethodModifier> modifierIt) {
+  public synchronized Body resolveBody(@Nonnull Iterable<MethodModifier> modifierIt) {
+    if (classReader == null) {
+      throw new ResolveException(
+          "The body of "
+              + lazyMethodSignature.get()
+              + " is not available as its class was loaded without method bodies.",
+          sourcePath);
+    }
+    if (bodyStoreEntry != null) {
+      Optional<Body> storedBody =
+          bodyStoreEntry.bodyStore.load(
+              bodyStoreEntry.classFileHash,
+              bodyInterceptors,
+              lazyMethodSignature.get(),
+              identifierFactory);
+      if (storedBody.isPresent()) {
+        return storedBody.get();
+      }
+    }
+    if (!codeLoaded) {
+      readCode(classReader);
+    }
 
     /* initialize */
+    // the body may be resolved again, e.g. after it was evicted from a BodyCache
+    replacedStmt.clear();
+    inlineExceptionLabels.clear();
+    inlineExceptionHandlers.clear();
+    labelsToStmt.clear();
+    currentLineNumber = -1;
+    maxLineNumber = 0;
     nextLocal = maxLocals;
     locals =
         new NonIndexOutofBoundsArrayList<>(
@@ -251,18 +343,116 @@ public class AsmMethodSource extends JSRInlinerAdapter implements BodySource {
     stmtsThatBranchToLabel = null;
     insnToStmt = null;
     operandStack = null;
+    trapHandler = null;
+    replacedStmt.clear();
+    inlineExceptionLabels.clear();
+    inlineExceptionHandlers.clear();
+    labelsToStmt.clear();
+    releaseCode();
 
     bodyBuilder.setMethodSignature(lazyMethodSignature.get());
 
+    BodyInterceptorStatistics interceptorStatistics = view.getBodyInterceptorStatistics();
     for (BodyInterceptor bodyInterceptor : bodyInterceptors) {
       try {
-        bodyInterceptor.interceptBody(bodyBuilder, view);
+        interceptorStatistics.interceptBody(bodyInterceptor, bodyBuilder, view);
       } catch (Exception e) {
         throw new IllegalStateException(
             "Failed to apply " + bodyInterceptor + " to " + lazyMethodSignature.get(), e);
       }
     }
-    return bodyBuilder.build();
+    Body body = bodyBuilder.build();
+    if (bodyStoreEntry != null) {
+      bodyStoreEntry.bodyStore.store(bodyStoreEntry.classFileHash, bodyInterceptors, body);
+    }
+    return body;
+  }
+
+  /**
+   * Reads the code of this method from the class file, as the class itself is read without method
+   * bodies. Only the code related parts are visited, as the rest of the method, e.g. its
+   * annotations, is already known.
+   */
+  private void readCode(@Nonnull ClassReader classReader) {
+    MethodVisitor codeVisitor =
+        new MethodVisitor(AsmUtil.SUPPORTED_ASM_OPCODE, this) {
+          @Override
+          public void visitParameter(String name, int access) {}
+
+          @Override
+          public AnnotationVisitor visitAnnotationDefault() {
+            return null;
+          }
+
+          @Override
+          public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+            return null;
+          }
+
+          @Override
+          public AnnotationVisitor visitTypeAnnotation(
+              int typeRef, TypePath typePath, String descriptor, boolean visible) {
+            return null;
+          }
+
+          @Override
+          public void visitAnnotableParameterCount(int parameterCount, boolean visible) {}
+
+          @Override
+          public AnnotationVisitor visitParameterAnnotation(
+              int parameter, String descriptor, boolean visible) {
+            return null;
+          }
+
+          @Override
+          public void visitAttribute(Attribute attribute) {}
+
+          @Override
+          public void visitJumpInsn(int opcode, Label label) {
+            if (opcode == JSR) {
+              containsSubroutines = true;
+            }
+            super.visitJumpInsn(opcode, label);
+          }
+        };
+
+    classReader.accept(
+        new ClassVisitor(AsmUtil.SUPPORTED_ASM_OPCODE) {
+          @Override
+          public MethodVisitor visitMethod(
+              int access, String name, String descriptor, String signature, String[] exceptions) {
+            if (name.equals(AsmMethodSource.this.name) && descriptor.equals(desc)) {
+              return codeVisitor;
+            }
+            return null;
+          }
+        },
+        ClassReader.SKIP_FRAMES);
+    codeLoaded = true;
+  }
+
+  /**
+   * Drops the code of this method after it has been converted, so that a resolved view does not
+   * keep the bytecode and the Jimple of its methods. If the body is resolved again, e.g. after it
+   * was evicted from a {@link BodyCache}, the code is read again from the class file.
+   */
+  private void releaseCode() {
+    if (containsSubroutines) {
+      // the JSRInlinerAdapter keeps the state of the inlined subroutines, which can not be reset
+      return;
+    }
+    instructions = new InsnList();
+    tryCatchBlocks = new ArrayList<>();
+    localVariables = null;
+    visibleLocalVariableAnnotations = null;
+    invisibleLocalVariableAnnotations = null;
+    codeLoaded = false;
+  }
+
+  @Nonnull
+  @Override
+  public Optional<BodyCache> getBodyCache() {
+    return view.getBodyCache();
   }
 
   @Override
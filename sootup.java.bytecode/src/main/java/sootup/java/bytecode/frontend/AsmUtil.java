@@ -32,7 +32,6 @@ import java.util.stream.StreamSupport;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.objectweb.asm.ClassReader;
-import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.AbstractInsnNode;
 import org.objectweb.asm.tree.AnnotationNode;
@@ -62,21 +61,6 @@ public final class AsmUtil {
 
   public static final int SUPPORTED_ASM_OPCODE = Opcodes.ASM9;
 
-  /**
-   * Initializes a class node.
-   *
-   * @param classSource The source.
-   * @param classNode The node to initialize
-   */
-  protected static void initAsmClassSource(
-      @Nonnull Path classSource, @Nonnull ClassVisitor classNode) throws IOException {
-    try (InputStream sourceFileInputStream = Files.newInputStream(classSource)) {
-      ClassReader clsr = new ClassReader(sourceFileInputStream);
-
-      clsr.accept(classNode, ClassReader.SKIP_FRAMES);
-    }
-  }
-
   /**
    * Determines if a type is a dword type.
    *
@@ -323,6 +307,57 @@ public final class AsmUtil {
     return types;
   }
 
+  /**
+   * Returns the length of the bytecode of each method of a class in bytes, which is read from the
+   * Code attributes of the methods in the class file without reading the code itself. The class
+   * file is scanned once for all methods.
+   *
+   * @return the length of the code by the name and descriptor of the method, e.g. <code>foo(I)V
+   *     </code>; methods without code are left out
+   */
+  @Nonnull
+  public static Map<String, Integer> getCodeLengths(@Nonnull ClassReader classReader) {
+    char[] charBuffer = new char[classReader.getMaxStringLength()];
+    // skip access flags, this class and super class
+    int offset = classReader.header + 6;
+    // skip the interfaces
+    offset += 2 + 2 * classReader.readUnsignedShort(offset);
+    // skip the fields
+    int fieldCount = classReader.readUnsignedShort(offset);
+    offset += 2;
+    for (int i = 0; i < fieldCount; i++) {
+      offset = skipAttributes(classReader, offset + 6);
+    }
+    int methodCount = classReader.readUnsignedShort(offset);
+    offset += 2;
+    Map<String, Integer> codeLengths = new HashMap<>(methodCount * 4 / 3 + 1);
+    for (int i = 0; i < methodCount; i++) {
+      String nameAndDesc =
+          classReader.readUTF8(offset + 2, charBuffer)
+              + classReader.readUTF8(offset + 4, charBuffer);
+      int attributeCount = classReader.readUnsignedShort(offset + 6);
+      offset += 8;
+      for (int j = 0; j < attributeCount; j++) {
+        if ("Code".equals(classReader.readUTF8(offset, charBuffer))) {
+          // the Code attribute starts with max_stack and max_locals followed by code_length
+          codeLengths.put(nameAndDesc, classReader.readInt(offset + 10));
+        }
+        offset += 6 + classReader.readInt(offset + 2);
+      }
+    }
+    return codeLengths;
+  }
+
+  /** Returns the offset behind the attributes which start at the given offset. */
+  private static int skipAttributes(@Nonnull ClassReader classReader, int offset) {
+    int attributeCount = classReader.readUnsignedShort(offset);
+    offset += 2;
+    for (int i = 0; i < attributeCount; i++) {
+      offset += 6 + classReader.readInt(offset + 2);
+    }
+    return offset;
+  }
+
   public static String toString(AbstractInsnNode insn) {
     Printer printer = new Textifier();
     TraceMethodVisitor mp = new TraceMethodVisitor(printer);
@@ -0,0 +1,159 @@
+package sootup.java.bytecode.frontend;
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sootup.core.IdentifierFactory;
+import sootup.core.inputlocation.ClassLoadingOptions;
+import sootup.core.model.Body;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.transform.BodyInterceptor;
+import sootup.java.core.jimple.binary.JimpleBinaryReader;
+import sootup.java.core.jimple.binary.JimpleBinaryWriter;
+
+/**
+ * Stores the method bodies of class files in a directory (see {@link
+ * ClassLoadingOptions#getBodyStoreDirectory()}), so that a body which was converted and intercepted
+ * once can be loaded instead of being converted again. Each body is stored in its own file in the
+ * binary Jimple format. The name of the file is a hash of the content of the class file, the
+ * configuration keys (see {@link BodyInterceptor#getConfigurationKey()}) of the applied
+ * interceptors and the signature of the method, so an entry is never used for a changed class file
+ * or a different interceptor configuration.
+ *
+ * <p>A missing, incomplete or otherwise unreadable entry is treated like a missing one, i.e. the
+ * body is converted again.
+ *
+ * <p>The key does not cover the classes a body refers to. The output of some interceptors depends
+ * on them, e.g. the {@link sootup.java.bytecode.interceptors.TypeAssigner} uses the type hierarchy,
+ * so a stored body can be stale if another class changed, e.g. after a library was updated. The
+ * directory has to be cleared in this case. A body which is loaded from the store is not
+ * intercepted again, so it is not counted by the {@link
+ * sootup.core.transform.BodyInterceptorStatistics} of the view.
+ */
+class PersistentBodyStore {
+
+  private static final @Nonnull Logger logger = LoggerFactory.getLogger(PersistentBodyStore.class);
+
+  /** is increased on every incompatible change of the stored bodies */
+  private static final int FILE_VERSION = 1;
+
+  @Nonnull private final Path directory;
+
+  PersistentBodyStore(@Nonnull Path directory) {
+    this.directory = directory;
+  }
+
+  /** Returns the hash of a class file which is used to identify its stored bodies. */
+  @Nonnull
+  static String classFileHash(@Nonnull byte[] classFile) {
+    return Hashing.sha256().hashBytes(classFile).toString();
+  }
+
+  /** Loads the stored body of the method or returns an empty Optional if there is none. */
+  @Nonnull
+  Optional<Body> load(
+      @Nonnull String classFileHash,
+      @Nonnull List<BodyInterceptor> bodyInterceptors,
+      @Nonnull MethodSignature methodSignature,
+      @Nonnull IdentifierFactory identifierFactory) {
+    Path file = getFile(classFileHash, bodyInterceptors, methodSignature);
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != FILE_VERSION) {
+        return Optional.empty();
+      }
+      Body body = new JimpleBinaryReader(in, identifierFactory).readBody();
+      if (!body.getMethodSignature().equals(methodSignature)) {
+        return Optional.empty();
+      }
+      return Optional.of(body);
+    } catch (NoSuchFileException e) {
+      return Optional.empty();
+    } catch (IOException | RuntimeException e) {
+      logger.debug("Could not load the stored body of " + methodSignature + " from " + file, e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Stores the body of the method. The file is replaced atomically, so a concurrent {@link
+   * #load(String, List, MethodSignature, IdentifierFactory)} never reads an incomplete body. A body
+   * which can not be stored, e.g. as it contains phi expressions, is skipped.
+   */
+  void store(
+      @Nonnull String classFileHash,
+      @Nonnull List<BodyInterceptor> bodyInterceptors,
+      @Nonnull Body body) {
+    Path file = getFile(classFileHash, bodyInterceptors, body.getMethodSignature());
+    try {
+      Path shardDirectory = file.getParent();
+      Files.createDirectories(shardDirectory);
+      Path tempFile = Files.createTempFile(shardDirectory, "body", ".tmp");
+      try {
+        try (DataOutputStream out =
+            new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+          out.writeInt(FILE_VERSION);
+          new JimpleBinaryWriter(out).writeBody(body);
+        }
+        Files.move(
+            tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(tempFile);
+      }
+    } catch (IOException e) {
+      logger.debug("Could not store the body of " + body.getMethodSignature() + " in " + file, e);
+    }
+  }
+
+  @Nonnull
+  private Path getFile(
+      @Nonnull String classFileHash,
+      @Nonnull List<BodyInterceptor> bodyInterceptors,
+      @Nonnull MethodSignature methodSignature) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(classFileHash, StandardCharsets.UTF_8).putByte((byte) 0);
+    for (BodyInterceptor bodyInterceptor : bodyInterceptors) {
+      hasher.putString(bodyInterceptor.getConfigurationKey(), StandardCharsets.UTF_8);
+      hasher.putByte((byte) 0);
+    }
+    hasher.putString(methodSignature.toString(), StandardCharsets.UTF_8);
+    String key = hasher.hash().toString();
+    // files are distributed over subdirectories to keep the directories small
+    return directory.resolve(key.substring(0, 2)).resolve(key.substring(2) + ".jimplebin");
+  }
+}
@@ -20,6 +20,7 @@ package sootup.java.bytecode.inputlocation;
  * <http://www.gnu.org/licenses/lgpl-2.1.html>.
  * #L%
  */
+import java.util.Collections;
 import java.util.List;
 import javax.annotation.Nonnull;
 import sootup.core.inputlocation.ClassLoadingOptions;
@@ -38,5 +39,22 @@ public enum BytecodeClassLoadingOptions implements ClassLoadingOptions {
     public List<BodyInterceptor> getBodyInterceptors() {
       return BytecodeBodyInterceptors.Default.bodyInterceptors();
     }
+  },
+
+  /**
+   * Loads only the class headers, fields and method signatures but no method bodies, e.g. for the
+   * classes of the JDK if just their hierarchy and signatures are needed.
+   */
+  SignaturesOnly {
+    @Nonnull
+    @Override
+    public List<BodyInterceptor> getBodyInterceptors() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isLoadingMethodBodies() {
+      return false;
+    }
   }
 }
@@ -0,0 +1,168 @@
+package sootup.java.bytecode.inputlocation;
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.Nonnull;
+import sootup.core.frontend.SootClassSource;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.java.bytecode.frontend.AsmJavaClassProvider;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.types.JavaClassType;
+
+/**
+ * Creates the class sources of many class files of an input location at once. The caller reads the
+ * class files one after another, e.g. in the order of the entries of an archive, and {@link
+ * #add(Path, JavaClassType, byte[]) adds} each of them, which hands it to the executor to be parsed
+ * while the caller reads the next one.
+ *
+ * <p>At most {@link #MAX_PENDING_CLASS_FILES} class files wait to be parsed at a time, which bounds
+ * the memory of the class files that have been read ahead. If that many are pending, the caller
+ * parses the class file itself instead of waiting. A task which has not been started by the
+ * executor when the batch is {@link #finish() finished} is run by the caller as well, so the batch
+ * completes even if the executor has no free thread, e.g. because the caller runs on it.
+ *
+ * <p>A batch is used by a single thread.
+ */
+final class ClassFileBatchParser {
+
+  /** the maximum number of class files which have been read but are not parsed yet */
+  static final int MAX_PENDING_CLASS_FILES = 4 * Runtime.getRuntime().availableProcessors();
+
+  @Nonnull private final AnalysisInputLocation<JavaSootClass> inputLocation;
+  @Nonnull private final AsmJavaClassProvider classProvider;
+  @Nonnull private final Executor executor;
+  @Nonnull private final Semaphore pendingClassFiles = new Semaphore(MAX_PENDING_CLASS_FILES);
+  @Nonnull private final List<ParseTask> tasks = new ArrayList<>();
+
+  ClassFileBatchParser(
+      @Nonnull AnalysisInputLocation<JavaSootClass> inputLocation,
+      @Nonnull AsmJavaClassProvider classProvider,
+      @Nonnull Executor executor) {
+    this.inputLocation = inputLocation;
+    this.classProvider = classProvider;
+    this.executor = executor;
+  }
+
+  /** A class file which waits to be parsed by the executor or the caller, whichever comes first. */
+  private final class ParseTask implements Runnable {
+    @Nonnull private final Path sourcePath;
+    @Nonnull private final JavaClassType type;
+    @Nonnull private final byte[] classFile;
+    private final boolean isPending;
+
+    @Nonnull private final AtomicBoolean isStarted = new AtomicBoolean();
+
+    @Nonnull
+    private final CompletableFuture<Optional<SootClassSource<JavaSootClass>>> classSource =
+        new CompletableFuture<>();
+
+    private ParseTask(
+        @Nonnull Path sourcePath,
+        @Nonnull JavaClassType type,
+        @Nonnull byte[] classFile,
+        boolean isPending) {
+      this.sourcePath = sourcePath;
+      this.type = type;
+      this.classFile = classFile;
+      this.isPending = isPending;
+    }
+
+    @Override
+    public void run() {
+      if (!isStarted.compareAndSet(false, true)) {
+        return;
+      }
+      try {
+        classSource.complete(
+            classProvider.createClassSource(inputLocation, sourcePath, type, classFile));
+      } catch (Throwable e) {
+        classSource.completeExceptionally(e);
+      } finally {
+        if (isPending) {
+          pendingClassFiles.release();
+        }
+      }
+    }
+  }
+
+  /**
+   * Adds a class file to the batch, which is parsed concurrently if the executor has capacity.
+   *
+   * @param sourcePath the location of the class file
+   * @param type the type of the class in the class file
+   * @param classFile the content of the class file
+   */
+  void add(@Nonnull Path sourcePath, @Nonnull JavaClassType type, @Nonnull byte[] classFile) {
+    ParseTask task;
+    if (pendingClassFiles.tryAcquire()) {
+      task = new ParseTask(sourcePath, type, classFile, true);
+      try {
+        executor.execute(task);
+      } catch (RejectedExecutionException e) {
+        task.run();
+      }
+    } else {
+      task = new ParseTask(sourcePath, type, classFile, false);
+      task.run();
+    }
+    tasks.add(task);
+  }
+
+  /**
+   * Waits until all class files of the batch are parsed.
+   *
+   * @return the class sources of the class files that could be parsed, in the order in which the
+   *     class files were added
+   */
+  @Nonnull
+  Collection<SootClassSource<JavaSootClass>> finish() {
+    List<SootClassSource<JavaSootClass>> classSources = new ArrayList<>(tasks.size());
+    for (ParseTask task : tasks) {
+      // parse the class file here if the executor has not started it yet
+      task.run();
+      try {
+        task.classSource.join().ifPresent(classSources::add);
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        if (e.getCause() instanceof Error) {
+          throw (Error) e.getCause();
+        }
+        throw e;
+      }
+    }
+    tasks.clear();
+    return classSources;
+  }
+}
@@ -22,9 +22,16 @@ package sootup.java.bytecode.inputlocation;
  * #L%
  */
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
@@ -178,11 +185,18 @@ public class JavaClassPathAnalysisInputLocation implements AnalysisInputLocation
   @Nonnull
   public Collection<? extends AbstractClassSource<JavaSootClass>> getClassSources(
       @Nonnull View<?> view) {
+    return getClassSources(view, MoreExecutors.directExecutor());
+  }
+
+  @Override
+  @Nonnull
+  public Collection<? extends AbstractClassSource<JavaSootClass>> getClassSources(
+      @Nonnull View<?> view, @Nonnull Executor executor) {
     // By using a set here, already added classes won't be overwritten and the class which is found
     // first will be kept
     Set<AbstractClassSource<JavaSootClass>> found = new HashSet<>();
     for (AnalysisInputLocation<JavaSootClass> inputLocation : cpEntries) {
-      found.addAll(inputLocation.getClassSources(view));
+      found.addAll(inputLocation.getClassSources(view, executor));
     }
     return found;
   }
@@ -201,6 +215,43 @@ public class JavaClassPathAnalysisInputLocation implements AnalysisInputLocation
     return Optional.empty();
   }
 
+  /**
+   * Lists the class types of all class path entries. The entries are listed concurrently by a pool
+   * of at most one thread per processor, as each entry reads the directory of its archive or walks
+   * its directory tree.
+   *
+   * @see PathBasedAnalysisInputLocation#unionOfClassTypes(Collection, View)
+   */
+  @Override
+  @Nonnull
+  public Optional<Collection<ClassType>> getClassTypes(@Nonnull View<?> view) {
+    if (cpEntries.size() < 2) {
+      return PathBasedAnalysisInputLocation.unionOfClassTypes(cpEntries, view);
+    }
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            Math.min(cpEntries.size(), Runtime.getRuntime().availableProcessors()),
+            new ThreadFactoryBuilder().setNameFormat("classpath-index-%d").setDaemon(true).build());
+    try {
+      List<Future<Optional<? extends Collection<? extends ClassType>>>> listings =
+          new ArrayList<>();
+      for (AnalysisInputLocation<JavaSootClass> inputLocation : cpEntries) {
+        listings.add(executor.submit(() -> inputLocation.getClassTypes(view)));
+      }
+      Set<ClassType> classTypes = new HashSet<>();
+      for (Future<Optional<? extends Collection<? extends ClassType>>> listing : listings) {
+        Optional<? extends Collection<? extends ClassType>> types = Futures.getUnchecked(listing);
+        if (!types.isPresent()) {
+          return Optional.empty();
+        }
+        classTypes.addAll(types.get());
+      }
+      return Optional.of(classTypes);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   @Nonnull
   private Optional<AnalysisInputLocation<JavaSootClass>> inputLocationForPath(@Nonnull Path path) {
     if (Files.exists(path) && (Files.isDirectory(path) || PathUtils.isArchive(path))) {
@@ -222,16 +273,18 @@ public class JavaClassPathAnalysisInputLocation implements AnalysisInputLocation
   }
 
   /**
-   * extract the classes from the classpath
+   * extract the classes from the classpath. Archives which are identical to an earlier entry are
+   * left out.
    *
    * @param jarPath The jar path for which the classes need to be listed
    * @param fileSystem the filesystem the path should be resolved for
-   * @return list of classpath entries
+   * @return list of classpath entries, in the order of the class path
    */
   private List<AnalysisInputLocation<JavaSootClass>> explodeClassPath(
       @Nonnull String jarPath, @Nonnull FileSystem fileSystem) {
     try {
-      return explode(jarPath, fileSystem)
+      return withoutDuplicateArchives(explode(jarPath, fileSystem).collect(Collectors.toList()))
+          .stream()
           .flatMap(cp -> StreamUtils.optionalToStream(inputLocationForPath(cp)))
           .collect(Collectors.toList());
 
@@ -240,6 +293,67 @@ public class JavaClassPathAnalysisInputLocation implements AnalysisInputLocation
     }
   }
 
+  /**
+   * Removes the archives which have the same content as an archive earlier in the class path, e.g.
+   * the same library copied to several directories. As the class which is found first is used, such
+   * an archive would never provide a class but would still be searched on every lookup. Only
+   * archives of the same size are hashed.
+   *
+   * @param entries the class path entries
+   * @return the entries without duplicate archives, in the order of the class path
+   */
+  @Nonnull
+  static List<Path> withoutDuplicateArchives(@Nonnull List<Path> entries) {
+    Map<Long, List<Path>> archivesBySize = new HashMap<>();
+    for (Path entry : entries) {
+      if (Files.isRegularFile(entry) && PathUtils.isArchive(entry)) {
+        try {
+          archivesBySize.computeIfAbsent(Files.size(entry), size -> new ArrayList<>()).add(entry);
+        } catch (IOException e) {
+          // the entry is kept and reported when its input location is created
+        }
+      }
+    }
+
+    List<Path> candidates =
+        archivesBySize.values().stream()
+            .filter(archives -> archives.size() > 1)
+            .flatMap(Collection::stream)
+            .collect(Collectors.toList());
+    if (candidates.isEmpty()) {
+      return entries;
+    }
+    Map<Path, Optional<String>> hashes =
+        candidates
+            .parallelStream()
+            .collect(
+                Collectors.toMap(
+                    entry -> entry,
+                    entry -> {
+                      try {
+                        return Optional.of(PathBasedAnalysisInputLocation.contentHash(entry));
+                      } catch (IOException e) {
+                        return Optional.empty();
+                      }
+                    }));
+
+    Map<String, Path> firstArchiveOfHash = new HashMap<>();
+    List<Path> uniqueEntries = new ArrayList<>(entries.size());
+    for (Path entry : entries) {
+      Optional<String> hash = hashes.getOrDefault(entry, Optional.empty());
+      if (hash.isPresent()) {
+        Path firstArchive = firstArchiveOfHash.putIfAbsent(hash.get(), entry);
+        if (firstArchive != null) {
+          logger.debug(
+              "Ignoring class path entry " + entry + " as it is identical to " + firstArchive);
+          continue;
+        }
+      }
+      uniqueEntries.add(entry);
+    }
+    return uniqueEntries;
+  }
+
   @Override
   public int hashCode() {
     return cpEntries.hashCode();
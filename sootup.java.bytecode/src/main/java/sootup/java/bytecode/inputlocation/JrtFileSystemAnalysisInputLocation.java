@@ -21,13 +21,19 @@ package sootup.java.bytecode.inputlocation;
  * #L%
  */
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import sootup.core.IdentifierFactory;
 import sootup.core.frontend.AbstractClassSource;
 import sootup.core.frontend.ClassProvider;
@@ -50,22 +56,117 @@ import sootup.java.core.types.JavaClassType;
 /**
  * Base class for {@link AnalysisInputLocation}s that can be located by a {@link Path} object.
  *
+ * <p>The classes are looked up in an index of the modules of the JDK image (see {@link
+ * JrtModuleIndex}), which is built once per JDK image and shared by all input locations of that
+ * image. The index can be stored in a directory, so that later analyses of a JDK with the same
+ * runtime version do not have to walk the jrt file system again.
+ *
  * @author Andreas Dann created on 06.06.18
  */
 public class JrtFileSystemAnalysisInputLocation implements ModuleInfoAnalysisInputLocation {
 
-  private static final FileSystem theFileSystem = FileSystems.getFileSystem(URI.create("jrt:/"));
+  private static final @Nonnull Logger logger =
+      LoggerFactory.getLogger(JrtFileSystemAnalysisInputLocation.class);
+
+  /** the jrt file systems of the analyzed JDK images by their java home */
+  private static final Map<Path, FileSystem> fileSystems = new ConcurrentHashMap<>();
+
+  /** the module indexes of the analyzed JDK images by their java home */
+  private static final Map<Path, JrtModuleIndex> indexes = new ConcurrentHashMap<>();
+
   Map<ModuleSignature, JavaModuleInfo> moduleInfoMap = new HashMap<>();
   boolean isResolved = false;
 
   @Nonnull private final SourceType sourceType;
+  @Nonnull private final Path javaHome;
+  @Nullable private final Path indexDirectory;
+
+  @Nonnull
+  private final Supplier<FileSystem> theFileSystem =
+      Suppliers.memoize(() -> fileSystems.computeIfAbsent(getJavaHome(), this::openFileSystem));
+
+  @Nonnull private final Supplier<JrtModuleIndex> index = Suppliers.memoize(this::loadIndex);
 
   public JrtFileSystemAnalysisInputLocation() {
     this(SourceType.Library);
   }
 
   public JrtFileSystemAnalysisInputLocation(@Nonnull SourceType sourceType) {
+    this(sourceType, getRunningJavaHome(), null);
+  }
+
+  /**
+   * @param javaHome the home directory of the JDK whose modules are analyzed, which can be a
+   *     different one than the running JDK
+   * @param indexDirectory the directory in which the index of the modules is stored (named after
+   *     the runtime version and the modules image of the JDK) for later analyses, or null to build
+   *     the index in memory only
+   */
+  public JrtFileSystemAnalysisInputLocation(
+      @Nonnull SourceType sourceType, @Nonnull Path javaHome, @Nullable Path indexDirectory) {
     this.sourceType = sourceType;
+    this.javaHome = javaHome.toAbsolutePath().normalize();
+    this.indexDirectory = indexDirectory;
+  }
+
+  @Nonnull
+  private static Path getRunningJavaHome() {
+    return Paths.get(System.getProperty("java.home"));
+  }
+
+  /** Returns the home directory of the JDK whose modules are analyzed. */
+  @Nonnull
+  public Path getJavaHome() {
+    return javaHome;
+  }
+
+  @Nonnull
+  private FileSystem openFileSystem(@Nonnull Path javaHome) {
+    if (javaHome.equals(getRunningJavaHome().toAbsolutePath().normalize())) {
+      return FileSystems.getFileSystem(URI.create("jrt:/"));
+    }
+    try {
+      return FileSystems.newFileSystem(
+          URI.create("jrt:/"), Collections.singletonMap("java.home", javaHome.toString()));
+    } catch (IOException e) {
+      throw new ResolveException("Error opening the modules of the JDK", javaHome, e);
+    }
+  }
+
+  @Nonnull
+  private JrtModuleIndex loadIndex() {
+    Optional<Path> indexFile =
+        indexDirectory == null
+            ? Optional.empty()
+            : JrtModuleIndex.getRuntimeVersionKey(javaHome)
+                .map(key -> indexDirectory.resolve("jrt-" + key + ".index"));
+
+    JrtModuleIndex moduleIndex =
+        indexes.computeIfAbsent(
+            javaHome,
+            home -> {
+              if (indexFile.isPresent()) {
+                Optional<JrtModuleIndex> storedIndex = JrtModuleIndex.load(indexFile.get());
+                if (storedIndex.isPresent()) {
+                  return storedIndex.get();
+                }
+              }
+              final Path moduleRoot = theFileSystem.get().getPath("modules");
+              try {
+                return JrtModuleIndex.build(theFileSystem.get());
+              } catch (IOException e) {
+                throw new ResolveException("Error while indexing modules", moduleRoot, e);
+              }
+            });
+
+    if (indexFile.isPresent() && !Files.exists(indexFile.get())) {
+      try {
+        moduleIndex.store(indexFile.get());
+      } catch (IOException e) {
+        logger.warn("Could not store the index of the modules in " + indexFile.get(), e);
+      }
+    }
+    return moduleIndex;
   }
 
   @Override
@@ -76,43 +177,33 @@ public class JrtFileSystemAnalysisInputLocation implements ModuleInfoAnalysisInp
 
     ClassProvider<JavaSootClass> classProvider = new AsmJavaClassProvider(view);
     Path filepath =
-        theFileSystem.getPath(
-            klassType.getFullyQualifiedName().replace('.', '/')
-                + classProvider.getHandledFileType().getExtensionWithDot());
+        theFileSystem
+            .get()
+            .getPath(
+                klassType.getFullyQualifiedName().replace('.', '/')
+                    + classProvider.getHandledFileType().getExtensionWithDot());
 
-    // parse as module
+    String moduleName;
     if (klassType.getPackageName() instanceof ModulePackageName) {
-
-      ModulePackageName modulePackageSignature = (ModulePackageName) klassType.getPackageName();
-
-      final Path module =
-          theFileSystem.getPath(
-              "modules", modulePackageSignature.getModuleSignature().getModuleName());
-      Path foundClass = module.resolve(filepath);
-      if (Files.isRegularFile(foundClass)) {
-        return classProvider.createClassSource(this, foundClass, klassType);
-      } else {
+      // parse as module
+      moduleName =
+          ((ModulePackageName) klassType.getPackageName()).getModuleSignature().getModuleName();
+    } else {
+      // module information does not exist in Signature -> look up the module of the package
+      Optional<String> module =
+          index.get().getModuleOfPackage(klassType.getPackageName().getName());
+      if (!module.isPresent()) {
         return Optional.empty();
       }
+      moduleName = module.get();
     }
 
-    // module information does not exist in Signature -> search for class
-    final Path moduleRoot = theFileSystem.getPath("modules");
-    try (DirectoryStream<Path> stream = Files.newDirectoryStream(moduleRoot)) {
-      {
-        for (Path entry : stream) {
-          // check each module folder for the class
-          Path foundfile = entry.resolve(filepath);
-          if (Files.isRegularFile(foundfile)) {
-            return classProvider.createClassSource(this, foundfile, klassType);
-          }
-        }
-      }
-    } catch (IOException e) {
-      throw new ResolveException("Error loading a module", moduleRoot, e);
+    Path foundClass = theFileSystem.get().getPath("modules", moduleName).resolve(filepath);
+    if (Files.isRegularFile(foundClass)) {
+      return classProvider.createClassSource(this, foundClass, klassType);
+    } else {
+      return Optional.empty();
     }
-
-    return Optional.empty();
   }
 
   /** Retreive CLassSources of a module specified by methodSignature */
@@ -131,35 +222,19 @@ public class JrtFileSystemAnalysisInputLocation implements ModuleInfoAnalysisInp
       @Nonnull View<?> view) {
 
     ClassProvider<JavaSootClass> classProvider = new AsmJavaClassProvider(view);
+    String moduleName = moduleSignature.getModuleName();
+    final Path archiveRoot = theFileSystem.get().getPath("modules", moduleName);
 
-    String moduleInfoFilename =
-        JavaModuleIdentifierFactory.MODULE_INFO_FILE
-            + classProvider.getHandledFileType().getExtensionWithDot();
-
-    final Path archiveRoot = theFileSystem.getPath("modules", moduleSignature.getModuleName());
-    try {
-
-      return Files.walk(archiveRoot)
-          .filter(
-              filePath ->
-                  !Files.isDirectory(filePath)
-                      && filePath
-                          .toString()
-                          .endsWith(classProvider.getHandledFileType().getExtensionWithDot())
-                      && !filePath.toString().endsWith(moduleInfoFilename))
-          .flatMap(
-              p ->
-                  StreamUtils.optionalToStream(
-                      classProvider.createClassSource(
-                          this,
-                          p,
-                          this.fromPath(
-                              p.subpath(2, p.getNameCount()),
-                              p.subpath(1, 2),
-                              identifierFactory))));
-    } catch (IOException e) {
-      throw new ResolveException("Error loading module " + moduleSignature, archiveRoot, e);
-    }
+    return index.get().getClasses(moduleName).stream()
+        .flatMap(
+            className ->
+                StreamUtils.optionalToStream(
+                    classProvider.createClassSource(
+                        this,
+                        archiveRoot.resolve(
+                            className.replace('.', '/')
+                                + classProvider.getHandledFileType().getExtensionWithDot()),
+                        toClassType(className, moduleName, identifierFactory))));
   }
 
   @Override
@@ -172,6 +247,20 @@ public class JrtFileSystemAnalysisInputLocation implements ModuleInfoAnalysisInp
         .collect(Collectors.toList());
   }
 
+  @Override
+  @Nonnull
+  public Optional<Collection<ClassType>> getClassTypes(@Nonnull View<?> view) {
+    IdentifierFactory identifierFactory = view.getIdentifierFactory();
+    JrtModuleIndex moduleIndex = index.get();
+    return Optional.of(
+        moduleIndex.getModules().stream()
+            .flatMap(
+                module ->
+                    moduleIndex.getClasses(module).stream()
+                        .map(className -> toClassType(className, module, identifierFactory)))
+            .collect(Collectors.toList()));
+  }
+
   /**
    * Discover and return all modules contained in the jrt filesystem.
    *
@@ -180,26 +269,16 @@ public class JrtFileSystemAnalysisInputLocation implements ModuleInfoAnalysisInp
   @Nonnull
   public Collection<ModuleSignature> discoverModules() {
     if (!isResolved) {
-      final Path moduleRoot = theFileSystem.getPath("modules");
       final String moduleInfoFilename = JavaModuleIdentifierFactory.MODULE_INFO_FILE + ".class";
-      try (DirectoryStream<Path> stream = Files.newDirectoryStream(moduleRoot)) {
-        {
-          for (Path entry : stream) {
-            if (Files.isDirectory(entry)) {
-              ModuleSignature moduleSignature =
-                  JavaModuleIdentifierFactory.getModuleSignature(entry.subpath(1, 2).toString());
-              Path moduleInfo = entry.resolve(moduleInfoFilename);
-              if (Files.exists(moduleInfo)) {
-                moduleInfoMap.put(moduleSignature, new AsmModuleSource(moduleInfo));
-              } else {
-                moduleInfoMap.put(
-                    moduleSignature, JavaModuleInfo.createAutomaticModuleInfo(moduleSignature));
-              }
-            }
-          }
+      for (String module : index.get().getModules()) {
+        ModuleSignature moduleSignature = JavaModuleIdentifierFactory.getModuleSignature(module);
+        Path moduleInfo = theFileSystem.get().getPath("modules", module, moduleInfoFilename);
+        if (Files.exists(moduleInfo)) {
+          moduleInfoMap.put(moduleSignature, new AsmModuleSource(moduleInfo));
+        } else {
+          moduleInfoMap.put(
+              moduleSignature, JavaModuleInfo.createAutomaticModuleInfo(moduleSignature));
         }
-      } catch (IOException e) {
-        throw new ResolveException("Error while discovering modules", moduleRoot, e);
       }
       isResolved = true;
     }
@@ -207,16 +286,17 @@ public class JrtFileSystemAnalysisInputLocation implements ModuleInfoAnalysisInp
   }
 
   @Nonnull
-  private JavaClassType fromPath(
-      final Path filename, final Path moduleDir, final IdentifierFactory identifierFactory) {
+  private JavaClassType toClassType(
+      @Nonnull String className,
+      @Nonnull String moduleName,
+      @Nonnull IdentifierFactory identifierFactory) {
 
-    // else use the module system and create fully class signature
-    // we do not have a base directory here, the moduleDir is actually not a directory
-    JavaClassType sig = (JavaClassType) identifierFactory.fromPath(Paths.get(""), filename);
+    JavaClassType sig = (JavaClassType) identifierFactory.getClassType(className);
 
+    // use the module system and create fully class signature
     if (identifierFactory instanceof JavaModuleIdentifierFactory) {
       return ((JavaModuleIdentifierFactory) identifierFactory)
-          .getClassType(sig.getClassName(), sig.getPackageName().getName(), moduleDir.toString());
+          .getClassType(sig.getClassName(), sig.getPackageName().getName(), moduleName);
     }
 
     // if we are using the normal signature factory, then trim the module from the path
@@ -249,11 +329,12 @@ public class JrtFileSystemAnalysisInputLocation implements ModuleInfoAnalysisInp
 
   @Override
   public boolean equals(Object o) {
-    return o instanceof JrtFileSystemAnalysisInputLocation;
+    return o instanceof JrtFileSystemAnalysisInputLocation
+        && javaHome.equals(((JrtFileSystemAnalysisInputLocation) o).javaHome);
   }
 
   @Override
   public int hashCode() {
-    return 31;
+    return javaHome.hashCode();
   }
 }
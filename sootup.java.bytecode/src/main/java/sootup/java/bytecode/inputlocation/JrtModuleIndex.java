@@ -0,0 +1,264 @@
+package sootup.java.bytecode.inputlocation;
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.java.core.JavaModuleIdentifierFactory;
+
+/**
+ * An index of the classes in the modules of a JDK image (i.e. of its jrt file system): which module
+ * contains a package and which classes a module contains. It is built once by walking the jrt file
+ * system, and it can be stored in a file, so that the next analysis of the same JDK does not have
+ * to walk the jrt file system again.
+ *
+ * <p>Instances are immutable.
+ */
+final class JrtModuleIndex {
+
+  private static final String FILE_HEADER = "# SootUp jrt module index";
+  private static final String MODULE_PREFIX = "/";
+
+  /** module name -&gt; fully qualified names of its classes */
+  @Nonnull private final Map<String, List<String>> classesOfModule;
+
+  /** package name -&gt; name of the module that contains the package */
+  @Nonnull private final Map<String, String> moduleOfPackage = new HashMap<>();
+
+  private JrtModuleIndex(@Nonnull Map<String, List<String>> classesOfModule) {
+    this.classesOfModule = classesOfModule;
+    classesOfModule.forEach(
+        (module, classes) ->
+            classes.forEach(className -> moduleOfPackage.put(getPackageName(className), module)));
+  }
+
+  /** Builds the index by walking the modules of the given jrt file system. */
+  @Nonnull
+  static JrtModuleIndex build(@Nonnull FileSystem jrtFileSystem) throws IOException {
+    final String classExtension = ".class";
+    final String moduleInfoFilename = JavaModuleIdentifierFactory.MODULE_INFO_FILE + classExtension;
+    Map<String, List<String>> classesOfModule = new LinkedHashMap<>();
+    try (DirectoryStream<Path> modules =
+        Files.newDirectoryStream(jrtFileSystem.getPath("modules"))) {
+      for (Path module : modules) {
+        if (!Files.isDirectory(module)) {
+          continue;
+        }
+        try (Stream<Path> files = Files.walk(module)) {
+          List<String> classes =
+              files
+                  .filter(
+                      file ->
+                          file.toString().endsWith(classExtension)
+                              && !file.toString().endsWith(moduleInfoFilename)
+                              && !Files.isDirectory(file))
+                  .map(
+                      file -> {
+                        // e.g. /modules/java.base/java/lang/String.class -> java.lang.String
+                        String classFile = module.relativize(file).toString();
+                        return classFile
+                            .substring(0, classFile.length() - classExtension.length())
+                            .replace('/', '.');
+                      })
+                  .collect(Collectors.toList());
+          classesOfModule.put(module.getFileName().toString(), classes);
+        } catch (UncheckedIOException e) {
+          throw e.getCause();
+        }
+      }
+    }
+    return new JrtModuleIndex(classesOfModule);
+  }
+
+  /**
+   * Reads an index which has been stored by {@link #store(Path)}.
+   *
+   * @return the index or an empty Optional if the file does not exist or is not an index
+   */
+  @Nonnull
+  static Optional<JrtModuleIndex> load(@Nonnull Path indexFile) {
+    if (!Files.exists(indexFile)) {
+      return Optional.empty();
+    }
+    Map<String, List<String>> classesOfModule = new LinkedHashMap<>();
+    try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+      if (!FILE_HEADER.equals(reader.readLine())) {
+        return Optional.empty();
+      }
+      List<String> classes = null;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.startsWith(MODULE_PREFIX)) {
+          classes = new ArrayList<>();
+          classesOfModule.put(line.substring(MODULE_PREFIX.length()), classes);
+        } else if (classes != null) {
+          classes.add(line);
+        } else {
+          return Optional.empty();
+        }
+      }
+    } catch (IOException e) {
+      return Optional.empty();
+    }
+    return Optional.of(new JrtModuleIndex(classesOfModule));
+  }
+
+  /**
+   * Stores the index in the given file. The file is replaced atomically, so a concurrent {@link
+   * #load(Path)} never reads an incomplete index.
+   */
+  void store(@Nonnull Path indexFile) throws IOException {
+    Path directory = indexFile.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    Path tempFile = Files.createTempFile(directory, "jrt", ".index");
+    try {
+      try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+        writer.write(FILE_HEADER);
+        writer.newLine();
+        for (Map.Entry<String, List<String>> module : classesOfModule.entrySet()) {
+          writer.write(MODULE_PREFIX + module.getKey());
+          writer.newLine();
+          for (String className : module.getValue()) {
+            writer.write(className);
+            writer.newLine();
+          }
+        }
+      }
+      Files.move(
+          tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+  }
+
+  /**
+   * Returns a key which identifies the modules image of the JDK at the given java home, which can
+   * be used as name of a stored index. It consists of the runtime version of the JDK and a hash of
+   * the modules listed in its release file and of the size and modification time of its lib/modules
+   * image, as a JDK image created by jlink has the version of its JDK but only a subset of its
+   * modules.
+   *
+   * <p>Example: <code>Eclipse_Adoptium-17.0.9_9-1a2b3c4d5e6f7a8b</code>
+   *
+   * @return the key or an empty Optional if the version of the JDK can not be determined
+   */
+  @Nonnull
+  static Optional<String> getRuntimeVersionKey(@Nonnull Path javaHome) {
+    Path releaseFile = javaHome.resolve("release");
+    if (!Files.exists(releaseFile)) {
+      return Optional.empty();
+    }
+    Properties release = new Properties();
+    try (BufferedReader reader = Files.newBufferedReader(releaseFile, StandardCharsets.UTF_8)) {
+      release.load(reader);
+    } catch (IOException e) {
+      return Optional.empty();
+    }
+    String version = unquote(release.getProperty("JAVA_RUNTIME_VERSION"));
+    if (version == null) {
+      version = unquote(release.getProperty("JAVA_VERSION"));
+    }
+    if (version == null) {
+      return Optional.empty();
+    }
+    String implementor = unquote(release.getProperty("IMPLEMENTOR"));
+    String key = implementor == null ? version : implementor + "-" + version;
+
+    Hasher image = Hashing.sha256().newHasher();
+    String modules = unquote(release.getProperty("MODULES"));
+    image.putString(modules == null ? "" : modules, StandardCharsets.UTF_8);
+    Path modulesImage = javaHome.resolve("lib").resolve("modules");
+    try {
+      if (Files.exists(modulesImage)) {
+        image.putLong(Files.size(modulesImage));
+        image.putLong(Files.getLastModifiedTime(modulesImage).toMillis());
+      }
+    } catch (IOException e) {
+      return Optional.empty();
+    }
+    key += "-" + image.hash().toString().substring(0, 16);
+    return Optional.of(key.replaceAll("[^A-Za-z0-9.\\-]", "_"));
+  }
+
+  @Nullable
+  private static String unquote(@Nullable String value) {
+    if (value == null) {
+      return null;
+    }
+    return value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")
+        ? value.substring(1, value.length() - 1)
+        : value;
+  }
+
+  @Nonnull
+  private static String getPackageName(@Nonnull String className) {
+    int lastDot = className.lastIndexOf('.');
+    return lastDot < 0 ? "" : className.substring(0, lastDot);
+  }
+
+  /** Returns the names of the modules in the order of the jrt file system. */
+  @Nonnull
+  Collection<String> getModules() {
+    return Collections.unmodifiableSet(classesOfModule.keySet());
+  }
+
+  /** Returns the fully qualified names of the classes of a module (without its module-info). */
+  @Nonnull
+  List<String> getClasses(@Nonnull String module) {
+    return Collections.unmodifiableList(
+        classesOfModule.getOrDefault(module, Collections.emptyList()));
+  }
+
+  /** Returns the name of the module that contains the given package, e.g. java.base */
+  @Nonnull
+  Optional<String> getModuleOfPackage(@Nonnull String packageName) {
+    return Optional.ofNullable(moduleOfPackage.get(packageName));
+  }
+
+  /** Returns the number of indexed classes. */
+  int size() {
+    return classesOfModule.values().stream().mapToInt(List::size).sum();
+  }
+}
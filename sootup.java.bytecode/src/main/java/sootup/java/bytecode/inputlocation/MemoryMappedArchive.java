@@ -0,0 +1,468 @@
+package sootup.java.bytecode.inputlocation;
+/*-
+ * #%L
+ * Soot - a J*va Optimization Framework
+ * %%
+ * Copyright (C) 1997-2024 Raja Vallée-Rai and others
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation, either version 2.1 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Lesser Public License for more details.
+ *
+ * You should have received a copy of the GNU General Lesser Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/lgpl-2.1.html>.
+ * #L%
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Read-only access to the entries of a zip archive (e.g. a jar) that maps the archive into memory
+ * instead of opening it as a zip {@link java.nio.file.FileSystem}. The central directory is parsed
+ * once into an index of the entries, and the content of an entry is inflated directly from the
+ * mapped archive.
+ *
+ * <p>An archive nested in a mapped archive can be opened the same way (see {@link
+ * #openNested(String)}).
+ *
+ * <p>Only the common subset of the zip format is supported: archives that need zip64 extensions
+ * (i.e. more than 65535 entries or more than 4 GB) and encrypted entries are rejected by {@link
+ * #open(Path)}, and the caller has to fall back to a zip file system.
+ *
+ * <p>Instances are immutable and can be read concurrently. The mapping keeps the archive open (and
+ * locked on Windows) until it is released by {@link #close()} of the outermost archive or garbage
+ * collected.
+ */
+final class MemoryMappedArchive implements Closeable {
+
+  private static final Logger logger = LoggerFactory.getLogger(MemoryMappedArchive.class);
+
+  private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+  private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+  private static final int MAX_COMMENT_SIZE = 0xFFFF;
+  private static final int CENTRAL_DIRECTORY_HEADER_SIGNATURE = 0x02014b50;
+  private static final int CENTRAL_DIRECTORY_HEADER_SIZE = 46;
+  private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+  private static final int LOCAL_HEADER_SIZE = 30;
+  private static final int ENCRYPTED_FLAG = 1;
+
+  /** the compressed content of an entry is copied into this buffer to be inflated */
+  private static final ThreadLocal<byte[]> inputBuffer = ThreadLocal.withInitial(() -> new byte[0]);
+
+  /** The location of an entry in the mapped archive. */
+  private static final class Entry {
+    final int method;
+    final int compressedSize;
+    final int size;
+    final int localHeaderOffset;
+
+    Entry(int method, int compressedSize, int size, int localHeaderOffset) {
+      this.method = method;
+      this.compressedSize = compressedSize;
+      this.size = size;
+      this.localHeaderOffset = localHeaderOffset;
+    }
+  }
+
+  /**
+   * The state of a mapped archive which is shared with the archives nested in it, as their buffers
+   * may be slices of the mapping. Reads hold the read lock, so that the mapping is not released
+   * while it is read.
+   */
+  private static final class Mapping {
+    @Nullable final MappedByteBuffer buffer;
+    final ReadWriteLock lock = new ReentrantReadWriteLock();
+    boolean closed = false;
+
+    /** the inflaters which are not in use, they hold native memory until they are ended */
+    final Queue<Inflater> inflaters = new ConcurrentLinkedQueue<>();
+
+    Mapping(@Nullable MappedByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+  }
+
+  @Nonnull private final Path path;
+  @Nonnull private final ByteBuffer buffer;
+  @Nonnull private final Map<String, Entry> entries;
+  @Nonnull private final Mapping mapping;
+
+  /** whether this archive is nested in another one, which owns the mapping */
+  private final boolean nested;
+
+  private MemoryMappedArchive(
+      @Nonnull Path path,
+      @Nonnull ByteBuffer buffer,
+      @Nonnull Map<String, Entry> entries,
+      @Nonnull Mapping mapping,
+      boolean nested) {
+    this.path = path;
+    this.buffer = buffer;
+    this.entries = entries;
+    this.mapping = mapping;
+    this.nested = nested;
+  }
+
+  /**
+   * Maps the archive into memory and indexes its entries.
+   *
+   * @throws IOException if the archive can not be read or uses a feature of the zip format which is
+   *     not supported
+   */
+  @Nonnull
+  static MemoryMappedArchive open(@Nonnull Path path) throws IOException {
+    MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Archive is too large to be mapped: " + path);
+      }
+      // the mapping stays valid after the channel is closed
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    Mapping mapping = new Mapping(buffer);
+    try {
+      return new MemoryMappedArchive(
+          path, buffer, readCentralDirectory(path, buffer), mapping, false);
+    } catch (IOException e) {
+      unmap(mapping);
+      throw e;
+    }
+  }
+
+  @Nonnull
+  private static Map<String, Entry> readCentralDirectory(
+      @Nonnull Path path, @Nonnull ByteBuffer buffer) throws IOException {
+    int endOfCentralDirectory = findEndOfCentralDirectory(buffer);
+    if (endOfCentralDirectory < 0) {
+      throw new IOException("Not a zip archive: " + path);
+    }
+    int entryCount = readUnsignedShort(buffer, endOfCentralDirectory + 10);
+    long centralDirectoryOffset = readUnsignedInt(buffer, endOfCentralDirectory + 16);
+    if (entryCount == 0xFFFF || centralDirectoryOffset == 0xFFFFFFFFL) {
+      throw new IOException("zip64 archives are not supported: " + path);
+    }
+
+    Map<String, Entry> entries = new LinkedHashMap<>(entryCount * 4 / 3 + 1);
+    int offset = (int) centralDirectoryOffset;
+    for (int i = 0; i < entryCount; i++) {
+      if (offset + CENTRAL_DIRECTORY_HEADER_SIZE > buffer.limit()
+          || readInt(buffer, offset) != CENTRAL_DIRECTORY_HEADER_SIGNATURE) {
+        throw new IOException("Corrupt central directory in " + path);
+      }
+      int flags = readUnsignedShort(buffer, offset + 8);
+      int method = readUnsignedShort(buffer, offset + 10);
+      long compressedSize = readUnsignedInt(buffer, offset + 20);
+      long size = readUnsignedInt(buffer, offset + 24);
+      int nameLength = readUnsignedShort(buffer, offset + 28);
+      int extraLength = readUnsignedShort(buffer, offset + 30);
+      int commentLength = readUnsignedShort(buffer, offset + 32);
+      long localHeaderOffset = readUnsignedInt(buffer, offset + 42);
+      if (compressedSize == 0xFFFFFFFFL
+          || size == 0xFFFFFFFFL
+          || localHeaderOffset == 0xFFFFFFFFL) {
+        throw new IOException("zip64 archives are not supported: " + path);
+      }
+      if ((flags & ENCRYPTED_FLAG) != 0) {
+        throw new IOException("Encrypted archives are not supported: " + path);
+      }
+
+      byte[] name = new byte[nameLength];
+      copy(buffer, offset + CENTRAL_DIRECTORY_HEADER_SIZE, name, nameLength);
+      // like java.util.zip, the first entry of a name wins
+      entries.putIfAbsent(
+          new String(name, StandardCharsets.UTF_8),
+          new Entry(method, (int) compressedSize, (int) size, (int) localHeaderOffset));
+
+      offset += CENTRAL_DIRECTORY_HEADER_SIZE + nameLength + extraLength + commentLength;
+    }
+    return entries;
+  }
+
+  /** Searches the end of central directory record backwards, as it may be followed by a comment. */
+  private static int findEndOfCentralDirectory(@Nonnull ByteBuffer buffer) {
+    int lowestOffset =
+        Math.max(0, buffer.limit() - END_OF_CENTRAL_DIRECTORY_SIZE - MAX_COMMENT_SIZE);
+    for (int offset = buffer.limit() - END_OF_CENTRAL_DIRECTORY_SIZE;
+        offset >= lowestOffset;
+        offset--) {
+      if (readInt(buffer, offset) == END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+        return offset;
+      }
+    }
+    return -1;
+  }
+
+  /** Returns the names of all entries, e.g. <code>de/upb/Foo.class</code>. */
+  @Nonnull
+  Collection<String> getEntryNames() {
+    return Collections.unmodifiableSet(entries.keySet());
+  }
+
+  boolean contains(@Nonnull String entryName) {
+    return entries.containsKey(entryName);
+  }
+
+  /**
+   * Reads the uncompressed content of an entry.
+   *
+   * @param entryName the name of the entry, e.g. <code>de/upb/Foo.class</code>
+   * @return the content or an empty Optional if the archive has no such entry
+   * @throws IOException if the entry is corrupt or uses an unsupported compression method
+   */
+  @Nonnull
+  Optional<byte[]> read(@Nonnull String entryName) throws IOException {
+    Entry entry = entries.get(entryName);
+    if (entry == null) {
+      return Optional.empty();
+    }
+
+    mapping.lock.readLock().lock();
+    try {
+      checkNotClosed();
+      return Optional.of(read(entryName, entry));
+    } finally {
+      mapping.lock.readLock().unlock();
+    }
+  }
+
+  @Nonnull
+  private byte[] read(@Nonnull String entryName, @Nonnull Entry entry) throws IOException {
+    int dataOffset = dataOffset(entryName, entry);
+    byte[] content = new byte[entry.size];
+    switch (entry.method) {
+      case ZipEntry.STORED:
+        copy(buffer, dataOffset, content, entry.size);
+        return content;
+      case ZipEntry.DEFLATED:
+        inflate(entryName, entry, dataOffset, content);
+        return content;
+      default:
+        throw new IOException(
+            "Unsupported compression method " + entry.method + " of " + entryName + " in " + path);
+    }
+  }
+
+  /**
+   * Opens an archive which is an entry of this archive, e.g. a jar in a war, without extracting it:
+   * a stored entry is read directly from the buffer of this archive, a compressed one is inflated
+   * into memory. The nested archive is closed together with this archive, closing the nested
+   * archive itself has no effect.
+   *
+   * @param entryName the name of the entry, e.g. <code>WEB-INF/lib/foo.jar</code>
+   * @throws IOException if there is no such entry or it is not a supported archive
+   */
+  @Nonnull
+  MemoryMappedArchive openNested(@Nonnull String entryName) throws IOException {
+    Entry entry = entries.get(entryName);
+    if (entry == null) {
+      throw new IOException("No entry " + entryName + " in " + path);
+    }
+    Path nestedPath = path.resolve(entryName);
+    mapping.lock.readLock().lock();
+    try {
+      checkNotClosed();
+      ByteBuffer nestedBuffer;
+      if (entry.method == ZipEntry.STORED) {
+        ByteBuffer duplicate = buffer.duplicate();
+        int dataOffset = dataOffset(entryName, entry);
+        // called on Buffer, as ByteBuffer only overrides these methods since Java 9
+        ((Buffer) duplicate).position(dataOffset);
+        ((Buffer) duplicate).limit(dataOffset + entry.size);
+        nestedBuffer = duplicate.slice();
+      } else {
+        nestedBuffer = ByteBuffer.wrap(read(entryName, entry));
+      }
+      return new MemoryMappedArchive(
+          nestedPath, nestedBuffer, readCentralDirectory(nestedPath, nestedBuffer), mapping, true);
+    } finally {
+      mapping.lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Releases the mapping of the archive, so that the file is no longer held open. The archive and
+   * the archives nested in it can not be read afterwards. Closing an archive more than once or
+   * closing a nested archive has no effect.
+   */
+  @Override
+  public void close() {
+    if (nested) {
+      // the mapping is shared with the enclosing archive and its other nested archives
+      return;
+    }
+    mapping.lock.writeLock().lock();
+    try {
+      if (!mapping.closed) {
+        mapping.closed = true;
+        unmap(mapping);
+        // no read holds an inflater while the write lock is held
+        Inflater inflater;
+        while ((inflater = mapping.inflaters.poll()) != null) {
+          inflater.end();
+        }
+      }
+    } finally {
+      mapping.lock.writeLock().unlock();
+    }
+  }
+
+  private void checkNotClosed() throws IOException {
+    if (mapping.closed) {
+      throw new IOException("Archive is closed: " + path);
+    }
+  }
+
+  /**
+   * Unmaps the buffer of the given mapping right away instead of waiting for it to be garbage
+   * collected. There is no public API for this before Java 19, so the cleaner of the buffer is
+   * invoked reflectively (Java 9+: <code>Unsafe.invokeCleaner</code>, Java 8: <code>
+   * DirectByteBuffer.cleaner()</code>). If neither is accessible, the mapping is released when the
+   * buffer is garbage collected.
+   */
+  private static void unmap(@Nonnull Mapping mapping) {
+    MappedByteBuffer buffer = mapping.buffer;
+    if (buffer == null) {
+      return;
+    }
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Method invokeCleaner;
+      try {
+        invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+      } catch (NoSuchMethodException e) {
+        Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+        cleanerMethod.setAccessible(true);
+        Object cleaner = cleanerMethod.invoke(buffer);
+        if (cleaner != null) {
+          cleaner.getClass().getMethod("clean").invoke(cleaner);
+        }
+        return;
+      }
+      Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+      theUnsafe.setAccessible(true);
+      invokeCleaner.invoke(theUnsafe.get(null), buffer);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      logger.debug(
+          "Could not unmap " + buffer + ", it is released when it is garbage collected", e);
+    }
+  }
+
+  /**
+   * Returns the number of bytes which are inflated into memory if the entry is opened by {@link
+   * #openNested(String)}, i.e. its uncompressed size if it is compressed and 0 if it is stored or
+   * there is no such entry.
+   */
+  int getInflatedSize(@Nonnull String entryName) {
+    Entry entry = entries.get(entryName);
+    return entry == null || entry.method == ZipEntry.STORED ? 0 : entry.size;
+  }
+
+  /** Returns the offset of the (compressed) content of an entry, which follows its local header. */
+  private int dataOffset(@Nonnull String entryName, @Nonnull Entry entry) throws IOException {
+    int localHeader = entry.localHeaderOffset;
+    if (localHeader + LOCAL_HEADER_SIZE > buffer.limit()
+        || readInt(buffer, localHeader) != LOCAL_HEADER_SIGNATURE) {
+      throw new IOException("Corrupt entry " + entryName + " in " + path);
+    }
+    int dataOffset =
+        localHeader
+            + LOCAL_HEADER_SIZE
+            + readUnsignedShort(buffer, localHeader + 26)
+            + readUnsignedShort(buffer, localHeader + 28);
+    if (dataOffset + entry.compressedSize > buffer.limit()) {
+      throw new IOException("Corrupt entry " + entryName + " in " + path);
+    }
+    return dataOffset;
+  }
+
+  private void inflate(
+      @Nonnull String entryName, @Nonnull Entry entry, int dataOffset, @Nonnull byte[] content)
+      throws IOException {
+    // a "nowrap" inflater needs an extra dummy byte after the compressed data
+    byte[] input = inputBuffer.get();
+    if (input.length < entry.compressedSize + 1) {
+      input = new byte[Math.max(entry.compressedSize + 1, input.length * 2)];
+      inputBuffer.set(input);
+    }
+    copy(buffer, dataOffset, input, entry.compressedSize);
+    input[entry.compressedSize] = 0;
+
+    Inflater inflater = mapping.inflaters.poll();
+    if (inflater == null) {
+      inflater = new Inflater(true);
+    } else {
+      inflater.reset();
+    }
+    inflater.setInput(input, 0, entry.compressedSize + 1);
+    try {
+      int inflated = 0;
+      while (inflated < content.length) {
+        int read = inflater.inflate(content, inflated, content.length - inflated);
+        if (read == 0 && (inflater.finished() || inflater.needsInput())) {
+          break;
+        }
+        inflated += read;
+      }
+      if (inflated != content.length) {
+        throw new IOException("Corrupt entry " + entryName + " in " + path);
+      }
+    } catch (DataFormatException e) {
+      throw new IOException("Corrupt entry " + entryName + " in " + path, e);
+    } finally {
+      mapping.inflaters.add(inflater);
+    }
+  }
+
+  private static void copy(
+      @Nonnull ByteBuffer buffer, int offset, @Nonnull byte[] target, int length) {
+    // a duplicate has its own position, so concurrent reads do not interfere
+    ByteBuffer source = buffer.duplicate();
+    ((Buffer) source).position(offset);
+    source.get(target, 0, length);
+  }
+
+  private static int readUnsignedShort(@Nonnull ByteBuffer buffer, int offset) {
+    return (buffer.get(offset) & 0xFF) | (buffer.get(offset + 1) & 0xFF) << 8;
+  }
+
+  private static long readUnsignedInt(@Nonnull ByteBuffer buffer, int offset) {
+    return readInt(buffer, offset) & 0xFFFFFFFFL;
+  }
+
+  private static int readInt(@Nonnull ByteBuffer buffer, int offset) {
+    return readUnsignedShort(buffer, offset) | readUnsignedShort(buffer, offset + 2) << 16;
+  }
+}
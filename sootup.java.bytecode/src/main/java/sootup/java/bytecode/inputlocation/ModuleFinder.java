@@ -67,12 +67,13 @@ public class ModuleFinder {
   @Nonnull private final List<Path> modulePathEntries;
   private SourceType sourceType = null; // FIXME !
 
-  public boolean hasMoreToResolve() {
+  public synchronized boolean hasMoreToResolve() {
     return next < modulePathEntries.size();
   }
 
   /**
-   * Helper Class to discover modules in a given module path.
+   * Helper Class to discover modules in a given module path. The modules are discovered lazily and
+   * the finder can be used by several threads.
    *
    * @param modulePath the module path
    */
@@ -97,7 +98,7 @@ public class ModuleFinder {
   }
 
   @Nonnull
-  public Optional<JavaModuleInfo> getModuleInfo(ModuleSignature sig) {
+  public synchronized Optional<JavaModuleInfo> getModuleInfo(ModuleSignature sig) {
     if (hasMoreToResolve()) {
       getAllModules();
     }
@@ -105,7 +106,7 @@ public class ModuleFinder {
   }
 
   @Nonnull
-  public Set<ModuleSignature> getModules() {
+  public synchronized Set<ModuleSignature> getModules() {
     if (hasMoreToResolve()) {
       getAllModules();
     }
@@ -119,7 +120,8 @@ public class ModuleFinder {
    * @return the input location that resolves classes contained in the module
    */
   @Nullable
-  public AnalysisInputLocation<JavaSootClass> getModule(@Nonnull ModuleSignature moduleName) {
+  public synchronized AnalysisInputLocation<JavaSootClass> getModule(
+      @Nonnull ModuleSignature moduleName) {
 
     // check if module is cached
     AnalysisInputLocation<JavaSootClass> inputLocationForModule =
@@ -145,7 +147,7 @@ public class ModuleFinder {
    * @return the names of all modules found
    */
   @Nonnull
-  public Collection<ModuleSignature> getAllModules() {
+  public synchronized Collection<ModuleSignature> getAllModules() {
 
     while (hasMoreToResolve()) {
       discoverModulesIn(modulePathEntries.get(next++));
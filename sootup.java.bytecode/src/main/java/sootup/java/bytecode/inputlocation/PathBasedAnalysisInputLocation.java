@@ -1,26 +1,48 @@
 package sootup.java.bytecode.inputlocation;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.cache.RemovalNotification;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.googlecode.dex2jar.tools.Dex2jarCmd;
 import java.io.*;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.jar.Attributes;
 import java.util.jar.JarInputStream;
 import java.util.jar.Manifest;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -34,7 +56,6 @@ import sootup.core.inputlocation.FileType;
 import sootup.core.model.SourceType;
 import sootup.core.types.ClassType;
 import sootup.core.util.PathUtils;
-import sootup.core.util.StreamUtils;
 import sootup.core.views.View;
 import sootup.java.bytecode.frontend.AsmJavaClassProvider;
 import sootup.java.bytecode.frontend.AsmModuleSource;
@@ -76,7 +97,22 @@ import sootup.java.core.types.ModuleJavaClassType;
  * @author Kaustubh Kelkar updated on 30.07.2020
  */
 public abstract class PathBasedAnalysisInputLocation
-    implements AnalysisInputLocation<JavaSootClass> {
+    implements AnalysisInputLocation<JavaSootClass>, Closeable {
+  private static final @Nonnull Logger logger =
+      LoggerFactory.getLogger(PathBasedAnalysisInputLocation.class);
+
+  /** How the entries of an archive (e.g. a jar) are read. */
+  public enum ArchiveBackend {
+    /** The archive is opened as a zip {@link FileSystem}. */
+    ZIP_FILE_SYSTEM,
+    /**
+     * The archive is mapped into memory and its central directory is indexed once (see {@link
+     * MemoryMappedArchive}). Archives which can not be mapped are read via a zip file system. The
+     * mapping is released by {@link #close()}.
+     */
+    MEMORY_MAPPED
+  }
+
   private final SourceType sourceType;
   protected Path path;
 
@@ -94,19 +130,32 @@ public abstract class PathBasedAnalysisInputLocation
   @Nonnull
   public static PathBasedAnalysisInputLocation create(
       @Nonnull Path path, @Nonnull SourceType srcType) {
+    return create(path, srcType, ArchiveBackend.ZIP_FILE_SYSTEM);
+  }
+
+  /**
+   * Creates an input location like {@link #create(Path, SourceType)}, but reads the classes of a
+   * jar, zip, apk or war with the given backend. A war file is extracted unless it is read with the
+   * {@link ArchiveBackend#MEMORY_MAPPED} backend.
+   */
+  @Nonnull
+  public static PathBasedAnalysisInputLocation create(
+      @Nonnull Path path, @Nullable SourceType srcType, @Nonnull ArchiveBackend archiveBackend) {
     final PathBasedAnalysisInputLocation inputLocation;
     if (Files.isDirectory(path)) {
       inputLocation = new DirectoryBasedAnalysisInputLocation(path, srcType);
     } else if (PathUtils.isArchive(path)) {
 
       if (PathUtils.hasExtension(path, FileType.WAR)) {
-        inputLocation = new WarArchiveAnalysisInputLocation(path, srcType);
+        inputLocation = new WarArchiveAnalysisInputLocation(path, srcType, archiveBackend);
       } else if (isMultiReleaseJar(path)) { // check if mainfest contains multi release flag
         inputLocation = new MultiReleaseJarAnalysisInputLocation(path, srcType);
       } else if (PathUtils.hasExtension(path, FileType.APK)) {
-        inputLocation = new ApkAnalysisInputLocation(path, srcType);
+        inputLocation =
+            new ApkAnalysisInputLocation(
+                path, srcType, archiveBackend, ApkAnalysisInputLocation.DEFAULT_CACHE_DIRECTORY);
       } else {
-        inputLocation = new ArchiveBasedAnalysisInputLocation(path, srcType);
+        inputLocation = new ArchiveBasedAnalysisInputLocation(path, srcType, archiveBackend);
       }
     } else {
       throw new IllegalArgumentException(
@@ -117,10 +166,54 @@ public abstract class PathBasedAnalysisInputLocation
     return inputLocation;
   }
 
+  /**
+   * Creates an input location for an apk like {@link #create(Path, SourceType)}, but keeps the jar
+   * which is converted from its dex files in the given directory instead of <code>./tmp/</code>. A
+   * converted jar is named after the hash of the content of its apk, the dex2jar version and the
+   * conversion options (see {@link #dex2jarCacheKey(Path)}), so an apk is only converted once, even
+   * if it is analyzed again from a different path.
+   */
+  @Nonnull
+  public static PathBasedAnalysisInputLocation createFromApk(
+      @Nonnull Path apkPath, @Nullable SourceType srcType, @Nonnull Path dex2jarCacheDirectory) {
+    return new ApkAnalysisInputLocation(
+        apkPath, srcType, ArchiveBackend.ZIP_FILE_SYSTEM, dex2jarCacheDirectory);
+  }
+
+  /** Returns the SHA-256 hash of the content of the given file as hex String. */
+  @Nonnull
+  static String contentHash(@Nonnull Path path) throws IOException {
+    return com.google.common.io.Files.asByteSource(path.toFile()).hash(Hashing.sha256()).toString();
+  }
+
+  /**
+   * Returns the name of the cached jar which is converted from the given apk, i.e. the SHA-256 hash
+   * of the content of the apk, the dex2jar version and the conversion options as hex String. A jar
+   * which was converted by another dex2jar version or with other options is not reused.
+   */
+  @Nonnull
+  static String dex2jarCacheKey(@Nonnull Path apkPath) throws IOException {
+    return Hashing.sha256()
+        .newHasher()
+        .putString(contentHash(apkPath), StandardCharsets.UTF_8)
+        .putByte((byte) 0)
+        .putString(ApkAnalysisInputLocation.DEX2JAR_VERSION.get(), StandardCharsets.UTF_8)
+        .putByte((byte) 0)
+        .putString(
+            String.join(" ", ApkAnalysisInputLocation.DEX2JAR_OPTIONS), StandardCharsets.UTF_8)
+        .hash()
+        .toString();
+  }
+
+  /**
+   * Releases the resources held by this input location, e.g. the mapping of an archive. The input
+   * location must not be used afterwards. Does nothing by default.
+   */
+  @Override
+  public void close() {}
+
   private static boolean isMultiReleaseJar(Path path) {
-    try {
-      FileInputStream inputStream = new FileInputStream(path.toFile());
-      JarInputStream jarStream = new JarInputStream(inputStream);
+    try (JarInputStream jarStream = new JarInputStream(Files.newInputStream(path))) {
       Manifest mf = jarStream.getManifest();
 
       if (mf == null) {
@@ -132,8 +225,6 @@ public abstract class PathBasedAnalysisInputLocation
       String value = attributes.getValue("Multi-Release");
 
       return Boolean.parseBoolean(value);
-    } catch (FileNotFoundException e) {
-      e.printStackTrace();
     } catch (IOException e) {
       e.printStackTrace();
     }
@@ -141,28 +232,184 @@ public abstract class PathBasedAnalysisInputLocation
     return false;
   }
 
+  /**
+   * Creates the class sources of the class files below the given directory. The files are read one
+   * after another by the calling thread and parsed by the given executor (see {@link
+   * ClassFileBatchParser}).
+   */
   @Nonnull
   Collection<? extends AbstractClassSource<JavaSootClass>> walkDirectory(
       @Nonnull Path dirPath,
       @Nonnull IdentifierFactory factory,
-      @Nonnull ClassProvider<JavaSootClass> classProvider) {
-    try {
-      final FileType handledFileType = classProvider.getHandledFileType();
-      final String moduleInfoFilename = JavaModuleIdentifierFactory.MODULE_INFO_FILE + ".class";
-      return Files.walk(dirPath)
+      @Nonnull AsmJavaClassProvider classProvider,
+      @Nonnull Executor executor) {
+    final FileType handledFileType = classProvider.getHandledFileType();
+    final String moduleInfoFilename = JavaModuleIdentifierFactory.MODULE_INFO_FILE + ".class";
+    ClassFileBatchParser batch = new ClassFileBatchParser(this, classProvider, executor);
+    try (Stream<Path> files = Files.walk(dirPath)) {
+      files
           .filter(
               filePath ->
                   PathUtils.hasExtension(filePath, handledFileType)
                       && !filePath.toString().endsWith(moduleInfoFilename))
-          .flatMap(
-              p ->
-                  StreamUtils.optionalToStream(
-                      classProvider.createClassSource(this, p, factory.fromPath(dirPath, p))))
-          .collect(Collectors.toList());
-
+          .forEach(
+              p -> {
+                byte[] classFile;
+                try {
+                  classFile = Files.readAllBytes(p);
+                } catch (IOException e) {
+                  logger.warn("Could not read " + p + ": " + e.getMessage());
+                  return;
+                }
+                batch.add(p, (JavaClassType) factory.fromPath(dirPath, p), classFile);
+              });
     } catch (IOException e) {
       throw new IllegalArgumentException(e);
     }
+    return batch.finish();
+  }
+
+  /**
+   * Lists the class types of all given input locations, e.g. of the entries of a composite input
+   * location which probes its entries in order.
+   *
+   * @return the class types or an empty Optional if one of the input locations can not list its
+   *     classes
+   */
+  @Nonnull
+  static Optional<Collection<ClassType>> unionOfClassTypes(
+      @Nonnull Collection<? extends AnalysisInputLocation<?>> inputLocations,
+      @Nonnull View<?> view) {
+    Set<ClassType> classTypes = new HashSet<>();
+    for (AnalysisInputLocation<?> inputLocation : inputLocations) {
+      Optional<? extends Collection<? extends ClassType>> types = inputLocation.getClassTypes(view);
+      if (!types.isPresent()) {
+        return Optional.empty();
+      }
+      classTypes.addAll(types.get());
+    }
+    return Optional.of(classTypes);
+  }
+
+  /**
+   * Lists the types of the files below the given directory which are handled by the given class
+   * provider, without reading the files. The files are the same as those of {@link
+   * #walkDirectory(Path, IdentifierFactory, AsmJavaClassProvider, Executor)}.
+   *
+   * @return the types or an empty Optional if the directory could not be listed
+   */
+  @Nonnull
+  Optional<Collection<ClassType>> listClassTypes(
+      @Nonnull Path dirPath,
+      @Nonnull IdentifierFactory factory,
+      @Nonnull AsmJavaClassProvider classProvider) {
+    final FileType handledFileType = classProvider.getHandledFileType();
+    final String moduleInfoFilename = JavaModuleIdentifierFactory.MODULE_INFO_FILE + ".class";
+    try (Stream<Path> files = Files.walk(dirPath)) {
+      return Optional.of(
+          files
+              .filter(
+                  filePath ->
+                      PathUtils.hasExtension(filePath, handledFileType)
+                          && !filePath.toString().endsWith(moduleInfoFilename))
+              .map(p -> factory.fromPath(dirPath, p))
+              .collect(Collectors.toList()));
+    } catch (IOException | UncheckedIOException e) {
+      logger.warn(
+          "Could not list the classes of " + dirPath + ", they are looked up without an index", e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Reads the class of the given type from an archive which is read in memory.
+   *
+   * @param classesRoot the directory of the archive that contains the classes, e.g. <code>
+   *     WEB-INF/classes/</code> or an empty String for the root
+   */
+  @Nonnull
+  Optional<? extends AbstractClassSource<JavaSootClass>> getClassSourceFromArchive(
+      @Nonnull MemoryMappedArchive archive,
+      @Nonnull String classesRoot,
+      @Nonnull JavaClassType type,
+      @Nonnull AsmJavaClassProvider classProvider) {
+    String classFileName = toClassFileName(type);
+    return readClassFile(archive, classesRoot, classFileName)
+        .flatMap(
+            classFile ->
+                classProvider.createClassSource(
+                    this, path.resolve(classFileName), type, classFile));
+  }
+
+  /**
+   * Reads all classes below the given directory of an archive which is read in memory. The class
+   * files are read in the order of the archive by the calling thread and parsed by the given
+   * executor (see {@link ClassFileBatchParser}).
+   *
+   * @see #getClassSourceFromArchive(MemoryMappedArchive, String, JavaClassType,
+   *     AsmJavaClassProvider)
+   */
+  @Nonnull
+  Collection<? extends AbstractClassSource<JavaSootClass>> getClassSourcesFromArchive(
+      @Nonnull MemoryMappedArchive archive,
+      @Nonnull String classesRoot,
+      @Nonnull View<?> view,
+      @Nonnull Executor executor) {
+    ClassFileBatchParser batch =
+        new ClassFileBatchParser(this, new AsmJavaClassProvider(view), executor);
+    for (ClassType type :
+        listClassTypes(archive, classesRoot, view.getProject().getIdentifierFactory())) {
+      String classFileName = toClassFileName(type);
+      readClassFile(archive, classesRoot, classFileName)
+          .ifPresent(
+              classFile -> batch.add(path.resolve(classFileName), (JavaClassType) type, classFile));
+    }
+    return batch.finish();
+  }
+
+  @Nonnull
+  private static String toClassFileName(@Nonnull ClassType type) {
+    return type.getFullyQualifiedName().replace('.', '/') + FileType.CLASS.getExtensionWithDot();
+  }
+
+  @Nonnull
+  private Optional<byte[]> readClassFile(
+      @Nonnull MemoryMappedArchive archive,
+      @Nonnull String classesRoot,
+      @Nonnull String classFileName) {
+    try {
+      return archive.read(classesRoot + classFileName);
+    } catch (IOException e) {
+      logger.warn("Could not read " + classFileName + " from " + path + ": " + e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Lists the types of the class file entries below the given directory of an archive without
+   * reading the entries.
+   */
+  @Nonnull
+  static Collection<ClassType> listClassTypes(
+      @Nonnull MemoryMappedArchive archive,
+      @Nonnull String classesRoot,
+      @Nonnull IdentifierFactory factory) {
+    final String classExtension = FileType.CLASS.getExtensionWithDot();
+    final String moduleInfoFilename = JavaModuleIdentifierFactory.MODULE_INFO_FILE + classExtension;
+    return archive.getEntryNames().stream()
+        .filter(
+            entryName ->
+                entryName.startsWith(classesRoot)
+                    && entryName.endsWith(classExtension)
+                    && !entryName.endsWith(moduleInfoFilename))
+        .map(
+            entryName ->
+                factory.getClassType(
+                    entryName
+                        .substring(
+                            classesRoot.length(), entryName.length() - classExtension.length())
+                        .replace('/', '.')))
+        .collect(Collectors.toList());
   }
 
   @Nonnull
@@ -195,7 +442,21 @@ public abstract class PathBasedAnalysisInputLocation
     @Nonnull
     public Collection<? extends AbstractClassSource<JavaSootClass>> getClassSources(
         @Nonnull View<?> view) {
-      return walkDirectory(path, view.getIdentifierFactory(), new AsmJavaClassProvider(view));
+      return getClassSources(view, MoreExecutors.directExecutor());
+    }
+
+    @Override
+    @Nonnull
+    public Collection<? extends AbstractClassSource<JavaSootClass>> getClassSources(
+        @Nonnull View<?> view, @Nonnull Executor executor) {
+      return walkDirectory(
+          path, view.getIdentifierFactory(), new AsmJavaClassProvider(view), executor);
+    }
+
+    @Override
+    @Nonnull
+    public Optional<Collection<ClassType>> getClassTypes(@Nonnull View<?> view) {
+      return listClassTypes(path, view.getIdentifierFactory(), new AsmJavaClassProvider(view));
     }
 
     @Override
@@ -222,10 +483,24 @@ public abstract class PathBasedAnalysisInputLocation
     @Nonnull
     private final List<AnalysisInputLocation<JavaSootClass>> baseInputLocations = new ArrayList<>();
 
+    /**
+     * class file name (e.g. a/b/C.class) -&gt; the versions (ascending) whose versioned directory
+     * contains the class file. Only versions which are not a module are indexed.
+     */
+    @Nonnull private final Map<String, List<Integer>> versionsOfClassFile = new HashMap<>();
+
+    /**
+     * java version -&gt; (class file name -&gt; input location of the best matching versioned
+     * directory). A class file without an entry is taken from the base input location.
+     */
+    @Nonnull
+    private final Map<Integer, Map<String, AnalysisInputLocation<JavaSootClass>>>
+        bestMatchingLocations = new ConcurrentHashMap<>();
+
     boolean isResolved = false;
 
     private MultiReleaseJarAnalysisInputLocation(@Nonnull Path path, @Nullable SourceType srcType) {
-      super(path, srcType);
+      super(path, srcType, ArchiveBackend.ZIP_FILE_SYSTEM);
 
       int[] tmp;
       try {
@@ -317,6 +592,7 @@ public abstract class PathBasedAnalysisInputLocation
             inputLocations
                 .get(availableVersions[i])
                 .add(PathBasedAnalysisInputLocation.create(versionRoot, srcType));
+            indexVersionedClassFiles(availableVersions[i], versionRoot);
           }
         }
       }
@@ -324,35 +600,82 @@ public abstract class PathBasedAnalysisInputLocation
       isResolved = true;
     }
 
+    /**
+     * Adds the class files in the directory of the given version to the version index. The versions
+     * are indexed in descending order, so each version is inserted at the front to keep the lists
+     * of versions in ascending order.
+     */
+    private void indexVersionedClassFiles(int version, @Nonnull Path versionRoot) {
+      try (Stream<Path> files = Files.walk(versionRoot)) {
+        files
+            .filter(file -> PathUtils.hasExtension(file, FileType.CLASS))
+            .map(
+                file ->
+                    file.subpath(versionRoot.getNameCount(), file.getNameCount())
+                        .toString()
+                        .replace('\\', '/'))
+            .forEach(
+                classFile ->
+                    versionsOfClassFile
+                        .computeIfAbsent(classFile, name -> new ArrayList<>())
+                        .add(0, version));
+      } catch (IOException e) {
+        e.printStackTrace();
+      }
+    }
+
+    /**
+     * Returns which versioned input location provides each class file for the given java version,
+     * i.e. the one of the highest version which is not higher than the java version. It is computed
+     * once per java version.
+     */
+    @Nonnull
+    private Map<String, AnalysisInputLocation<JavaSootClass>> getBestMatchingLocations(
+        int javaVersion) {
+      return bestMatchingLocations.computeIfAbsent(
+          javaVersion,
+          version -> {
+            Map<String, AnalysisInputLocation<JavaSootClass>> locations = new HashMap<>();
+            versionsOfClassFile.forEach(
+                (classFile, versions) -> {
+                  for (int i = versions.size() - 1; i >= 0; i--) {
+                    if (versions.get(i) <= version) {
+                      locations.put(classFile, inputLocations.get(versions.get(i)).get(0));
+                      break;
+                    }
+                  }
+                });
+            return locations;
+          });
+    }
+
     @Override
     @Nonnull
     public Optional<? extends AbstractClassSource<JavaSootClass>> getClassSource(
         @Nonnull ClassType type, @Nonnull View<?> view) {
 
+      if (!(type instanceof ModuleJavaClassType)) {
+        AnalysisInputLocation<JavaSootClass> versionedLocation =
+            getBestMatchingLocations(view.getProject().getLanguage().getVersion())
+                .get(toClassFileName(type));
+        return versionedLocation != null
+            ? versionedLocation.getClassSource(type, view)
+            : baseInputLocations.get(0).getClassSource(type, view);
+      }
+
       Collection<AnalysisInputLocation<JavaSootClass>> il =
           getBestMatchingInputLocationsRaw(view.getProject().getLanguage().getVersion());
 
       Collection<AnalysisInputLocation<JavaSootClass>> baseIl = getBaseInputLocations();
 
-      if (type instanceof ModuleJavaClassType) {
-        il =
-            il.stream()
-                .filter(location -> location instanceof ModuleInfoAnalysisInputLocation)
-                .collect(Collectors.toList());
-        baseIl =
-            baseIl.stream()
-                .filter(location -> location instanceof ModuleInfoAnalysisInputLocation)
-                .collect(Collectors.toList());
-      } else {
-        il =
-            il.stream()
-                .filter(location -> !(location instanceof ModuleInfoAnalysisInputLocation))
-                .collect(Collectors.toList());
-        baseIl =
-            baseIl.stream()
-                .filter(location -> !(location instanceof ModuleInfoAnalysisInputLocation))
-                .collect(Collectors.toList());
-      }
+      il =
+          il.stream()
+              .filter(location -> location instanceof ModuleInfoAnalysisInputLocation)
+              .collect(Collectors.toList());
+      baseIl =
+          baseIl.stream()
+              .filter(location -> location instanceof ModuleInfoAnalysisInputLocation)
+              .collect(Collectors.toList());
 
       Optional<? extends AbstractClassSource<JavaSootClass>> foundClass =
           il.stream()
@@ -374,6 +697,13 @@ public abstract class PathBasedAnalysisInputLocation
       }
     }
 
+    @Override
+    @Nonnull
+    public Optional<Collection<ClassType>> getClassTypes(@Nonnull View<?> view) {
+      // which class file is used depends on the java version of the view
+      return Optional.empty();
+    }
+
     @Nonnull
     @Override
     public Collection<? extends AbstractClassSource<JavaSootClass>> getModulesClassSources(
@@ -414,12 +744,19 @@ public abstract class PathBasedAnalysisInputLocation
     @Nonnull
     public Collection<? extends AbstractClassSource<JavaSootClass>> getClassSources(
         @Nonnull View<?> view) {
+      return getClassSources(view, MoreExecutors.directExecutor());
+    }
+
+    @Override
+    @Nonnull
+    public Collection<? extends AbstractClassSource<JavaSootClass>> getClassSources(
+        @Nonnull View<?> view, @Nonnull Executor executor) {
       Collection<AnalysisInputLocation<JavaSootClass>> il =
           getBestMatchingInputLocationsRaw(view.getProject().getLanguage().getVersion());
 
       Collection<AbstractClassSource<JavaSootClass>> result =
           il.stream()
-              .map(location -> location.getClassSources(view))
+              .map(location -> location.getClassSources(view, executor))
               .flatMap(Collection::stream)
               .collect(Collectors.toList());
 
@@ -427,7 +764,7 @@ public abstract class PathBasedAnalysisInputLocation
 
         Collection<AbstractClassSource<JavaSootClass>> baseSources =
             getBaseInputLocations().stream()
-                .map(location -> location.getClassSources(view))
+                .map(location -> location.getClassSources(view, executor))
                 .flatMap(Collection::stream)
                 .collect(Collectors.toList());
 
@@ -482,20 +819,187 @@ public abstract class PathBasedAnalysisInputLocation
 
   private static class ApkAnalysisInputLocation extends ArchiveBasedAnalysisInputLocation {
 
-    private ApkAnalysisInputLocation(@Nonnull Path path, @Nullable SourceType srcType) {
-      super(path, srcType);
-      String jarPath = dex2jar(path);
-      this.path = Paths.get(jarPath);
+    static final Path DEFAULT_CACHE_DIRECTORY = Paths.get("./tmp/");
+
+    private static final Pattern DEX_FILE_NAME = Pattern.compile("classes(\\d*)\\.dex");
+
+    /** the options which are passed to dex2jar in addition to the input and output file */
+    static final List<String> DEX2JAR_OPTIONS = Collections.singletonList("-f");
+
+    /**
+     * the version of dex2jar or, if its jar does not declare one, the hash of its jar, as the
+     * converted jars depend on it
+     */
+    static final Supplier<String> DEX2JAR_VERSION =
+        Suppliers.memoize(ApkAnalysisInputLocation::dex2jarVersion);
+
+    /** the directory in which the jars converted from apks are kept */
+    @Nonnull private final Path dex2jarCacheDirectory;
+
+    private ApkAnalysisInputLocation(
+        @Nonnull Path path,
+        @Nullable SourceType srcType,
+        @Nonnull ArchiveBackend archiveBackend,
+        @Nonnull Path dex2jarCacheDirectory) {
+      super(path, srcType, archiveBackend);
+      this.dex2jarCacheDirectory = dex2jarCacheDirectory;
+      this.path = dex2jar(path);
     }
 
-    private String dex2jar(Path path) {
-      String apkPath = path.toAbsolutePath().toString();
-      String outDir = "./tmp/";
-      int start = apkPath.lastIndexOf(File.separator);
-      int end = apkPath.lastIndexOf(".apk");
-      String outputFile = outDir + apkPath.substring(start + 1, end) + ".jar";
-      Dex2jarCmd.main("-f", apkPath, "-o", outputFile);
-      return outputFile;
+    private Path dex2jar(Path path) {
+      try {
+        Files.createDirectories(dex2jarCacheDirectory);
+        Path jarPath = dex2jarCacheDirectory.resolve(dex2jarCacheKey(path) + ".jar");
+        if (Files.exists(jarPath)) {
+          return jarPath;
+        }
+
+        // convert into a temporary file first, so that a concurrent analysis of the same apk never
+        // reads an incomplete jar
+        Path tempJarPath = Files.createTempFile(dex2jarCacheDirectory, "dex2jar", ".jar");
+        try {
+          convertDexFiles(path, tempJarPath);
+          if (Files.size(tempJarPath) == 0) {
+            throw new IOException("dex2jar did not create a jar.");
+          }
+          Files.move(tempJarPath, jarPath, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+          // another analysis has converted the same apk in the meantime
+        } finally {
+          Files.deleteIfExists(tempJarPath);
+        }
+        return jarPath;
+      } catch (IOException e) {
+        throw new RuntimeException("Could not convert the dex files of " + path, e);
+      }
+    }
+
+    /**
+     * Converts the dex files of an apk to a jar. The dex files of a multi-dex apk are converted in
+     * parallel and merged into one jar.
+     *
+     * <p>The conversions run on a dedicated pool that is bounded by the number of processors, as a
+     * conversion is CPU and memory intensive and must not occupy the common pool. Concurrent calls
+     * of {@link Dex2jarCmd#main(String...)} are safe: each call creates its own command and
+     * converter and writes to its own output jar.
+     */
+    private void convertDexFiles(@Nonnull Path apkPath, @Nonnull Path jarPath) throws IOException {
+      List<String> dexFiles;
+      try (ZipFile apk = new ZipFile(apkPath.toFile())) {
+        dexFiles =
+            apk.stream()
+                .map(ZipEntry::getName)
+                .filter(name -> DEX_FILE_NAME.matcher(name).matches())
+                .sorted(Comparator.comparingInt(ApkAnalysisInputLocation::dexFileIndex))
+                .collect(Collectors.toList());
+      }
+      if (dexFiles.size() <= 1) {
+        runDex2jar(apkPath, jarPath);
+        return;
+      }
+
+      Path workDirectory = Files.createTempDirectory(dex2jarCacheDirectory, "dex2jar");
+      try {
+        try (FileSystem apk = FileSystems.newFileSystem(apkPath, (ClassLoader) null)) {
+          for (String dexFile : dexFiles) {
+            Files.copy(apk.getPath(dexFile), workDirectory.resolve(dexFile));
+          }
+        }
+        ExecutorService executor =
+            Executors.newFixedThreadPool(
+                Math.min(dexFiles.size(), Runtime.getRuntime().availableProcessors()),
+                new ThreadFactoryBuilder().setNameFormat("dex2jar-%d").setDaemon(true).build());
+        try {
+          List<Future<?>> conversions = new ArrayList<>(dexFiles.size());
+          for (String dexFile : dexFiles) {
+            conversions.add(
+                executor.submit(
+                    () ->
+                        runDex2jar(
+                            workDirectory.resolve(dexFile),
+                            workDirectory.resolve(dexFile + ".jar"))));
+          }
+          for (Future<?> conversion : conversions) {
+            awaitConversion(conversion);
+          }
+        } finally {
+          executor.shutdownNow();
+        }
+
+        // like the Android runtime, the first dex file that contains a class wins
+        Set<String> mergedEntries = new HashSet<>();
+        try (ZipOutputStream jar = new ZipOutputStream(Files.newOutputStream(jarPath))) {
+          for (String dexFile : dexFiles) {
+            try (ZipInputStream convertedDex =
+                new ZipInputStream(Files.newInputStream(workDirectory.resolve(dexFile + ".jar")))) {
+              ZipEntry entry;
+              while ((entry = convertedDex.getNextEntry()) != null) {
+                if (mergedEntries.add(entry.getName())) {
+                  jar.putNextEntry(new ZipEntry(entry.getName()));
+                  ByteStreams.copy(convertedDex, jar);
+                  jar.closeEntry();
+                }
+              }
+            }
+          }
+        }
+      } finally {
+        try (Stream<Path> files = Files.walk(workDirectory)) {
+          files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+      }
+    }
+
+    private static void runDex2jar(@Nonnull Path input, @Nonnull Path output) {
+      List<String> args = new ArrayList<>(DEX2JAR_OPTIONS);
+      args.add(input.toString());
+      args.add("-o");
+      args.add(output.toString());
+      Dex2jarCmd.main(args.toArray(new String[0]));
+    }
+
+    @Nonnull
+    private static String dex2jarVersion() {
+      Package dex2jarPackage = Dex2jarCmd.class.getPackage();
+      if (dex2jarPackage != null && dex2jarPackage.getImplementationVersion() != null) {
+        return dex2jarPackage.getImplementationVersion();
+      }
+      try {
+        Path dex2jarJar =
+            Paths.get(Dex2jarCmd.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        if (Files.isRegularFile(dex2jarJar)) {
+          return contentHash(dex2jarJar);
+        }
+      } catch (IOException | URISyntaxException | RuntimeException e) {
+        logger.debug("Could not determine the version of dex2jar", e);
+      }
+      return "unknown";
+    }
+
+    private static void awaitConversion(@Nonnull Future<?> conversion) throws IOException {
+      try {
+        conversion.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted while converting dex files.");
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new IOException("Could not convert dex file.", cause);
+      }
+    }
+
+    /** Returns the position of a dex file in a multi-dex apk, e.g. 2 for classes2.dex. */
+    private static int dexFileIndex(@Nonnull String dexFile) {
+      Matcher matcher = DEX_FILE_NAME.matcher(dexFile);
+      return matcher.matches() && !matcher.group(1).isEmpty()
+          ? Integer.parseInt(matcher.group(1))
+          : 1;
     }
   }
 
@@ -527,14 +1031,60 @@ public abstract class PathBasedAnalysisInputLocation
                       }
                     }));
 
+    @Nonnull private final ArchiveBackend archiveBackend;
+
+    /** whether {@link #mappedArchive} has been opened and has to be closed */
+    @Nonnull private final AtomicBoolean mappingRequested = new AtomicBoolean();
+
+    /**
+     * The archive mapped into memory, which is used instead of a zip file system if the {@link
+     * ArchiveBackend#MEMORY_MAPPED} backend is chosen and the archive can be mapped. It is opened
+     * on first use, as subclasses might still change the path in their constructor.
+     */
+    @Nonnull private final Supplier<Optional<MemoryMappedArchive>> mappedArchive;
+
     private ArchiveBasedAnalysisInputLocation(@Nonnull Path path, @Nullable SourceType srcType) {
+      this(path, srcType, ArchiveBackend.ZIP_FILE_SYSTEM);
+    }
+
+    private ArchiveBasedAnalysisInputLocation(
+        @Nonnull Path path, @Nullable SourceType srcType, @Nonnull ArchiveBackend archiveBackend) {
       super(path, srcType);
+      this.archiveBackend = archiveBackend;
+      this.mappedArchive =
+          Suppliers.memoize(
+              () -> {
+                if (archiveBackend != ArchiveBackend.MEMORY_MAPPED) {
+                  return Optional.empty();
+                }
+                mappingRequested.set(true);
+                try {
+                  return Optional.of(MemoryMappedArchive.open(this.path));
+                } catch (IOException e) {
+                  logger.debug(
+                      "Reading " + this.path + " via a zip file system: " + e.getMessage());
+                  return Optional.empty();
+                }
+              });
+    }
+
+    @Override
+    public void close() {
+      // the archive is not mapped by close() if it has not been opened yet
+      if (mappingRequested.get()) {
+        mappedArchive.get().ifPresent(MemoryMappedArchive::close);
+      }
     }
 
     @Override
     @Nonnull
     public Optional<? extends AbstractClassSource<JavaSootClass>> getClassSource(
         @Nonnull ClassType type, @Nonnull View<?> view) {
+      Optional<MemoryMappedArchive> archive = mappedArchive.get();
+      if (archive.isPresent()) {
+        return getClassSourceFromArchive(
+            archive.get(), "", (JavaClassType) type, new AsmJavaClassProvider(view));
+      }
       try {
         FileSystem fs = fileSystemCache.get(path);
         final Path archiveRoot = fs.getPath("/");
@@ -549,39 +1099,159 @@ public abstract class PathBasedAnalysisInputLocation
     @Nonnull
     public Collection<? extends AbstractClassSource<JavaSootClass>> getClassSources(
         @Nonnull View<?> view) {
+      return getClassSources(view, MoreExecutors.directExecutor());
+    }
+
+    @Override
+    @Nonnull
+    public Collection<? extends AbstractClassSource<JavaSootClass>> getClassSources(
+        @Nonnull View<?> view, @Nonnull Executor executor) {
+      Optional<MemoryMappedArchive> archive = mappedArchive.get();
+      if (archive.isPresent()) {
+        return getClassSourcesFromArchive(archive.get(), "", view, executor);
+      }
       // we don't use the filesystem cache here as it could close the filesystem after the timeout
       // while we are still iterating
       try (FileSystem fs = FileSystems.newFileSystem(path, (ClassLoader) null)) {
         final Path archiveRoot = fs.getPath("/");
         return walkDirectory(
-            archiveRoot, view.getProject().getIdentifierFactory(), new AsmJavaClassProvider(view));
+            archiveRoot,
+            view.getProject().getIdentifierFactory(),
+            new AsmJavaClassProvider(view),
+            executor);
       } catch (IOException e) {
         throw new RuntimeException(e);
       }
     }
+
+    @Override
+    @Nonnull
+    public Optional<Collection<ClassType>> getClassTypes(@Nonnull View<?> view) {
+      Optional<MemoryMappedArchive> archive = mappedArchive.get();
+      if (archive.isPresent()) {
+        return Optional.of(
+            listClassTypes(archive.get(), "", view.getProject().getIdentifierFactory()));
+      }
+      IdentifierFactory factory = view.getProject().getIdentifierFactory();
+      AsmJavaClassProvider classProvider = new AsmJavaClassProvider(view);
+      try {
+        return listClassTypes(fileSystemCache.get(path).getPath("/"), factory, classProvider);
+      } catch (ClosedFileSystemException e) {
+        // the cache closed the file system while the archive was listed, as it expired
+        try (FileSystem fs = FileSystems.newFileSystem(path, (ClassLoader) null)) {
+          return listClassTypes(fs.getPath("/"), factory, classProvider);
+        } catch (IOException ioException) {
+          logger.warn(
+              "Could not list the classes of " + path + ", they are looked up without an index",
+              ioException);
+          return Optional.empty();
+        }
+      } catch (ExecutionException | UncheckedExecutionException e) {
+        logger.warn(
+            "Could not list the classes of " + path + ", they are looked up without an index", e);
+        return Optional.empty();
+      }
+    }
+  }
+
+  /**
+   * Provides the classes of a part of an archive which is read in memory: a directory in the
+   * archive (e.g. <code>WEB-INF/classes/</code> of a war) or an archive nested in it (e.g. a jar in
+   * <code>WEB-INF/lib/</code>), so that the part does not have to be extracted to be analyzed.
+   */
+  private static final class NestedArchiveAnalysisInputLocation
+      extends PathBasedAnalysisInputLocation {
+
+    @Nonnull private final MemoryMappedArchive archive;
+
+    /** the directory of the archive that contains the classes or an empty String for its root */
+    @Nonnull private final String classesRoot;
+
+    /**
+     * @param path the location of the classes, i.e. the path of the archive followed by the
+     *     directory or the name of the nested archive
+     */
+    private NestedArchiveAnalysisInputLocation(
+        @Nonnull Path path,
+        @Nullable SourceType srcType,
+        @Nonnull MemoryMappedArchive archive,
+        @Nonnull String classesRoot) {
+      super(path, srcType);
+      this.archive = archive;
+      this.classesRoot = classesRoot;
+    }
+
+    @Override
+    @Nonnull
+    public Optional<? extends AbstractClassSource<JavaSootClass>> getClassSource(
+        @Nonnull ClassType type, @Nonnull View<?> view) {
+      return getClassSourceFromArchive(
+          archive, classesRoot, (JavaClassType) type, new AsmJavaClassProvider(view));
+    }
+
+    @Override
+    @Nonnull
+    public Collection<? extends AbstractClassSource<JavaSootClass>> getClassSources(
+        @Nonnull View<?> view) {
+      return getClassSources(view, MoreExecutors.directExecutor());
+    }
+
+    @Override
+    @Nonnull
+    public Collection<? extends AbstractClassSource<JavaSootClass>> getClassSources(
+        @Nonnull View<?> view, @Nonnull Executor executor) {
+      return getClassSourcesFromArchive(archive, classesRoot, view, executor);
+    }
+
+    @Override
+    @Nonnull
+    public Optional<Collection<ClassType>> getClassTypes(@Nonnull View<?> view) {
+      return Optional.of(
+          listClassTypes(archive, classesRoot, view.getProject().getIdentifierFactory()));
+    }
   }
 
   private static final class WarArchiveAnalysisInputLocation
-      extends DirectoryBasedAnalysisInputLocation {
+      extends PathBasedAnalysisInputLocation {
     public List<AnalysisInputLocation<JavaSootClass>> containedInputLocations = new ArrayList<>();
+
+    /** the war file if it is read in memory */
+    @Nullable private MemoryMappedArchive war;
+
     public static int maxAllowedBytesToExtract =
         1024 * 1024 * 500; // limit of extracted file size to protect against archive bombs
 
-    private WarArchiveAnalysisInputLocation(@Nonnull Path warPath, @Nullable SourceType srcType) {
-      super(
+    private static final String CLASSES_DIRECTORY = "WEB-INF/classes/";
+    private static final String LIB_DIRECTORY = "WEB-INF/lib/";
+
+    private WarArchiveAnalysisInputLocation(
+        @Nonnull Path warPath,
+        @Nullable SourceType srcType,
+        @Nonnull ArchiveBackend archiveBackend) {
+      super(warPath, srcType);
+      // directorystructre as specified in SRV.9.5 of
+      // https://download.oracle.com/otn-pub/jcp/servlet-2.4-fr-spec-oth-JSpec/servlet-2_4-fr-spec.pdf?AuthParam=1625059899_16c705c72f7db7f85a8a7926558701fe
+      if (archiveBackend == ArchiveBackend.MEMORY_MAPPED) {
+        try {
+          readWarFile(warPath, srcType);
+          return;
+        } catch (IOException e) {
+          logger.debug(
+              "Extracting " + warPath + " as it can not be read in memory: " + e.getMessage());
+        }
+      }
+
+      path =
           Paths.get(
               System.getProperty("java.io.tmpdir")
                   + File.separator
                   + "sootOutput"
                   + "-war"
                   + warPath.hashCode()
-                  + "/"),
-          srcType);
+                  + "/");
       extractWarFile(warPath, path);
 
       Path webInfPath = path.resolve("WEB-INF");
-      // directorystructre as specified in SRV.9.5 of
-      // https://download.oracle.com/otn-pub/jcp/servlet-2.4-fr-spec-oth-JSpec/servlet-2_4-fr-spec.pdf?AuthParam=1625059899_16c705c72f7db7f85a8a7926558701fe
       Path classDir = webInfPath.resolve("classes");
       if (Files.exists(classDir)) {
         containedInputLocations.add(new DirectoryBasedAnalysisInputLocation(classDir, srcType));
@@ -602,19 +1272,100 @@ public abstract class PathBasedAnalysisInputLocation
       }
     }
 
+    /**
+     * Creates the contained input locations from the war file which is read in memory: the classes
+     * and the jars in it are read from the war file directly instead of extracting them.
+     *
+     * @throws IOException if the war file or a jar in it can not be read in memory. The war file is
+     *     closed in this case and if the jars in it exceed {@link #maxAllowedBytesToExtract}.
+     */
+    private void readWarFile(@Nonnull Path warPath, @Nullable SourceType srcType)
+        throws IOException {
+      MemoryMappedArchive war = MemoryMappedArchive.open(warPath);
+      this.war = war;
+      try {
+        readContainedInputLocations(warPath, srcType, war);
+      } catch (IOException | RuntimeException e) {
+        containedInputLocations.clear();
+        close();
+        throw e;
+      }
+    }
+
+    private void readContainedInputLocations(
+        @Nonnull Path warPath, @Nullable SourceType srcType, @Nonnull MemoryMappedArchive war)
+        throws IOException {
+      if (war.getEntryNames().stream().anyMatch(name -> name.startsWith(CLASSES_DIRECTORY))) {
+        containedInputLocations.add(
+            new NestedArchiveAnalysisInputLocation(
+                warPath.resolve(CLASSES_DIRECTORY), srcType, war, CLASSES_DIRECTORY));
+      }
+
+      List<String> jars =
+          war.getEntryNames().stream()
+              .filter(
+                  name ->
+                      name.startsWith(LIB_DIRECTORY)
+                          && name.endsWith(FileType.JAR.getExtensionWithDot()))
+              .sorted()
+              .collect(Collectors.toList());
+      // compressed jars are inflated into memory instead of being extracted, so the limit applies
+      // to them, while stored jars are read from the mapping of the war file
+      long inflatedSize = 0;
+      for (String jar : jars) {
+        inflatedSize += war.getInflatedSize(jar);
+        if (inflatedSize > maxAllowedBytesToExtract) {
+          throw new RuntimeException(
+              "The extracted warfile exceeds the size of "
+                  + maxAllowedBytesToExtract
+                  + " byte. Either the file is a big archive or maybe it contains an archive bomb.");
+        }
+        containedInputLocations.add(
+            new NestedArchiveAnalysisInputLocation(
+                warPath.resolve(jar), srcType, war.openNested(jar), ""));
+      }
+    }
+
     @Override
     @Nonnull
     public Collection<? extends AbstractClassSource<JavaSootClass>> getClassSources(
         @Nonnull View<?> view) {
+      return getClassSources(view, MoreExecutors.directExecutor());
+    }
+
+    @Override
+    @Nonnull
+    public Collection<? extends AbstractClassSource<JavaSootClass>> getClassSources(
+        @Nonnull View<?> view, @Nonnull Executor executor) {
 
       Set<AbstractClassSource<JavaSootClass>> foundClasses = new HashSet<>();
 
       for (AnalysisInputLocation<JavaSootClass> inputLoc : containedInputLocations) {
-        foundClasses.addAll(inputLoc.getClassSources(view));
+        foundClasses.addAll(inputLoc.getClassSources(view, executor));
       }
       return foundClasses;
     }
 
+    @Override
+    @Nonnull
+    public Optional<Collection<ClassType>> getClassTypes(@Nonnull View<?> view) {
+      return unionOfClassTypes(containedInputLocations, view);
+    }
+
+    @Override
+    public void close() {
+      if (war != null) {
+        // also closes the jars nested in the war file
+        war.close();
+        war = null;
+      }
+      for (AnalysisInputLocation<JavaSootClass> inputLocation : containedInputLocations) {
+        if (inputLocation instanceof PathBasedAnalysisInputLocation) {
+          ((PathBasedAnalysisInputLocation) inputLocation).close();
+        }
+      }
+    }
+
     @Override
     @Nonnull
     public Optional<? extends AbstractClassSource<JavaSootClass>> getClassSource(
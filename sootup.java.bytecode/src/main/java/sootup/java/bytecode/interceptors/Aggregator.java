@@ -36,6 +36,7 @@ import sootup.core.jimple.common.stmt.*;
 import sootup.core.jimple.common.stmt.JAssignStmt;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.Body;
+import sootup.core.model.BodyAnalysisContext;
 import sootup.core.transform.BodyInterceptor;
 import sootup.core.views.View;
 
@@ -53,6 +54,12 @@ public class Aggregator implements BodyInterceptor {
     this.onlyStackVars = onlyStackVars;
   }
 
+  @Nonnull
+  @Override
+  public String getConfigurationKey() {
+    return getClass().getName() + "(onlyStackVars=" + onlyStackVars + ")";
+  }
+
   /**
    * Traverse the statements in the given body, looking for aggregation possibilities; that is,
    * given a def d and a use u, d has no other uses, u has no other defs, collapse d and u.
@@ -64,6 +71,7 @@ public class Aggregator implements BodyInterceptor {
 
     StmtGraph<?> graph = builder.getStmtGraph();
     List<Stmt> stmts = builder.getStmts();
+    BodyAnalysisContext context = builder.getAnalysisContext();
 
     for (Stmt stmt : Lists.newArrayList(stmts)) {
       if (stmt instanceof JAssignStmt) {
@@ -76,7 +84,7 @@ public class Aggregator implements BodyInterceptor {
           }
           for (Value val : assignStmt.getUses()) {
             if (val instanceof Local) {
-              List<AbstractDefinitionStmt<Local, Value>> defs = ((Local) val).getDefsOfLocal(stmts);
+              List<Stmt> defs = context.getDefsOf((Local) val);
               if (defs.size() == 1) {
                 Stmt relevantDef = defs.get(0);
                 List<Stmt> path = graph.getExtendedBasicBlockPathBetween(relevantDef, stmt);
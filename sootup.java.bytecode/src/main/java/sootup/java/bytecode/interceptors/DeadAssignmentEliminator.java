@@ -36,6 +36,7 @@ import sootup.core.jimple.common.ref.JInstanceFieldRef;
 import sootup.core.jimple.common.stmt.JAssignStmt;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.Body;
+import sootup.core.model.BodyAnalysisContext;
 import sootup.core.model.MethodModifier;
 import sootup.core.transform.BodyInterceptor;
 import sootup.core.types.*;
@@ -62,8 +63,11 @@ public class DeadAssignmentEliminator implements BodyInterceptor {
     this.eliminateOnlyStackLocals = eliminateOnlyStackLocals;
   }
 
-  Map<Local, Collection<Stmt>> allDefs = new HashMap<>();
-  Map<Local, Collection<Stmt>> allUses = new HashMap<>();
+  @Nonnull
+  @Override
+  public String getConfigurationKey() {
+    return getClass().getName() + "(eliminateOnlyStackLocals=" + eliminateOnlyStackLocals + ")";
+  }
 
   @Override
   public void interceptBody(@Nonnull Body.BodyBuilder builder, @Nonnull View<?> view) {
@@ -77,6 +81,7 @@ public class DeadAssignmentEliminator implements BodyInterceptor {
     boolean allEssential = true;
     boolean containsInvoke = false;
     Local thisLocal = null;
+    boolean removedSelfAssignment = false;
 
     for (Iterator<Stmt> iterator = stmtGraph.getNodes().iterator(); iterator.hasNext(); ) {
       Stmt stmt = iterator.next();
@@ -90,6 +95,7 @@ public class DeadAssignmentEliminator implements BodyInterceptor {
         // Stmt is of the form a = a which is useless
         if (lhs == rhs && lhs instanceof Local) {
           iterator.remove();
+          removedSelfAssignment = true;
           continue;
         }
 
@@ -174,10 +180,16 @@ public class DeadAssignmentEliminator implements BodyInterceptor {
       allEssential &= isEssential;
     }
 
+    BodyAnalysisContext context = builder.getAnalysisContext();
+    if (removedSelfAssignment) {
+      // the removal via the iterator is not noticed by the context
+      context.invalidate();
+    }
+
     if (containsInvoke || !allEssential) {
       // Add all the statements which are used to compute values for the essential statements,
       // recursively
-      allDefs = Body.collectDefs(builder.getStmts());
+      Map<Local, List<Stmt>> allDefs = context.getDefs();
 
       if (!allEssential) {
         Set<Stmt> essentialStmts = new HashSet<>(stmts.size());
@@ -187,7 +199,7 @@ public class DeadAssignmentEliminator implements BodyInterceptor {
             for (Value value : stmt.getUses()) {
               if (value instanceof Local) {
                 Local local = (Local) value;
-                Collection<Stmt> defs = allDefs.get(local);
+                List<Stmt> defs = allDefs.get(local);
                 if (defs != null) {
                   deque.addAll(defs);
                 }
@@ -205,23 +217,16 @@ public class DeadAssignmentEliminator implements BodyInterceptor {
       }
 
       if (containsInvoke) {
-        allUses = Body.collectUses(builder.getStmts());
         // Eliminate dead assignments from invokes such as x = f(), where x is no longer used
         List<JAssignStmt<?, ?>> postProcess = new ArrayList<>();
         for (Stmt stmt : stmts) {
           if (stmt instanceof JAssignStmt) {
             JAssignStmt<?, ?> assignStmt = (JAssignStmt<?, ?>) stmt;
             if (assignStmt.containsInvokeExpr()) {
-              // Just find one use of local which is essential
-              boolean deadAssignment = true;
+              // the uses of the context are updated by the removal of the dead statements i.e. each
+              // remaining use is essential
               Local local = (Local) assignStmt.getRightOp();
-              for (Stmt use : allUses.get(local)) {
-                if (builder.getStmts().contains(use)) {
-                  deadAssignment = false;
-                  break;
-                }
-              }
-              if (deadAssignment) {
+              if (context.getUsesOf(local).isEmpty()) {
                 postProcess.add(assignStmt);
               }
             }
@@ -24,79 +24,155 @@ package sootup.java.bytecode.interceptors;
 
 import java.util.*;
 import javax.annotation.Nonnull;
+import sootup.core.graph.BasicBlock;
 import sootup.core.graph.StmtGraph;
 import sootup.core.jimple.basic.Local;
 import sootup.core.jimple.basic.Value;
 import sootup.core.jimple.common.stmt.Stmt;
 
-/** @author Zun Wang */
+/**
+ * Computes the live Locals before and after each Stmt. The Locals are numbered densely, so that the
+ * live Locals are stored as bit vectors. The fixpoint is computed for the basic blocks by a
+ * worklist that starts in post-order, i.e. with the exits of the method, as liveness flows
+ * backwards. The live Locals of the single Stmts of a block are only computed when they are
+ * requested.
+ *
+ * @author Zun Wang
+ */
 public class LocalLivenessAnalyser {
 
-  // Each stmt(node) has out-edges and in-edges
-  // A local is live-in at a node if it is live on any its in-edges
-  private final Map<Stmt, Set<Local>> liveIn = new HashMap<>();
+  // A local is live-in at a node if it is live on any its in-edges.
   // A local is live-out at a node if it is live on any of its out-edges.
   // e.g: a = b + c; live-in={b,c}  live-out={a,b,c}
-  private final Map<Stmt, Set<Local>> liveOut = new HashMap<>();
 
-  public LocalLivenessAnalyser(@Nonnull StmtGraph<?> graph) {
-    // initial liveIn and liveOut
-    List<Stmt> startingStmts = new ArrayList<>();
-    for (Stmt stmt : graph.getNodes()) {
-      liveIn.put(stmt, Collections.emptySet());
-      liveOut.put(stmt, Collections.emptySet());
-      if (graph.successors(stmt).isEmpty() && graph.exceptionalSuccessors(stmt).isEmpty()) {
-        startingStmts.add(stmt);
-      }
-    }
+  @Nonnull private final Local[] locals;
+  @Nonnull private final Map<Local, Integer> localIndices = new HashMap<>();
+  private final int words;
 
-    boolean fixed = false;
-    while (!fixed) {
-      fixed = true;
-      Deque<Stmt> queue = new ArrayDeque<>(startingStmts);
-      HashSet<Stmt> visitedStmts = new HashSet<>();
-      while (!queue.isEmpty()) {
-        Stmt stmt = queue.removeFirst();
-        visitedStmts.add(stmt);
+  /** the Stmts of all blocks, the Stmts of a block are stored consecutively */
+  @Nonnull private final Stmt[] stmts;
 
-        Set<Local> out = new HashSet<>(liveOut.get(stmt));
-        for (Stmt succ : graph.successors(stmt)) {
-          out = merge(out, liveIn.get(succ));
-        }
-        for (Stmt esucc : graph.exceptionalSuccessors(stmt).values()) {
-          out = merge(out, liveIn.get(esucc));
-        }
-        if (isNotEqual(out, liveOut.get(stmt))) {
-          fixed = false;
-          liveOut.put(stmt, new HashSet<>(out));
-        }
+  @Nonnull private final Map<Stmt, Integer> stmtPositions;
+  /** the block of each position in {@link #stmts} */
+  @Nonnull private final int[] blockOfPosition;
+  /** the position of the head of each block, followed by the end of the last block */
+  @Nonnull private final int[] blockStarts;
+
+  @Nonnull private final int[][] successors;
+  @Nonnull private final int[][] exceptionalSuccessors;
+
+  @Nonnull private final long[][] blockLiveIn;
+  /** the Locals that are live-in at the normal successors of a block */
+  @Nonnull private final long[][] blockLiveOut;
+
+  /** the live Locals of the single Stmts, computed per block on request */
+  @Nonnull private final long[][] stmtLiveIn;
 
-        Set<Local> in = new HashSet<>();
-        for (Value use : stmt.getUses()) {
-          if (use instanceof Local) {
-            in.add((Local) use);
+  @Nonnull private final long[][] stmtLiveOut;
+
+  public LocalLivenessAnalyser(@Nonnull StmtGraph<?> graph) {
+    Collection<? extends BasicBlock<?>> blocks = graph.getBlocks();
+    int blockCount = blocks.size();
+    stmts = new Stmt[graph.getNodes().size()];
+    stmtPositions = new HashMap<>(stmts.length * 2);
+    blockOfPosition = new int[stmts.length];
+    blockStarts = new int[blockCount + 1];
+
+    List<Local> localList = new ArrayList<>();
+    int position = 0;
+    int blockIdx = 0;
+    for (BasicBlock<?> block : blocks) {
+      blockStarts[blockIdx] = position;
+      for (Stmt stmt : block.getStmts()) {
+        stmts[position] = stmt;
+        stmtPositions.put(stmt, position);
+        blockOfPosition[position] = blockIdx;
+        position++;
+        for (Value value : stmt.getUsesAndDefs()) {
+          if (value instanceof Local && !localIndices.containsKey(value)) {
+            localIndices.put((Local) value, localList.size());
+            localList.add((Local) value);
           }
         }
-        final List<Value> defs = stmt.getDefs();
-        if (!defs.isEmpty()) {
-          final Value value = defs.get(0);
-          if (value instanceof Local) {
-            out.remove(value);
+      }
+      blockIdx++;
+    }
+    blockStarts[blockCount] = position;
+    locals = localList.toArray(new Local[0]);
+    words = (locals.length + 63) >>> 6;
+
+    successors = new int[blockCount][];
+    exceptionalSuccessors = new int[blockCount][];
+    List<List<Integer>> predecessors = new ArrayList<>(blockCount);
+    for (int b = 0; b < blockCount; b++) {
+      predecessors.add(new ArrayList<>());
+    }
+    for (int b = 0; b < blockCount; b++) {
+      Stmt tail = stmts[blockStarts[b + 1] - 1];
+      successors[b] = toBlocks(graph.successors(tail), predecessors, b);
+      exceptionalSuccessors[b] =
+          toBlocks(graph.exceptionalSuccessors(tail).values(), predecessors, b);
+    }
+
+    // the upwards exposed uses (gen) and the definitions (kill) of each block and the definition
+    // of its head, as the exceptional successors are reachable from each Stmt of the block
+    long[][] gen = new long[blockCount][words];
+    long[][] kill = new long[blockCount][words];
+    long[][] headDef = new long[blockCount][words];
+    for (int b = 0; b < blockCount; b++) {
+      for (int pos = blockStarts[b + 1] - 1; pos >= blockStarts[b]; pos--) {
+        int def = getDef(stmts[pos]);
+        if (def >= 0) {
+          clear(gen[b], def);
+          set(kill[b], def);
+          if (pos == blockStarts[b]) {
+            set(headDef[b], def);
           }
         }
-        in = merge(in, out);
-        if (isNotEqual(in, liveIn.get(stmt))) {
-          fixed = false;
-          liveIn.put(stmt, in);
-        }
-        for (Stmt pred : graph.predecessors(stmt)) {
-          if (!visitedStmts.contains(pred)) {
-            queue.addLast(pred);
-          }
+        addUses(gen[b], stmts[pos]);
+      }
+    }
+
+    blockLiveIn = new long[blockCount][words];
+    blockLiveOut = new long[blockCount][words];
+    stmtLiveIn = new long[stmts.length][];
+    stmtLiveOut = new long[stmts.length][];
+
+    Deque<Integer> worklist = new ArrayDeque<>(blockCount);
+    boolean[] queued = new boolean[blockCount];
+    for (int b : postOrder(graph)) {
+      worklist.add(b);
+      queued[b] = true;
+    }
+    long[] exceptionalOut = new long[words];
+    while (!worklist.isEmpty()) {
+      int b = worklist.removeFirst();
+      queued[b] = false;
+
+      long[] out = blockLiveOut[b];
+      Arrays.fill(out, 0);
+      for (int succ : successors[b]) {
+        or(out, blockLiveIn[succ]);
+      }
+      Arrays.fill(exceptionalOut, 0);
+      for (int succ : exceptionalSuccessors[b]) {
+        or(exceptionalOut, blockLiveIn[succ]);
+      }
+
+      boolean changed = false;
+      long[] in = blockLiveIn[b];
+      for (int w = 0; w < words; w++) {
+        long word = gen[b][w] | (out[w] & ~kill[b][w]) | (exceptionalOut[w] & ~headDef[b][w]);
+        if (word != in[w]) {
+          in[w] = word;
+          changed = true;
         }
-        for (Stmt epred : graph.exceptionalPredecessors(stmt)) {
-          if (!visitedStmts.contains(epred)) {
-            queue.addLast(epred);
+      }
+      if (changed) {
+        for (int pred : predecessors.get(b)) {
+          if (!queued[pred]) {
+            worklist.addLast(pred);
+            queued[pred] = true;
           }
         }
       }
@@ -106,51 +182,204 @@ public class LocalLivenessAnalyser {
   /** Get all live locals before the given stmt. */
   @Nonnull
   public Set<Local> getLiveLocalsBeforeStmt(@Nonnull Stmt stmt) {
-    if (!liveIn.containsKey(stmt)) {
-      throw new RuntimeException("Stmt: " + stmt + " is not in StmtGraph!");
-    }
-    return liveIn.get(stmt);
+    int position = getPosition(stmt);
+    computeStmtLiveness(blockOfPosition[position]);
+    return new LocalSet(stmtLiveIn[position]);
   }
 
   /** Get all live locals after the given stmt. */
   @Nonnull
   public Set<Local> getLiveLocalsAfterStmt(@Nonnull Stmt stmt) {
-    if (!liveOut.containsKey(stmt)) {
+    int position = getPosition(stmt);
+    computeStmtLiveness(blockOfPosition[position]);
+    return new LocalSet(stmtLiveOut[position]);
+  }
+
+  private int getPosition(@Nonnull Stmt stmt) {
+    Integer position = stmtPositions.get(stmt);
+    if (position == null) {
       throw new RuntimeException("Stmt: " + stmt + " is not in StmtGraph!");
     }
-    return liveOut.get(stmt);
+    return position;
+  }
+
+  /** Computes the live Locals of the Stmts of a block backwards from the end of the block. */
+  private void computeStmtLiveness(int block) {
+    int head = blockStarts[block];
+    if (stmtLiveIn[head] != null) {
+      return;
+    }
+    long[] exceptionalOut = new long[words];
+    for (int succ : exceptionalSuccessors[block]) {
+      or(exceptionalOut, blockLiveIn[succ]);
+    }
+    long[] out = blockLiveOut[block].clone();
+    or(out, exceptionalOut);
+    for (int pos = blockStarts[block + 1] - 1; pos >= head; pos--) {
+      long[] in = out.clone();
+      int def = getDef(stmts[pos]);
+      if (def >= 0) {
+        clear(in, def);
+      }
+      addUses(in, stmts[pos]);
+      stmtLiveOut[pos] = out;
+      stmtLiveIn[pos] = in;
+      out = in.clone();
+      or(out, exceptionalOut);
+    }
   }
 
-  /**
-   * Merge two local sets into one set.
-   *
-   * @return a merged local set
-   */
+  /** Returns the blocks in post-order of a depth first search from the starting block. */
   @Nonnull
-  private Set<Local> merge(@Nonnull Set<Local> set1, @Nonnull Set<Local> set2) {
-    if (set1.isEmpty()) {
-      return set2;
-    } else {
-      set1.addAll(set2);
-      return set1;
+  private List<Integer> postOrder(@Nonnull StmtGraph<?> graph) {
+    int blockCount = successors.length;
+    List<Integer> order = new ArrayList<>(blockCount);
+    boolean[] visited = new boolean[blockCount];
+    Deque<int[]> stack = new ArrayDeque<>();
+    Integer start =
+        blockCount == 0 || graph.getStartingStmt() == null
+            ? null
+            : stmtPositions.get(graph.getStartingStmt());
+    if (start != null) {
+      int startBlock = blockOfPosition[start];
+      visited[startBlock] = true;
+      stack.push(new int[] {startBlock, 0});
     }
+    while (!stack.isEmpty()) {
+      int[] frame = stack.peek();
+      int b = frame[0];
+      int next = frame[1]++;
+      int normalCount = successors[b].length;
+      if (next < normalCount + exceptionalSuccessors[b].length) {
+        int succ =
+            next < normalCount ? successors[b][next] : exceptionalSuccessors[b][next - normalCount];
+        if (!visited[succ]) {
+          visited[succ] = true;
+          stack.push(new int[] {succ, 0});
+        }
+      } else {
+        stack.pop();
+        order.add(b);
+      }
+    }
+    // blocks that are not reachable from the start e.g. trap handlers of dead code
+    for (int b = 0; b < blockCount; b++) {
+      if (!visited[b]) {
+        order.add(b);
+      }
+    }
+    return order;
+  }
+
+  @Nonnull
+  private int[] toBlocks(
+      @Nonnull Collection<Stmt> heads, @Nonnull List<List<Integer>> predecessors, int fromBlock) {
+    int[] blocks = new int[heads.size()];
+    int i = 0;
+    for (Stmt head : heads) {
+      blocks[i] = blockOfPosition[getPosition(head)];
+      predecessors.get(blocks[i]).add(fromBlock);
+      i++;
+    }
+    return blocks;
+  }
+
+  /** Returns the index of the Local which is defined by the stmt or -1. */
+  private int getDef(@Nonnull Stmt stmt) {
+    final List<Value> defs = stmt.getDefs();
+    if (!defs.isEmpty()) {
+      final Value value = defs.get(0);
+      if (value instanceof Local) {
+        return localIndices.get(value);
+      }
+    }
+    return -1;
+  }
+
+  private void addUses(@Nonnull long[] bits, @Nonnull Stmt stmt) {
+    for (Value use : stmt.getUses()) {
+      if (use instanceof Local) {
+        set(bits, localIndices.get(use));
+      }
+    }
+  }
+
+  private static void set(@Nonnull long[] bits, int index) {
+    bits[index >>> 6] |= 1L << index;
+  }
+
+  private static void clear(@Nonnull long[] bits, int index) {
+    bits[index >>> 6] &= ~(1L << index);
   }
 
-  /**
-   * Check whether two sets contains same locals.
-   *
-   * @return if same return true, else return false;
-   */
-  private boolean isNotEqual(@Nonnull Set<Local> set1, @Nonnull Set<Local> set2) {
-    if (set1.size() != set2.size()) {
-      return true;
-    } else {
-      for (Local local : set1) {
-        if (!set2.contains(local)) {
-          return true;
+  private static void or(@Nonnull long[] target, @Nonnull long[] bits) {
+    for (int w = 0; w < target.length; w++) {
+      target[w] |= bits[w];
+    }
+  }
+
+  /** An unmodifiable view of a bit vector of Locals. */
+  private class LocalSet extends AbstractSet<Local> {
+
+    @Nonnull private final long[] bits;
+
+    LocalSet(@Nonnull long[] bits) {
+      this.bits = bits;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      Integer index = localIndices.get(o);
+      return index != null && (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    @Override
+    public int size() {
+      int size = 0;
+      for (long word : bits) {
+        size += Long.bitCount(word);
+      }
+      return size;
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<Local> iterator() {
+      return new Iterator<Local>() {
+        private int next = nextSetBit(0);
+
+        @Override
+        public boolean hasNext() {
+          return next >= 0;
+        }
+
+        @Override
+        public Local next() {
+          if (next < 0) {
+            throw new NoSuchElementException();
+          }
+          Local local = locals[next];
+          next = nextSetBit(next + 1);
+          return local;
+        }
+      };
+    }
+
+    private int nextSetBit(int from) {
+      int w = from >>> 6;
+      if (w >= bits.length) {
+        return -1;
+      }
+      long word = bits[w] & (-1L << from);
+      while (true) {
+        if (word != 0) {
+          return (w << 6) + Long.numberOfTrailingZeros(word);
+        }
+        if (++w == bits.length) {
+          return -1;
         }
+        word = bits[w];
       }
     }
-    return false;
   }
 }
@@ -210,7 +210,10 @@ public class LocalPacker implements BodyInterceptor {
     // Maps local to its interfering locals
     Map<Local, Set<Local>> localToLocals = new HashMap<>();
     StmtGraph<?> graph = builder.getStmtGraph();
-    LocalLivenessAnalyser analyser = new LocalLivenessAnalyser(graph);
+    LocalLivenessAnalyser analyser =
+        builder
+            .getAnalysisContext()
+            .getAnalysis(LocalLivenessAnalyser.class, LocalLivenessAnalyser::new);
 
     for (Stmt stmt : builder.getStmts()) {
       if (!stmt.getDefs().isEmpty() && stmt.getDefs().get(0) instanceof Local) {
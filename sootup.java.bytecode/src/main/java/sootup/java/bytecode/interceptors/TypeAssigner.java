@@ -49,6 +49,12 @@ public class TypeAssigner implements BodyInterceptor {
     this.standardizeNames = autoStandardizeNames;
   }
 
+  @Nonnull
+  @Override
+  public String getConfigurationKey() {
+    return getClass().getName() + "(standardizeNames=" + standardizeNames + ")";
+  }
+
   @Override
   public void interceptBody(@Nonnull Body.BodyBuilder builder, @Nonnull View<?> view) {
     if (new TypeResolver((JavaView) view).resolve(builder) && standardizeNames) {
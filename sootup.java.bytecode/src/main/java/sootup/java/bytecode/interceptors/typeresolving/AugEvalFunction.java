@@ -34,6 +34,7 @@ import sootup.core.jimple.common.expr.*;
 import sootup.core.jimple.common.ref.*;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.SootClass;
+import sootup.core.typehierarchy.TypeHierarchyCache;
 import sootup.core.types.ArrayType;
 import sootup.core.types.ClassType;
 import sootup.core.types.PrimitiveType;
@@ -53,9 +54,11 @@ public class AugEvalFunction {
   private final ClassType throwableClassType;
 
   View<? extends SootClass<?>> view;
+  private final TypeHierarchyCache typeHierarchyCache;
 
   public AugEvalFunction(View<? extends SootClass<?>> view) {
     this.view = view;
+    this.typeHierarchyCache = view.getTypeHierarchyCache();
 
     // one time setup
     final IdentifierFactory identifierFactory = view.getIdentifierFactory();
@@ -230,25 +233,24 @@ public class AugEvalFunction {
 
   /**
    * This function is used to retrieve the path from the type "Throwable" to the given exception
-   * type
+   * type. The superclasses are taken from the {@link TypeHierarchyCache} of the view, so that they
+   * are resolved once for all bodies.
    */
   private Deque<ClassType> getExceptionPath(@Nonnull ClassType exceptionType) {
     Deque<ClassType> path = new ArrayDeque<>();
     path.push(exceptionType);
+    if (exceptionType.equals(throwableClassType)) {
+      return path;
+    }
 
-    while (exceptionType != throwableClassType) {
-      final Optional<? extends ClassType> superclassOpt =
-          view.getClass(exceptionType).flatMap(SootClass::getSuperclass);
-      if (!superclassOpt.isPresent()) {
-        throw new IllegalStateException(
-            "The path from '" + exceptionType + "' to java.lang.Throwable cannot be found!");
-      }
-
-      ClassType superType = superclassOpt.get();
+    for (ClassType superType : typeHierarchyCache.superClassesOf(exceptionType)) {
       path.push(superType);
-      exceptionType = superType;
+      if (superType.equals(throwableClassType)) {
+        return path;
+      }
     }
-    return path;
+    throw new IllegalStateException(
+        "The path from '" + path.peekFirst() + "' to java.lang.Throwable cannot be found!");
   }
 
   /**
@@ -27,6 +27,7 @@ import javax.annotation.Nullable;
 import sootup.core.IdentifierFactory;
 import sootup.core.model.SootClass;
 import sootup.core.typehierarchy.TypeHierarchy;
+import sootup.core.typehierarchy.TypeHierarchyCache;
 import sootup.core.types.*;
 import sootup.core.views.View;
 import sootup.java.bytecode.interceptors.typeresolving.types.BottomType;
@@ -35,6 +36,7 @@ import sootup.java.bytecode.interceptors.typeresolving.types.BottomType;
 public class BytecodeHierarchy {
 
   private final TypeHierarchy typeHierarchy;
+  private final TypeHierarchyCache typeHierarchyCache;
   public final ClassType objectClassType;
   public final ClassType throwableClassType;
   private final ClassType serializableClassType;
@@ -42,6 +44,7 @@ public class BytecodeHierarchy {
 
   public BytecodeHierarchy(View<? extends SootClass<?>> view) {
     this.typeHierarchy = view.getTypeHierarchy();
+    this.typeHierarchyCache = view.getTypeHierarchyCache();
     IdentifierFactory factory = view.getIdentifierFactory();
     objectClassType = factory.getClassType("java.lang.Object");
     throwableClassType = factory.getClassType("java.lang.Throwable");
@@ -164,41 +167,47 @@ public class BytecodeHierarchy {
       }
     } else {
       // if a and b are both ClassType
-      Set<AncestryPath> pathsA = buildAncestryPaths((ClassType) a);
-      Set<AncestryPath> pathsB = buildAncestryPaths((ClassType) b);
-      // TODO: [ms] implement an algorithm with better wc runtime costs.. e.g.
-      // https://www.baeldung.com/cs/tree-lowest-common-ancestor /
-      // https://de.wikipedia.org/wiki/Range_Minimum_Query
-      for (AncestryPath pathA : pathsA) {
-        for (AncestryPath pathB : pathsB) {
-          ClassType lcn = leastCommonNode(pathA, pathB);
-          if (lcn == null) {
-            continue;
-          }
-          boolean isLcn = true;
-          for (Type l : ret) {
-            if (isAncestor(lcn, l)) {
-              isLcn = false;
-              break;
-            }
-            if (isAncestor(l, lcn)) {
-              ret.remove(l);
-            }
+      return typeHierarchyCache.leastCommonAncestorsOf(a, b, this::getLeastCommonClassAncestors);
+    }
+    return ret;
+  }
+
+  private Set<Type> getLeastCommonClassAncestors(Type a, Type b) {
+    Set<Type> ret = new HashSet<>();
+    Set<AncestryPath> pathsA = buildAncestryPaths((ClassType) a);
+    Set<AncestryPath> pathsB = buildAncestryPaths((ClassType) b);
+    // TODO: [ms] implement an algorithm with better wc runtime costs.. e.g.
+    // https://www.baeldung.com/cs/tree-lowest-common-ancestor /
+    // https://de.wikipedia.org/wiki/Range_Minimum_Query
+    for (AncestryPath pathA : pathsA) {
+      for (AncestryPath pathB : pathsB) {
+        ClassType lcn = leastCommonNode(pathA, pathB);
+        if (lcn == null) {
+          continue;
+        }
+        boolean isLcn = true;
+        for (Type l : ret) {
+          if (isAncestor(lcn, l)) {
+            isLcn = false;
+            break;
           }
-          if (isLcn) {
-            ret.add(lcn);
+          if (isAncestor(l, lcn)) {
+            ret.remove(l);
           }
         }
+        if (isLcn) {
+          ret.add(lcn);
+        }
       }
-      if (ret.isEmpty()) {
-        ret.add(objectClassType);
-      }
+    }
+    if (ret.isEmpty()) {
+      ret.add(objectClassType);
     }
     return ret;
   }
 
   private boolean canStoreType(ClassType ancestor, ClassType child) {
-    return ancestor == objectClassType || typeHierarchy.subtypesOf(ancestor).contains(child);
+    return ancestor == objectClassType || typeHierarchyCache.subtypesOf(ancestor).contains(child);
   }
 
   private Set<AncestryPath> buildAncestryPaths(ClassType type) {
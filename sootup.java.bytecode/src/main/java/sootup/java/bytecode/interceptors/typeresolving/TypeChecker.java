@@ -97,7 +97,7 @@ public abstract class TypeChecker extends AbstractStmtVisitor<Stmt> {
           // allocation site.
           if (Type.isObjectLikeType(type_base)
               || (Type.isObject(type_base) && type_rhs instanceof PrimitiveType)) {
-            Map<Local, Collection<Stmt>> defs = Body.collectDefs(builder.getStmtGraph().getNodes());
+            Map<Local, List<Stmt>> defs = builder.getAnalysisContext().getDefs();
             Collection<Stmt> defStmts = defs.get(base);
             boolean findDef = false;
             if (defStmts != null) {
@@ -149,7 +149,7 @@ public abstract class TypeChecker extends AbstractStmtVisitor<Stmt> {
         arrayType = (ArrayType) type_base;
       } else {
         if (type_base instanceof NullType || Type.isObjectLikeType(type_base)) {
-          Map<Local, Collection<Stmt>> defs = Body.collectDefs(builder.getStmtGraph().getNodes());
+          Map<Local, List<Stmt>> defs = builder.getAnalysisContext().getDefs();
           Deque<StmtLocalPair> worklist = new ArrayDeque<>();
           Set<StmtLocalPair> visited = new HashSet<>();
           worklist.add(new StmtLocalPair(stmt, base));
@@ -1,16 +1,25 @@
 package sootup.java.bytecode.frontend;
 
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
 import static junit.framework.TestCase.fail;
 
 import categories.Java8Test;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import sootup.core.frontend.ResolveException;
+import sootup.core.model.Body;
 import sootup.core.model.SootClass;
 import sootup.core.model.SootMethod;
 import sootup.core.signatures.MethodSignature;
+import sootup.java.bytecode.inputlocation.BytecodeClassLoadingOptions;
 import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
 import sootup.java.core.JavaIdentifierFactory;
 import sootup.java.core.JavaProject;
 import sootup.java.core.language.JavaLanguage;
@@ -20,6 +29,59 @@ import sootup.java.core.views.JavaView;
 @Category(Java8Test.class)
 public class AsmMethodSourceTest {
 
+  private final JavaProject javaProject =
+      JavaProject.builder(new JavaLanguage(8))
+          .addInputLocation(
+              PathBasedAnalysisInputLocation.create(
+                  Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar"), null))
+          .build();
+
+  @Test
+  public void testBodyIsReadOnDemand() throws IOException {
+    JavaView view = javaProject.createView();
+
+    JavaClassType classType = JavaIdentifierFactory.getInstance().getClassType("utils.Operations");
+    for (SootMethod method : view.getClass(classType).get().getMethods()) {
+      AsmMethodSource bodySource = (AsmMethodSource) method.getBodySource();
+      assertEquals(0, bodySource.instructions.size());
+      Body body = method.getBody();
+      assertFalse(body.getStmts().isEmpty());
+
+      // the bytecode is released after the conversion and read again if it is needed again
+      assertEquals(0, bodySource.instructions.size());
+      assertEquals(
+          body.getStmts().size(), bodySource.resolveBody(method.getModifiers()).getStmts().size());
+    }
+  }
+
+  @Test
+  public void testSignaturesOnlyClassLoadingOptions() {
+    JavaView view =
+        javaProject.createView(analysisInputLocation -> BytecodeClassLoadingOptions.SignaturesOnly);
+
+    JavaClassType classType = JavaIdentifierFactory.getInstance().getClassType("utils.Operations");
+    SootClass<?> sootClass = view.getClass(classType).get();
+    assertFalse(sootClass.getMethods().isEmpty());
+    for (SootMethod method : sootClass.getMethods()) {
+      assertTrue(method.isConcrete());
+      assertFalse(method.hasBody());
+      try {
+        method.getBody();
+        fail("the body of " + method + " should not be available");
+      } catch (ResolveException expected) {
+        // the class was loaded without method bodies
+        assertTrue(expected.getCause().getMessage().contains("utils/Operations.class"));
+      }
+    }
+    // methods without a body are skipped
+    view.resolveBodies(sootClass.getMethods(), Runnable::run);
+
+    JavaView viewWithBodies = javaProject.createView();
+    assertFalse(
+        viewWithBodies.getClass(classType).get().getMethods().stream()
+            .anyMatch(method -> method.getBody().getStmts().isEmpty()));
+  }
+
   @Test
   @Ignore("FIXME")
   public void testFix_StackUnderrun_convertPutFieldInsn_init() {
@@ -3,11 +3,17 @@ package sootup.java.bytecode.frontend;
 import static org.junit.Assert.*;
 
 import categories.Java9Test;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import sootup.core.cache.ClassCacheStatistics;
 import sootup.java.bytecode.inputlocation.JavaClassPathAnalysisInputLocation;
 import sootup.java.bytecode.inputlocation.JavaModulePathAnalysisInputLocation;
 import sootup.java.bytecode.inputlocation.JrtFileSystemAnalysisInputLocation;
@@ -234,6 +240,39 @@ public class JavaModuleViewTest {
     assertTrue(view.getClass(modC, targetClassC).isPresent());
   }
 
+  @Test
+  public void testConcurrentClassLookups() throws Exception {
+    JavaProject p =
+        JavaProject.builder(new JavaLanguage(9))
+            .addInputLocation(
+                new JavaModulePathAnalysisInputLocation(testPath + "requires_exports/jar"))
+            .build();
+    JavaModuleView view = (JavaModuleView) p.createView();
+
+    ModulePackageName modMain =
+        JavaModuleIdentifierFactory.getInstance().getPackageName("pkgmain", "modmain");
+    ModulePackageName modB =
+        JavaModuleIdentifierFactory.getInstance().getPackageName("pkgb", "modb");
+    ModuleJavaClassType targetClassB =
+        JavaModuleIdentifierFactory.getInstance().getClassType("B", "pkgb", "modb");
+
+    // concurrent lookups of the same class build it only once
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<JavaSootClass>> futures = new ArrayList<>();
+      for (int i = 0; i < 16; i++) {
+        futures.add(executor.submit(() -> view.getClass(modMain, targetClassB).get()));
+        futures.add(executor.submit(() -> view.getClass(modB, targetClassB).get()));
+      }
+      JavaSootClass classB = futures.get(0).get();
+      for (Future<JavaSootClass> future : futures) {
+        assertSame(classB, future.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   @Test
   public void testRequiresTransitiveExport() {
 
@@ -802,6 +841,38 @@ public class JavaModuleViewTest {
         view.getClass(cpb, BFromModuleButInternal).isPresent());
   }
 
+  @Test
+  public void testCacheStatisticsCountEachLookupOnce() {
+    JavaProject p =
+        JavaProject.builder(new JavaLanguage(9))
+            .addInputLocation(
+                new JavaModulePathAnalysisInputLocation(
+                    testPath + "unnamed-module_accessing-module-path/jar/modb.jar"))
+            .addInputLocation(
+                new JavaClassPathAnalysisInputLocation(
+                    testPath + "unnamed-module_accessing-module-path/jar/cpmain.jar"))
+            .build();
+
+    JavaModuleView view = (JavaModuleView) p.createView();
+    ClassCacheStatistics statistics = view.getCacheStatistics();
+
+    ModulePackageName cpmain =
+        JavaModuleIdentifierFactory.getInstance().getPackageName("pkgcpmain", "");
+    ModuleJavaClassType main =
+        JavaModuleIdentifierFactory.getInstance().getClassType("Main", "pkgcpmain", "");
+    // the module path is searched before the class path, both are a single lookup
+    assertTrue(view.getClass(cpmain, main).isPresent());
+    assertEquals(0, statistics.getHitCount());
+    assertEquals(1, statistics.getMissCount());
+    assertEquals(1, statistics.getLookupCount());
+
+    assertTrue(view.getClass(cpmain, main).isPresent());
+    assertEquals(1, statistics.getHitCount());
+    assertEquals(1, statistics.getMissCount());
+    assertEquals(2, statistics.getLookupCount());
+    assertEquals(1, statistics.getLoadCount());
+  }
+
   @Test
   @Ignore
   public void testModulePathEqualsClassPath() {
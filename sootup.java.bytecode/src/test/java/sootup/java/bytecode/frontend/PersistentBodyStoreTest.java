@@ -0,0 +1,139 @@
+package sootup.java.bytecode.frontend;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+import categories.Java8Test;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import sootup.core.inputlocation.ClassLoadingOptions;
+import sootup.core.model.Body;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.transform.BodyInterceptor;
+import sootup.java.bytecode.inputlocation.BytecodeClassLoadingOptions;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.bytecode.interceptors.Aggregator;
+import sootup.java.bytecode.interceptors.DeadAssignmentEliminator;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaProject;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.types.JavaClassType;
+import sootup.java.core.views.JavaView;
+
+@Category(Java8Test.class)
+public class PersistentBodyStoreTest {
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private final JavaProject javaProject =
+      JavaProject.builder(new JavaLanguage(8))
+          .addInputLocation(
+              PathBasedAnalysisInputLocation.create(
+                  Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar"), null))
+          .build();
+
+  @Test
+  public void testBodiesAreLoadedFromBodyStore() throws IOException {
+    Path bodyStoreDirectory = tempFolder.newFolder("bodies").toPath();
+    AtomicInteger interceptedBodies = new AtomicInteger();
+    List<BodyInterceptor> bodyInterceptors =
+        new ArrayList<>(BytecodeClassLoadingOptions.Default.getBodyInterceptors());
+    bodyInterceptors.add((builder, view) -> interceptedBodies.incrementAndGet());
+    ClassLoadingOptions classLoadingOptions =
+        new ClassLoadingOptions() {
+          @Nonnull
+          @Override
+          public List<BodyInterceptor> getBodyInterceptors() {
+            return bodyInterceptors;
+          }
+
+          @Nonnull
+          @Override
+          public Optional<Path> getBodyStoreDirectory() {
+            return Optional.of(bodyStoreDirectory);
+          }
+        };
+
+    // the bodies are converted and stored on the first run ...
+    Map<MethodSignature, String> convertedBodies = new HashMap<>();
+    for (JavaSootClass sootClass :
+        javaProject.createView(location -> classLoadingOptions).getClasses()) {
+      for (SootMethod method : sootClass.getMethods()) {
+        if (method.isConcrete()) {
+          convertedBodies.put(method.getSignature(), method.getBody().toString());
+        }
+      }
+    }
+    assertFalse(convertedBodies.isEmpty());
+    assertEquals(convertedBodies.size(), interceptedBodies.get());
+
+    // ... and loaded instead of being converted again on the next run
+    JavaView view = javaProject.createView(location -> classLoadingOptions);
+    for (Map.Entry<MethodSignature, String> convertedBody : convertedBodies.entrySet()) {
+      SootMethod method = view.getMethod(convertedBody.getKey()).get();
+      assertEquals(convertedBody.getValue(), method.getBody().toString());
+    }
+    assertEquals(convertedBodies.size(), interceptedBodies.get());
+  }
+
+  @Test
+  public void testInterceptorConfigurationIsPartOfTheKey() throws IOException {
+    PersistentBodyStore bodyStore =
+        new PersistentBodyStore(tempFolder.newFolder("bodies").toPath());
+    JavaClassType classType = JavaIdentifierFactory.getInstance().getClassType("utils.Operations");
+    SootMethod method =
+        javaProject.createView().getClass(classType).get().getMethods().stream()
+            .filter(SootMethod::isConcrete)
+            .findFirst()
+            .get();
+    Body body = method.getBody();
+    String classFileHash = PersistentBodyStore.classFileHash(new byte[] {1, 2, 3});
+
+    List<BodyInterceptor> stackLocalsOnly =
+        Collections.singletonList(new DeadAssignmentEliminator(true));
+    bodyStore.store(classFileHash, stackLocalsOnly, body);
+    assertTrue(
+        bodyStore
+            .load(
+                classFileHash,
+                Collections.singletonList(new DeadAssignmentEliminator(true)),
+                method.getSignature(),
+                JavaIdentifierFactory.getInstance())
+            .isPresent());
+    // only the flag of the interceptor differs
+    assertFalse(
+        bodyStore
+            .load(
+                classFileHash,
+                Collections.singletonList(new DeadAssignmentEliminator(false)),
+                method.getSignature(),
+                JavaIdentifierFactory.getInstance())
+            .isPresent());
+
+    bodyStore.store(classFileHash, Collections.singletonList(new Aggregator(true)), body);
+    assertFalse(
+        bodyStore
+            .load(
+                classFileHash,
+                Collections.singletonList(new Aggregator(false)),
+                method.getSignature(),
+                JavaIdentifierFactory.getInstance())
+            .isPresent());
+  }
+}
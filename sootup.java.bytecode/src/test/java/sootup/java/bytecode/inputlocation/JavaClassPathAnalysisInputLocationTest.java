@@ -0,0 +1,58 @@
+package sootup.java.bytecode.inputlocation;
+
+import static org.junit.Assert.*;
+
+import categories.Java8Test;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import sootup.core.types.ClassType;
+import sootup.java.core.JavaProject;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+@Category(Java8Test.class)
+public class JavaClassPathAnalysisInputLocationTest extends AnalysisInputLocationTest {
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void identicalArchivesAreIgnored() throws IOException {
+    Path first = tempFolder.newFolder("first").toPath().resolve("MiniApp.jar");
+    Path copy = tempFolder.newFolder("copy").toPath().resolve("MiniApp-copy.jar");
+    Files.copy(jar, first);
+    Files.copy(jar, copy);
+
+    List<Path> entries = Arrays.asList(first, war, copy);
+    assertEquals(
+        Arrays.asList(first, war),
+        JavaClassPathAnalysisInputLocation.withoutDuplicateArchives(entries));
+
+    JavaClassPathAnalysisInputLocation inputLocation =
+        new JavaClassPathAnalysisInputLocation(
+            first + File.pathSeparator + war + File.pathSeparator + copy);
+    final JavaView view =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(inputLocation)
+            .build()
+            .createView();
+    assertEquals(
+        new JavaClassPathAnalysisInputLocation(first + File.pathSeparator + war)
+            .getClassTypes(view),
+        inputLocation.getClassTypes(view));
+    final ClassType employee = getIdentifierFactory().getClassType("Employee", "ds");
+    // the class is found in the first of the identical archives
+    assertEquals(
+        first,
+        ((PathBasedAnalysisInputLocation)
+                inputLocation.getClassSource(employee, view).get().getClassSource())
+            .path);
+  }
+}
@@ -3,17 +3,28 @@ package sootup.java.bytecode.inputlocation;
 import static org.junit.Assert.*;
 
 import categories.Java9Test;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Optional;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
 import sootup.core.Project;
 import sootup.core.frontend.AbstractClassSource;
 import sootup.core.inputlocation.DefaultSourceTypeSpecifier;
+import sootup.core.model.SourceType;
 import sootup.core.types.ClassType;
+import sootup.java.core.JavaIdentifierFactory;
 import sootup.java.core.JavaModuleIdentifierFactory;
 import sootup.java.core.JavaModuleProject;
+import sootup.java.core.JavaProject;
 import sootup.java.core.JavaSootClass;
 import sootup.java.core.language.JavaLanguage;
 import sootup.java.core.signatures.ModuleSignature;
@@ -23,6 +34,8 @@ import sootup.java.core.views.JavaView;
 @Category(Java9Test.class)
 public class JrtFileSystemAnalysisInputLocationTest {
 
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
   @Test
   public void getClassSource() {
     JrtFileSystemAnalysisInputLocation inputLocation = new JrtFileSystemAnalysisInputLocation();
@@ -74,4 +87,71 @@ public class JrtFileSystemAnalysisInputLocationTest {
     assertTrue(modules.contains(JavaModuleIdentifierFactory.getModuleSignature("jdk.javadoc")));
     assertTrue(modules.contains(JavaModuleIdentifierFactory.getModuleSignature("jdk.charsets")));
   }
+
+  @Test
+  public void storedModuleIndex() throws IOException {
+    Path indexDirectory = tempFolder.newFolder("jrt-index").toPath();
+    JrtFileSystemAnalysisInputLocation inputLocation =
+        new JrtFileSystemAnalysisInputLocation(
+            SourceType.Library, Paths.get(System.getProperty("java.home")), indexDirectory);
+    JavaView view =
+        JavaProject.builder(new JavaLanguage(9))
+            .addInputLocation(inputLocation)
+            .build()
+            .createView();
+
+    // a class without module information is found via the module of its package
+    final ClassType sig = JavaIdentifierFactory.getInstance().getClassType("java.lang.String");
+    final Optional<? extends AbstractClassSource<JavaSootClass>> clazz =
+        inputLocation.getClassSource(sig, view);
+    assertTrue(clazz.isPresent());
+    assertEquals(sig, clazz.get().getClassType());
+    assertFalse(
+        inputLocation
+            .getClassSource(
+                JavaIdentifierFactory.getInstance().getClassType("java.lang.NoSuchClass"), view)
+            .isPresent());
+
+    // the index is stored under the runtime version of the JDK and can be read again
+    Path indexFile =
+        indexDirectory.resolve(
+            "jrt-"
+                + JrtModuleIndex.getRuntimeVersionKey(inputLocation.getJavaHome()).get()
+                + ".index");
+    assertTrue(Files.exists(indexFile));
+    JrtModuleIndex storedIndex = JrtModuleIndex.load(indexFile).get();
+    assertEquals(inputLocation.getClassTypes(view).get().size(), storedIndex.size());
+    assertEquals("java.base", storedIndex.getModuleOfPackage("java.lang").get());
+    assertTrue(storedIndex.getClasses("java.base").contains("java.lang.String"));
+  }
+
+  @Test
+  public void moduleIndexKeyDependsOnModulesImage() throws IOException {
+    Path javaHome = tempFolder.newFolder("jdk").toPath();
+    Path modulesImage = Files.createDirectories(javaHome.resolve("lib")).resolve("modules");
+    Files.write(modulesImage, new byte[] {1, 2, 3});
+    writeReleaseFile(javaHome, "java.base,java.logging");
+    String key = JrtModuleIndex.getRuntimeVersionKey(javaHome).get();
+    assertTrue(key, key.startsWith("Eclipse_Adoptium-17.0.9_9-"));
+    assertEquals(key, JrtModuleIndex.getRuntimeVersionKey(javaHome).get());
+
+    // an image with other modules (e.g. created by jlink) of the same JDK version
+    writeReleaseFile(javaHome, "java.base");
+    String otherModulesKey = JrtModuleIndex.getRuntimeVersionKey(javaHome).get();
+    assertNotEquals(key, otherModulesKey);
+
+    // a modules image which has been replaced
+    Files.write(modulesImage, new byte[] {1, 2, 3, 4});
+    assertNotEquals(otherModulesKey, JrtModuleIndex.getRuntimeVersionKey(javaHome).get());
+  }
+
+  private static void writeReleaseFile(Path javaHome, String modules) throws IOException {
+    Files.write(
+        javaHome.resolve("release"),
+        Arrays.asList(
+            "IMPLEMENTOR=\"Eclipse Adoptium\"",
+            "JAVA_RUNTIME_VERSION=\"17.0.9+9\"",
+            "MODULES=\"" + modules + "\""),
+        StandardCharsets.UTF_8);
+  }
 }
@@ -27,18 +27,42 @@ import static org.junit.Assert.*;
 import static org.junit.Assert.assertTrue;
 
 import categories.Java8Test;
+import com.google.common.io.ByteStreams;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipFile;
 import javax.annotation.Nonnull;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import sootup.core.frontend.AbstractClassSource;
 import sootup.core.frontend.BodySource;
+import sootup.core.inputlocation.ClassLocationIndex;
 import sootup.core.inputlocation.EagerInputLocation;
 import sootup.core.model.*;
 import sootup.core.signatures.FieldSubSignature;
@@ -61,6 +85,8 @@ import sootup.java.core.views.JavaView;
 @Category(Java8Test.class)
 public class PathBasedAnalysisInputLocationTest extends AnalysisInputLocationTest {
 
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
   @Test
   public void multiReleaseJar() {
     final ClassType classType =
@@ -266,6 +292,104 @@ public class PathBasedAnalysisInputLocationTest extends AnalysisInputLocationTes
             .getBody()
             .toString()
             .contains("java 8"));
+
+    // a module class type is resolved from the version with the module-info below the view's
+    // version, whereas a non-module class type is not
+    final JavaModuleView view_11 =
+        ((JavaModuleProject)
+                JavaModuleProject.builder(new JavaLanguage(11))
+                    .enableModules()
+                    .addInputLocation(
+                        (ModuleInfoAnalysisInputLocation)
+                            PathBasedAnalysisInputLocation.create(mmrj, null))
+                    .build())
+            .createView();
+    Assert.assertEquals(
+        "/META-INF/versions/9/de/upb/swt/multirelease/Utility.class",
+        view_11.getClass(utilityModule).get().getClassSource().getSourcePath().toString());
+    Assert.assertEquals(
+        "/de/upb/swt/multirelease/Utility.class",
+        view_11.getClass(utilityNoModule).get().getClassSource().getSourcePath().toString());
+  }
+
+  @Test
+  public void multiReleaseJarWithSeveralVersions() throws IOException {
+    // Utility is in the base directory and in version 9, Main in the base directory and in version
+    // 11 and Operations only in the base directory
+    Path jarWithVersions = tempFolder.newFile("mrjar-9-11.jar").toPath();
+    Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    manifest.getMainAttributes().put(new Attributes.Name("Multi-Release"), "true");
+    try (ZipFile mrjFile = new ZipFile(mrj.toFile());
+        ZipFile miniAppFile = new ZipFile(jar.toFile());
+        JarOutputStream out =
+            new JarOutputStream(Files.newOutputStream(jarWithVersions), manifest)) {
+      String utility = "de/upb/swt/multirelease/Utility.class";
+      String main = "de/upb/swt/multirelease/Main.class";
+      String operations = "utils/Operations.class";
+      copyEntry(mrjFile, utility, out, utility);
+      copyEntry(mrjFile, main, out, main);
+      copyEntry(miniAppFile, operations, out, operations);
+      copyEntry(mrjFile, "META-INF/versions/9/" + utility, out, "META-INF/versions/9/" + utility);
+      copyEntry(mrjFile, main, out, "META-INF/versions/11/" + main);
+    }
+
+    final ClassType utility =
+        getIdentifierFactory().getClassType("de.upb.swt.multirelease.Utility");
+    final ClassType main = getIdentifierFactory().getClassType("de.upb.swt.multirelease.Main");
+    final ClassType operations = getIdentifierFactory().getClassType("utils.Operations");
+
+    JavaView view_8 = createMultiReleaseView(jarWithVersions, 8);
+    Assert.assertEquals(
+        "/de/upb/swt/multirelease/Utility.class",
+        view_8.getClass(utility).get().getClassSource().getSourcePath().toString());
+    Assert.assertEquals(
+        "/de/upb/swt/multirelease/Main.class",
+        view_8.getClass(main).get().getClassSource().getSourcePath().toString());
+
+    // version 11 is higher than the view's version and must not be used
+    JavaView view_10 = createMultiReleaseView(jarWithVersions, 10);
+    Assert.assertEquals(
+        "/META-INF/versions/9/de/upb/swt/multirelease/Utility.class",
+        view_10.getClass(utility).get().getClassSource().getSourcePath().toString());
+    Assert.assertEquals(
+        "/de/upb/swt/multirelease/Main.class",
+        view_10.getClass(main).get().getClassSource().getSourcePath().toString());
+    Assert.assertEquals(
+        "/utils/Operations.class",
+        view_10.getClass(operations).get().getClassSource().getSourcePath().toString());
+
+    // Utility is only in the lower version 9, Operations only in the base directory
+    JavaView view_11 = createMultiReleaseView(jarWithVersions, 11);
+    Assert.assertEquals(
+        "/META-INF/versions/9/de/upb/swt/multirelease/Utility.class",
+        view_11.getClass(utility).get().getClassSource().getSourcePath().toString());
+    Assert.assertEquals(
+        "/META-INF/versions/11/de/upb/swt/multirelease/Main.class",
+        view_11.getClass(main).get().getClassSource().getSourcePath().toString());
+    Assert.assertEquals(
+        "/utils/Operations.class",
+        view_11.getClass(operations).get().getClassSource().getSourcePath().toString());
+  }
+
+  private JavaView createMultiReleaseView(@Nonnull Path jar, int version) {
+    return JavaProject.builder(new JavaLanguage(version))
+        .addInputLocation(PathBasedAnalysisInputLocation.create(jar, null))
+        .build()
+        .createView();
+  }
+
+  private static void copyEntry(
+      @Nonnull ZipFile from,
+      @Nonnull String fromName,
+      @Nonnull JarOutputStream to,
+      @Nonnull String toName)
+      throws IOException {
+    to.putNextEntry(new JarEntry(toName));
+    try (InputStream in = from.getInputStream(from.getEntry(fromName))) {
+      ByteStreams.copy(in, to);
+    }
+    to.closeEntry();
   }
 
   @Test
@@ -277,6 +401,57 @@ public class PathBasedAnalysisInputLocationTest extends AnalysisInputLocationTes
     testClassReceival(pathBasedNamespace, Collections.singletonList(mainClass), 1392);
   }
 
+  @Test
+  public void testApkConversionIsCached() throws IOException {
+    Path cacheDirectory = tempFolder.newFolder("dex2jar").toPath();
+    Path convertedJar =
+        cacheDirectory.resolve(PathBasedAnalysisInputLocation.dex2jarCacheKey(apk) + ".jar");
+
+    // the apk is converted on its first use ...
+    PathBasedAnalysisInputLocation inputLocation =
+        PathBasedAnalysisInputLocation.createFromApk(apk, null, cacheDirectory);
+    assertEquals(convertedJar, inputLocation.path);
+    assertEquals(Collections.singletonList(convertedJar), listFiles(cacheDirectory));
+    FileTime convertedAt = Files.getLastModifiedTime(convertedJar);
+
+    // ... and the converted jar is used instead of converting the apk again
+    PathBasedAnalysisInputLocation cachedInputLocation =
+        PathBasedAnalysisInputLocation.createFromApk(apk, null, cacheDirectory);
+    assertEquals(convertedJar, cachedInputLocation.path);
+    assertEquals(Collections.singletonList(convertedJar), listFiles(cacheDirectory));
+    assertEquals(convertedAt, Files.getLastModifiedTime(convertedJar));
+    testClassReceival(
+        cachedInputLocation,
+        Collections.singletonList(
+            getIdentifierFactory().getClassType("de.upb.futuresoot.fields.MainActivity")),
+        1392);
+  }
+
+  @Test
+  public void testConvertedApkIsFoundByItsCacheKey() throws IOException {
+    Path cacheDirectory = tempFolder.newFolder("dex2jar").toPath();
+    // a jar converted before is found by the hash of the apk, without converting it again
+    Files.copy(
+        jar, cacheDirectory.resolve(PathBasedAnalysisInputLocation.dex2jarCacheKey(apk) + ".jar"));
+    // a jar converted by another dex2jar version or with other options is not reused
+    assertNotEquals(
+        PathBasedAnalysisInputLocation.contentHash(apk),
+        PathBasedAnalysisInputLocation.dex2jarCacheKey(apk));
+
+    PathBasedAnalysisInputLocation pathBasedNamespace =
+        PathBasedAnalysisInputLocation.createFromApk(apk, null, cacheDirectory);
+    testClassReceival(
+        pathBasedNamespace,
+        Collections.singletonList(getIdentifierFactory().getClassType("Employee", "ds")),
+        6);
+  }
+
+  private static List<Path> listFiles(Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.collect(Collectors.toList());
+    }
+  }
+
   @Test
   public void testJar() {
     PathBasedAnalysisInputLocation pathBasedNamespace =
@@ -288,6 +463,148 @@ public class PathBasedAnalysisInputLocationTest extends AnalysisInputLocationTes
     testClassReceival(pathBasedNamespace, sigs, 6);
   }
 
+  @Test
+  public void testClassLocationIndex() {
+    PathBasedAnalysisInputLocation jarLocation = PathBasedAnalysisInputLocation.create(jar, null);
+    JavaClassPathAnalysisInputLocation classPathLocation =
+        new JavaClassPathAnalysisInputLocation(jar.toString());
+    final JavaProject project =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(jarLocation)
+            .addInputLocation(classPathLocation)
+            .build();
+    final JavaView view = project.createView();
+
+    // the class files are only listed, not parsed: the invalid NoClass.class is listed as well
+    assertEquals(7, jarLocation.getClassTypes(view).get().size());
+    assertEquals(7, classPathLocation.getClassTypes(view).get().size());
+    assertFalse(PathBasedAnalysisInputLocation.create(mrj, null).getClassTypes(view).isPresent());
+
+    ClassLocationIndex<JavaSootClass> index =
+        new ClassLocationIndex<>(project.getInputLocations(), view);
+    assertTrue(index.isComplete());
+    assertEquals(7, index.size());
+
+    // the first input location containing a class wins
+    final ClassType employee = getIdentifierFactory().getClassType("Employee", "ds");
+    assertSame(jarLocation, index.getClassSource(employee, view).get().getClassSource());
+    assertTrue(view.getClass(employee).isPresent());
+
+    final ClassType unknown = getIdentifierFactory().getClassType("NotInTheJar", "ds");
+    assertFalse(index.getClassSource(unknown, view).isPresent());
+    assertFalse(view.getClass(unknown).isPresent());
+    assertFalse(view.getClass(getIdentifierFactory().getClassType("NoClass")).isPresent());
+
+    // input locations that can not be indexed are still probed in order
+    JavaProject projectWithUnindexed =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(PathBasedAnalysisInputLocation.create(mrj, null))
+            .addInputLocation(jarLocation)
+            .build();
+    ClassLocationIndex<JavaSootClass> partialIndex =
+        new ClassLocationIndex<>(projectWithUnindexed.getInputLocations(), view);
+    assertFalse(partialIndex.isComplete());
+    assertSame(jarLocation, partialIndex.getClassSource(employee, view).get().getClassSource());
+  }
+
+  @Test
+  public void testMemoryMappedArchive() throws IOException {
+    MemoryMappedArchive archive = MemoryMappedArchive.open(jar);
+    assertTrue(archive.contains("ds/Employee.class"));
+    assertFalse(archive.contains("ds/NotInTheJar.class"));
+    assertFalse(archive.read("ds/NotInTheJar.class").isPresent());
+
+    // every entry has the same content as read via a zip file system
+    try (FileSystem fs = FileSystems.newFileSystem(jar, (ClassLoader) null)) {
+      for (String entryName : archive.getEntryNames()) {
+        Path entry = fs.getPath(entryName);
+        if (!Files.isDirectory(entry)) {
+          assertArrayEquals(entryName, Files.readAllBytes(entry), archive.read(entryName).get());
+        }
+      }
+    }
+
+    // the class sources of an archive are created from the mapped archive if it is chosen
+    PathBasedAnalysisInputLocation mappedLocation =
+        PathBasedAnalysisInputLocation.create(
+            jar, null, PathBasedAnalysisInputLocation.ArchiveBackend.MEMORY_MAPPED);
+    final JavaView view =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(mappedLocation)
+            .build()
+            .createView();
+    final ClassType employee = getIdentifierFactory().getClassType("Employee", "ds");
+    assertEquals(
+        jar.resolve("ds/Employee.class"),
+        view.getClass(employee).get().getClassSource().getSourcePath());
+    for (SootMethod method : view.getClass(employee).get().getMethods()) {
+      assertFalse(method.getBody().getStmts().isEmpty());
+    }
+    mappedLocation.close();
+
+    // ... and via a zip file system by default
+    final JavaView defaultView =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(PathBasedAnalysisInputLocation.create(jar, null))
+            .build()
+            .createView();
+    Path sourcePath = defaultView.getClass(employee).get().getClassSource().getSourcePath();
+    assertNotEquals(FileSystems.getDefault(), sourcePath.getFileSystem());
+    assertEquals("/ds/Employee.class", sourcePath.toString());
+  }
+
+  @Test
+  public void testClosedMemoryMappedArchiveCanNotBeRead() throws IOException {
+    MemoryMappedArchive archive = MemoryMappedArchive.open(war);
+    MemoryMappedArchive nestedJar = archive.openNested("WEB-INF/lib/MiniApp.jar");
+    assertTrue(nestedJar.read("ds/Employee.class").isPresent());
+
+    // closing a nested archive has no effect, as it shares the mapping of its parent
+    nestedJar.close();
+    assertTrue(nestedJar.read("ds/Employee.class").isPresent());
+    assertTrue(archive.read("WEB-INF/lib/MiniApp.jar").isPresent());
+
+    archive.close();
+    // closing again has no effect
+    archive.close();
+    assertTrue(archive.contains("WEB-INF/lib/MiniApp.jar"));
+    try {
+      archive.read("WEB-INF/lib/MiniApp.jar");
+      fail("a closed archive must not be read");
+    } catch (IOException expected) {
+    }
+    // the nested archive is closed together with its parent
+    try {
+      nestedJar.read("ds/Employee.class");
+      fail("a nested archive of a closed archive must not be read");
+    } catch (IOException expected) {
+    }
+  }
+
+  @Test
+  public void testClosedInputLocationReleasesTheArchive() {
+    final ClassType employee = getIdentifierFactory().getClassType("Employee", "ds");
+    for (Path path : Arrays.asList(jar, war)) {
+      PathBasedAnalysisInputLocation inputLocation =
+          PathBasedAnalysisInputLocation.create(
+              path, null, PathBasedAnalysisInputLocation.ArchiveBackend.MEMORY_MAPPED);
+      JavaView view =
+          JavaProject.builder(new JavaLanguage(8))
+              .addInputLocation(inputLocation)
+              .build()
+              .createView();
+      assertTrue(inputLocation.getClassSource(employee, view).isPresent());
+      inputLocation.close();
+      assertFalse(inputLocation.getClassSource(employee, view).isPresent());
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testMemoryMappedArchiveRejectsNonArchive() throws IOException {
+    MemoryMappedArchive.open(
+        Paths.get("../shared-test-resources/java-miniapps/src/ds/Employee.java"));
+  }
+
   @Test
   public void testWar() {
     PathBasedAnalysisInputLocation pathBasedNamespace =
@@ -296,6 +613,80 @@ public class PathBasedAnalysisInputLocationTest extends AnalysisInputLocationTes
     testClassReceival(pathBasedNamespace, Collections.singletonList(warClass1), 19);
   }
 
+  @Test
+  public void testWarIsReadInMemory() throws IOException {
+    MemoryMappedArchive nestedJar =
+        MemoryMappedArchive.open(war).openNested("WEB-INF/lib/MiniApp.jar");
+    assertTrue(nestedJar.contains("ds/Employee.class"));
+    assertTrue(nestedJar.read("ds/Employee.class").isPresent());
+
+    // the classes are read from the war file instead of an extracted copy
+    final JavaView view =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(
+                PathBasedAnalysisInputLocation.create(
+                    war, null, PathBasedAnalysisInputLocation.ArchiveBackend.MEMORY_MAPPED))
+            .build()
+            .createView();
+    assertEquals(
+        war.resolve("WEB-INF/lib/MiniApp.jar/ds/Employee.class"),
+        view.getClass(getIdentifierFactory().getClassType("Employee", "ds"))
+            .get()
+            .getClassSource()
+            .getSourcePath());
+    assertEquals(
+        war.resolve("WEB-INF/classes/SimpleWarRead.class"),
+        view.getClass(getIdentifierFactory().getClassType("SimpleWarRead"))
+            .get()
+            .getClassSource()
+            .getSourcePath());
+
+    // ... and from an extracted copy by default
+    final JavaView defaultView =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(PathBasedAnalysisInputLocation.create(war, null))
+            .build()
+            .createView();
+    assertFalse(
+        defaultView
+            .getClass(getIdentifierFactory().getClassType("SimpleWarRead"))
+            .get()
+            .getClassSource()
+            .getSourcePath()
+            .startsWith(war));
+  }
+
+  @Test
+  public void testClassSourcesAreParsedConcurrently() {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      for (Path path :
+          Arrays.asList(
+              jar, war, Paths.get("../shared-test-resources/miniTestSuite/java8/binary"))) {
+        PathBasedAnalysisInputLocation inputLocation =
+            PathBasedAnalysisInputLocation.create(path, null);
+        final JavaView view =
+            JavaProject.builder(new JavaLanguage(8))
+                .addInputLocation(inputLocation)
+                .build()
+                .createView();
+
+        Set<ClassType> sequential =
+            inputLocation.getClassSources(view).stream()
+                .map(AbstractClassSource::getClassType)
+                .collect(Collectors.toSet());
+        Set<ClassType> concurrent =
+            inputLocation.getClassSources(view, executor).stream()
+                .map(AbstractClassSource::getClassType)
+                .collect(Collectors.toSet());
+        assertFalse(sequential.isEmpty());
+        assertEquals(sequential, concurrent);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   @Test
   public void testClassInWar() {
 
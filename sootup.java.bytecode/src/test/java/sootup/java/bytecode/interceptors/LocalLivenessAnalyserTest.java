@@ -1,16 +1,27 @@
 package sootup.java.bytecode.interceptors;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
 import categories.Java8Test;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Set;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import sootup.core.graph.MutableBlockStmtGraph;
+import sootup.core.graph.MutableStmtGraph;
 import sootup.core.jimple.basic.Local;
 import sootup.core.jimple.basic.NoPositionInformation;
 import sootup.core.jimple.basic.StmtPositionInfo;
 import sootup.core.jimple.common.constant.IntConstant;
 import sootup.core.jimple.common.stmt.Stmt;
 import sootup.core.model.Body;
+import sootup.core.model.BodyAnalysisContext;
 import sootup.core.model.Position;
 import sootup.core.signatures.MethodSignature;
 import sootup.core.types.VoidType;
@@ -29,6 +40,7 @@ public class LocalLivenessAnalyserTest {
 
   JavaClassType intType = factory.getClassType("int");
   JavaClassType classType = factory.getClassType("Test");
+  JavaClassType exception = factory.getClassType("Exception");
   MethodSignature methodSignature =
       new MethodSignature(classType, "test", Collections.emptyList(), VoidType.getInstance());
 
@@ -84,6 +96,93 @@ public class LocalLivenessAnalyserTest {
     AssertUtils.assertSetsEquiv(Collections.emptySet(), analyser.getLiveLocalsAfterStmt(ret));
   }
 
+  /**
+   * a = 0;
+   *
+   * <p>label1: b = 1;
+   *
+   * <p>c = b;
+   *
+   * <p>label2: return c;
+   *
+   * <p>label3: e := @caughtexception;
+   *
+   * <p>return a;
+   *
+   * <p>catch Exception from label1 to label2 with label3;
+   */
+  @Test
+  public void testLivenessAnalyserWithTrap() {
+    Local e = JavaJimple.newLocal("e", exception);
+    Stmt beq1 = JavaJimple.newAssignStmt(b, IntConstant.getInstance(1), noStmtPositionInfo);
+    Stmt ceqb = JavaJimple.newAssignStmt(c, b, noStmtPositionInfo);
+    Stmt handler =
+        JavaJimple.newIdentityStmt(
+            e, JavaJimple.getInstance().newCaughtExceptionRef(), noStmtPositionInfo);
+    Stmt reta = JavaJimple.newReturnStmt(a, noStmtPositionInfo);
+
+    MutableStmtGraph graph = new MutableBlockStmtGraph();
+    graph.addNode(aeq0);
+    graph.addNode(beq1, Collections.singletonMap(exception, handler));
+    graph.addNode(ceqb, Collections.singletonMap(exception, handler));
+    graph.addNode(ret);
+    graph.putEdge(aeq0, beq1);
+    graph.putEdge(beq1, ceqb);
+    graph.putEdge(ceqb, ret);
+    graph.putEdge(handler, reta);
+    graph.setStartingStmt(aeq0);
+
+    LocalLivenessAnalyser analyser = new LocalLivenessAnalyser(graph);
+    Set<Local> aSet = ImmutableUtils.immutableSet(a);
+    Set<Local> ab = ImmutableUtils.immutableSet(a, b);
+    AssertUtils.assertSetsEquiv(Collections.emptySet(), analyser.getLiveLocalsBeforeStmt(aeq0));
+    AssertUtils.assertSetsEquiv(aSet, analyser.getLiveLocalsAfterStmt(aeq0));
+    // the handler uses a, so a is live within the whole range of the trap
+    AssertUtils.assertSetsEquiv(aSet, analyser.getLiveLocalsBeforeStmt(beq1));
+    AssertUtils.assertSetsEquiv(ab, analyser.getLiveLocalsAfterStmt(beq1));
+    AssertUtils.assertSetsEquiv(ab, analyser.getLiveLocalsBeforeStmt(ceqb));
+    AssertUtils.assertSetsEquiv(
+        ImmutableUtils.immutableSet(a, c), analyser.getLiveLocalsAfterStmt(ceqb));
+    AssertUtils.assertSetsEquiv(
+        ImmutableUtils.immutableSet(c), analyser.getLiveLocalsBeforeStmt(ret));
+    AssertUtils.assertSetsEquiv(aSet, analyser.getLiveLocalsBeforeStmt(handler));
+    AssertUtils.assertSetsEquiv(aSet, analyser.getLiveLocalsAfterStmt(handler));
+  }
+
+  @Test
+  public void testAnalysisContext() {
+    Body.BodyBuilder builder = Body.builder(createBody(), Collections.emptySet());
+    BodyAnalysisContext context = builder.getAnalysisContext();
+    LocalLivenessAnalyser analyser =
+        context.getAnalysis(LocalLivenessAnalyser.class, LocalLivenessAnalyser::new);
+    assertSame(
+        analyser, context.getAnalysis(LocalLivenessAnalyser.class, LocalLivenessAnalyser::new));
+    assertEquals(Arrays.asList(aeq0, aeqbplus2), sorted(context.getDefsOf(a)));
+    assertEquals(Arrays.asList(beqaplus1, ifalt9), sorted(context.getUsesOf(a)));
+
+    // replacing a stmt updates the defs and uses, but discards the liveness
+    Stmt beq1 = JavaJimple.newAssignStmt(b, IntConstant.getInstance(1), noStmtPositionInfo);
+    builder.replaceStmt(beqaplus1, beq1);
+    assertEquals(Collections.singletonList(beq1), context.getDefsOf(b));
+    assertEquals(Collections.singletonList(ifalt9), context.getUsesOf(a));
+    assertFalse(
+        context
+            .getAnalysis(LocalLivenessAnalyser.class, LocalLivenessAnalyser::new)
+            .getLiveLocalsAfterStmt(aeq0)
+            .contains(a));
+
+    // a modification of the StmtGraph which bypasses the builder is noticed as well
+    builder.getStmtGraph().removeNode(aeqbplus2);
+    assertEquals(Collections.singletonList(aeq0), context.getDefsOf(a));
+    assertFalse(context.getUsesOf(b).contains(aeqbplus2));
+  }
+
+  private List<Stmt> sorted(List<Stmt> stmts) {
+    List<Stmt> sortedStmts = new ArrayList<>(stmts);
+    sortedStmts.sort(Comparator.comparing(Stmt::toString));
+    return sortedStmts;
+  }
+
   private Body createBody() {
 
     Body.BodyBuilder builder = Body.builder();
@@ -204,4 +204,28 @@ public class BytecodeHierarchyTest {
     expectedSet = ImmutableUtils.immutableSet(object, serializable, cloneable);
     Assert.assertEquals(expectedSet, actualSet);
   }
+
+  @Test
+  public void testTypeHierarchyCache() {
+    setUp();
+    Assert.assertSame(view.getTypeHierarchyCache(), view.getTypeHierarchyCache());
+
+    // the least common ancestors are computed once and shared by all hierarchies of the view
+    Collection<Type> actualSet =
+        new BytecodeHierarchy(view).getLeastCommonAncestor(double_class1, int_class);
+    Assert.assertEquals(ImmutableUtils.immutableSet(number, comparable), actualSet);
+    Assert.assertSame(
+        actualSet, new BytecodeHierarchy(view).getLeastCommonAncestor(double_class1, int_class));
+    // the order of the types does not matter
+    Assert.assertSame(
+        actualSet, new BytecodeHierarchy(view).getLeastCommonAncestor(int_class, double_class1));
+
+    Assert.assertTrue(view.getTypeHierarchyCache().subtypesOf(rootInterface1).contains(class2));
+    Assert.assertEquals(
+        Arrays.asList(number, object), view.getTypeHierarchyCache().superClassesOf(int_class));
+
+    view.getTypeHierarchyCache().clear();
+    Assert.assertNotSame(
+        actualSet, new BytecodeHierarchy(view).getLeastCommonAncestor(double_class1, int_class));
+  }
 }
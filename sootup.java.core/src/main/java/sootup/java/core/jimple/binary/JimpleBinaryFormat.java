@@ -0,0 +1,102 @@
+package sootup.java.core.jimple.binary;
+
+/**
+ * The tags of the binary Jimple format written by {@link JimpleBinaryWriter} and read by {@link
+ * JimpleBinaryReader}. Every type, value, statement and position is written as one of these tags
+ * followed by its operands.
+ */
+final class JimpleBinaryFormat {
+
+  /** is increased on every incompatible change of the format */
+  static final int VERSION = 1;
+
+  // types
+  static final int TYPE_PRIMITIVE = 0;
+  static final int TYPE_CLASS = 1;
+  static final int TYPE_ARRAY = 2;
+  static final int TYPE_NULL = 3;
+  static final int TYPE_VOID = 4;
+  static final int TYPE_UNKNOWN = 5;
+
+  // immediates
+  static final int LOCAL = 0;
+  static final int INT_CONSTANT = 1;
+  static final int LONG_CONSTANT = 2;
+  static final int FLOAT_CONSTANT = 3;
+  static final int DOUBLE_CONSTANT = 4;
+  static final int NULL_CONSTANT = 5;
+  static final int BOOLEAN_CONSTANT = 6;
+  static final int STRING_CONSTANT = 7;
+  static final int CLASS_CONSTANT = 8;
+  static final int ENUM_CONSTANT = 9;
+  static final int METHOD_HANDLE = 10;
+  static final int METHOD_TYPE = 11;
+
+  // binary expressions
+  static final int ADD = 20;
+  static final int AND = 21;
+  static final int CMP = 22;
+  static final int CMPG = 23;
+  static final int CMPL = 24;
+  static final int DIV = 25;
+  static final int EQ = 26;
+  static final int NE = 27;
+  static final int GE = 28;
+  static final int GT = 29;
+  static final int LE = 30;
+  static final int LT = 31;
+  static final int MUL = 32;
+  static final int OR = 33;
+  static final int REM = 34;
+  static final int SHL = 35;
+  static final int SHR = 36;
+  static final int USHR = 37;
+  static final int SUB = 38;
+  static final int XOR = 39;
+
+  // other expressions
+  static final int NEG = 40;
+  static final int LENGTH = 41;
+  static final int CAST = 42;
+  static final int INSTANCE_OF = 43;
+  static final int NEW = 44;
+  static final int NEW_ARRAY = 45;
+  static final int NEW_MULTI_ARRAY = 46;
+  static final int SPECIAL_INVOKE = 47;
+  static final int VIRTUAL_INVOKE = 48;
+  static final int INTERFACE_INVOKE = 49;
+  static final int STATIC_INVOKE = 50;
+  static final int DYNAMIC_INVOKE = 51;
+
+  // references
+  static final int STATIC_FIELD_REF = 60;
+  static final int INSTANCE_FIELD_REF = 61;
+  static final int ARRAY_REF = 62;
+  static final int PARAMETER_REF = 63;
+  static final int CAUGHT_EXCEPTION_REF = 64;
+  static final int THIS_REF = 65;
+
+  // statements
+  static final int ASSIGN_STMT = 0;
+  static final int IDENTITY_STMT = 1;
+  static final int INVOKE_STMT = 2;
+  static final int IF_STMT = 3;
+  static final int GOTO_STMT = 4;
+  static final int TABLE_SWITCH_STMT = 5;
+  static final int LOOKUP_SWITCH_STMT = 6;
+  static final int RETURN_STMT = 7;
+  static final int RETURN_VOID_STMT = 8;
+  static final int THROW_STMT = 9;
+  static final int ENTER_MONITOR_STMT = 10;
+  static final int EXIT_MONITOR_STMT = 11;
+  static final int NOP_STMT = 12;
+  static final int BREAKPOINT_STMT = 13;
+  static final int RET_STMT = 14;
+
+  // positions
+  static final int NO_POSITION = 0;
+  static final int LINE_POSITION = 1;
+  static final int FULL_POSITION = 2;
+
+  private JimpleBinaryFormat() {}
+}
@@ -0,0 +1,540 @@
+package sootup.java.core.jimple.binary;
+
+import static sootup.java.core.jimple.binary.JimpleBinaryFormat.*;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import sootup.core.IdentifierFactory;
+import sootup.core.graph.MutableBlockStmtGraph;
+import sootup.core.jimple.Jimple;
+import sootup.core.jimple.basic.Immediate;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.NoPositionInformation;
+import sootup.core.jimple.basic.SimpleStmtPositionInfo;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.basic.Trap;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.constant.BooleanConstant;
+import sootup.core.jimple.common.constant.ClassConstant;
+import sootup.core.jimple.common.constant.DoubleConstant;
+import sootup.core.jimple.common.constant.EnumConstant;
+import sootup.core.jimple.common.constant.FloatConstant;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.constant.LongConstant;
+import sootup.core.jimple.common.constant.MethodHandle;
+import sootup.core.jimple.common.constant.MethodType;
+import sootup.core.jimple.common.constant.NullConstant;
+import sootup.core.jimple.common.constant.StringConstant;
+import sootup.core.jimple.common.expr.AbstractConditionExpr;
+import sootup.core.jimple.common.expr.AbstractInvokeExpr;
+import sootup.core.jimple.common.expr.JDynamicInvokeExpr;
+import sootup.core.jimple.common.expr.JNewArrayExpr;
+import sootup.core.jimple.common.ref.IdentityRef;
+import sootup.core.jimple.common.ref.JArrayRef;
+import sootup.core.jimple.common.ref.JCaughtExceptionRef;
+import sootup.core.jimple.common.ref.JFieldRef;
+import sootup.core.jimple.common.stmt.BranchingStmt;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.model.Body;
+import sootup.core.model.FullPosition;
+import sootup.core.model.LinePosition;
+import sootup.core.model.Position;
+import sootup.core.signatures.FieldSignature;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.types.ArrayType;
+import sootup.core.types.ClassType;
+import sootup.core.types.NullType;
+import sootup.core.types.Type;
+import sootup.core.types.UnknownType;
+import sootup.core.types.VoidType;
+import sootup.java.core.language.JavaJimple;
+
+/**
+ * Reads Jimple in the binary format written by {@link JimpleBinaryWriter}. Types and signatures are
+ * created by the given {@link IdentifierFactory}. A reader is not thread-safe.
+ */
+public class JimpleBinaryReader {
+
+  @Nonnull private final DataInput in;
+  @Nonnull private final IdentifierFactory identifierFactory;
+
+  /** the strings read so far in the order of their index */
+  @Nonnull private final List<String> strings = new ArrayList<>();
+
+  /** the locals of the body that is currently read in the order of their index */
+  @Nonnull private final List<Local> locals = new ArrayList<>();
+
+  public JimpleBinaryReader(@Nonnull DataInput in, @Nonnull IdentifierFactory identifierFactory) {
+    this.in = in;
+    this.identifierFactory = identifierFactory;
+  }
+
+  /**
+   * Reads a body that has been written by {@link JimpleBinaryWriter#writeBody(Body)}.
+   *
+   * @throws IOException if reading fails or the input is not a valid body
+   */
+  @Nonnull
+  public Body readBody() throws IOException {
+    MethodSignature methodSignature = readMethodSignature();
+    Position position = readPosition();
+
+    locals.clear();
+    int localCount = readVarInt();
+    for (int i = 0; i < localCount; i++) {
+      String name = readString();
+      locals.add(JavaJimple.newLocal(name, readType()));
+    }
+
+    int stmtCount = readVarInt();
+    List<Stmt> stmts = new ArrayList<>(stmtCount);
+    for (int i = 0; i < stmtCount; i++) {
+      stmts.add(readStmt());
+    }
+
+    Map<BranchingStmt, List<Stmt>> branchingMap = new HashMap<>();
+    for (Stmt stmt : stmts) {
+      if (stmt instanceof BranchingStmt) {
+        int targetCount = readVarInt();
+        List<Stmt> targets = new ArrayList<>(targetCount);
+        for (int i = 0; i < targetCount; i++) {
+          targets.add(readStmtIndex(stmts));
+        }
+        branchingMap.put((BranchingStmt) stmt, targets);
+      }
+    }
+
+    int trapCount = readVarInt();
+    List<Trap> traps = new ArrayList<>(trapCount);
+    for (int i = 0; i < trapCount; i++) {
+      ClassType exceptionType = readClassType();
+      Stmt beginStmt = readStmtIndex(stmts);
+      Stmt endStmt = readStmtIndex(stmts);
+      Stmt handlerStmt = readStmtIndex(stmts);
+      traps.add(Jimple.newTrap(exceptionType, beginStmt, endStmt, handlerStmt));
+    }
+
+    MutableBlockStmtGraph graph = new MutableBlockStmtGraph();
+    try {
+      graph.initializeWith(stmts, branchingMap, traps);
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      throw new IOException("The body of " + methodSignature + " is invalid.", e);
+    }
+    Body body =
+        Body.builder(graph)
+            .setMethodSignature(methodSignature)
+            .setLocals(new LinkedHashSet<>(locals))
+            .setPosition(position)
+            .build();
+    locals.clear();
+    return body;
+  }
+
+  @Nonnull
+  private Stmt readStmtIndex(@Nonnull List<Stmt> stmts) throws IOException {
+    int index = readVarInt();
+    if (index >= stmts.size()) {
+      throw new IOException("There is no Stmt with the index " + index + ".");
+    }
+    return stmts.get(index);
+  }
+
+  @Nonnull
+  private Stmt readStmt() throws IOException {
+    int tag = in.readUnsignedByte();
+    switch (tag) {
+      case ASSIGN_STMT:
+        {
+          Value leftOp = readValue();
+          Value rightOp = readValue();
+          return Jimple.newAssignStmt(leftOp, rightOp, readStmtPositionInfo());
+        }
+      case IDENTITY_STMT:
+        {
+          Local local = readLocal();
+          IdentityRef identityRef = readValue(IdentityRef.class);
+          return Jimple.newIdentityStmt(local, identityRef, readStmtPositionInfo());
+        }
+      case INVOKE_STMT:
+        return Jimple.newInvokeStmt(readValue(AbstractInvokeExpr.class), readStmtPositionInfo());
+      case IF_STMT:
+        return Jimple.newIfStmt(readValue(AbstractConditionExpr.class), readStmtPositionInfo());
+      case GOTO_STMT:
+        return Jimple.newGotoStmt(readStmtPositionInfo());
+      case TABLE_SWITCH_STMT:
+        {
+          Immediate key = readImmediate();
+          int lowIndex = in.readInt();
+          int highIndex = in.readInt();
+          return Jimple.newTableSwitchStmt(key, lowIndex, highIndex, readStmtPositionInfo());
+        }
+      case LOOKUP_SWITCH_STMT:
+        {
+          Immediate key = readImmediate();
+          int valueCount = readVarInt();
+          List<IntConstant> values = new ArrayList<>(valueCount);
+          for (int i = 0; i < valueCount; i++) {
+            values.add(IntConstant.getInstance(in.readInt()));
+          }
+          return Jimple.newLookupSwitchStmt(key, values, readStmtPositionInfo());
+        }
+      case RETURN_STMT:
+        return Jimple.newReturnStmt(readImmediate(), readStmtPositionInfo());
+      case RETURN_VOID_STMT:
+        return Jimple.newReturnVoidStmt(readStmtPositionInfo());
+      case THROW_STMT:
+        return Jimple.newThrowStmt(readImmediate(), readStmtPositionInfo());
+      case ENTER_MONITOR_STMT:
+        return Jimple.newEnterMonitorStmt(readImmediate(), readStmtPositionInfo());
+      case EXIT_MONITOR_STMT:
+        return Jimple.newExitMonitorStmt(readImmediate(), readStmtPositionInfo());
+      case NOP_STMT:
+        return Jimple.newNopStmt(readStmtPositionInfo());
+      case BREAKPOINT_STMT:
+        return Jimple.newBreakpointStmt(readStmtPositionInfo());
+      case RET_STMT:
+        return Jimple.newRetStmt(readImmediate(), readStmtPositionInfo());
+      default:
+        throw new IOException("Unknown Stmt tag " + tag + ".");
+    }
+  }
+
+  /** Reads a local of the current body, a constant, an expression or a reference. */
+  @Nonnull
+  public Value readValue() throws IOException {
+    int tag = in.readUnsignedByte();
+    switch (tag) {
+      case LOCAL:
+        {
+          int index = readVarInt();
+          if (index >= locals.size()) {
+            throw new IOException("There is no Local with the index " + index + ".");
+          }
+          return locals.get(index);
+        }
+      case INT_CONSTANT:
+        return IntConstant.getInstance(in.readInt());
+      case LONG_CONSTANT:
+        return LongConstant.getInstance(in.readLong());
+      case FLOAT_CONSTANT:
+        return FloatConstant.getInstance(in.readFloat());
+      case DOUBLE_CONSTANT:
+        return DoubleConstant.getInstance(in.readDouble());
+      case NULL_CONSTANT:
+        return NullConstant.getInstance();
+      case BOOLEAN_CONSTANT:
+        return BooleanConstant.getInstance(in.readBoolean());
+      case STRING_CONSTANT:
+        {
+          String value = readString();
+          return new StringConstant(value, readType());
+        }
+      case CLASS_CONSTANT:
+        {
+          String value = readString();
+          return new ClassConstant(value, readType());
+        }
+      case ENUM_CONSTANT:
+        {
+          String value = readString();
+          return new EnumConstant(value, readClassType());
+        }
+      case METHOD_HANDLE:
+        {
+          int handleTag = readVarInt();
+          Type type = readType();
+          if (in.readBoolean()) {
+            return new MethodHandle(readMethodSignature(), handleTag, type);
+          }
+          return new MethodHandle(readValue(JFieldRef.class), handleTag, type);
+        }
+      case METHOD_TYPE:
+        {
+          ClassType type = readClassType();
+          Type returnType = readType();
+          List<Type> parameterTypes = readTypes();
+          return new MethodType(
+              identifierFactory.getMethodSubSignature("__METHODTYPE__", returnType, parameterTypes),
+              type);
+        }
+      case ADD:
+        return Jimple.newAddExpr(readImmediate(), readImmediate());
+      case AND:
+        return Jimple.newAndExpr(readImmediate(), readImmediate());
+      case CMP:
+        return Jimple.newCmpExpr(readImmediate(), readImmediate());
+      case CMPG:
+        return Jimple.newCmpgExpr(readImmediate(), readImmediate());
+      case CMPL:
+        return Jimple.newCmplExpr(readImmediate(), readImmediate());
+      case DIV:
+        return Jimple.newDivExpr(readImmediate(), readImmediate());
+      case EQ:
+        return Jimple.newEqExpr(readImmediate(), readImmediate());
+      case NE:
+        return Jimple.newNeExpr(readImmediate(), readImmediate());
+      case GE:
+        return Jimple.newGeExpr(readImmediate(), readImmediate());
+      case GT:
+        return Jimple.newGtExpr(readImmediate(), readImmediate());
+      case LE:
+        return Jimple.newLeExpr(readImmediate(), readImmediate());
+      case LT:
+        return Jimple.newLtExpr(readImmediate(), readImmediate());
+      case MUL:
+        return Jimple.newMulExpr(readImmediate(), readImmediate());
+      case OR:
+        return Jimple.newOrExpr(readImmediate(), readImmediate());
+      case REM:
+        return Jimple.newRemExpr(readImmediate(), readImmediate());
+      case SHL:
+        return Jimple.newShlExpr(readImmediate(), readImmediate());
+      case SHR:
+        return Jimple.newShrExpr(readImmediate(), readImmediate());
+      case USHR:
+        return Jimple.newUshrExpr(readImmediate(), readImmediate());
+      case SUB:
+        return Jimple.newSubExpr(readImmediate(), readImmediate());
+      case XOR:
+        return Jimple.newXorExpr(readImmediate(), readImmediate());
+      case NEG:
+        return Jimple.newNegExpr(readImmediate());
+      case LENGTH:
+        return Jimple.newLengthExpr(readImmediate());
+      case CAST:
+        {
+          Immediate op = readImmediate();
+          return Jimple.newCastExpr(op, readType());
+        }
+      case INSTANCE_OF:
+        {
+          Immediate op = readImmediate();
+          return Jimple.newInstanceOfExpr(op, readType());
+        }
+      case NEW:
+        return Jimple.newNewExpr(readClassType());
+      case NEW_ARRAY:
+        {
+          Type baseType = readType();
+          return new JNewArrayExpr(baseType, readImmediate(), identifierFactory);
+        }
+      case NEW_MULTI_ARRAY:
+        {
+          Type type = readType();
+          if (!(type instanceof ArrayType)) {
+            throw new IOException("Expected an ArrayType but found " + type + ".");
+          }
+          return Jimple.newNewMultiArrayExpr((ArrayType) type, readImmediates());
+        }
+      case DYNAMIC_INVOKE:
+        {
+          MethodSignature bootstrapMethodSignature = readMethodSignature();
+          List<Immediate> bootstrapArgs = readImmediates();
+          MethodSignature methodSignature = readMethodSignature();
+          int handleTag = readVarInt();
+          return new JDynamicInvokeExpr(
+              bootstrapMethodSignature,
+              bootstrapArgs,
+              methodSignature,
+              handleTag,
+              readImmediates());
+        }
+      case SPECIAL_INVOKE:
+        {
+          Local base = readLocal();
+          MethodSignature methodSignature = readMethodSignature();
+          return Jimple.newSpecialInvokeExpr(base, methodSignature, readImmediates());
+        }
+      case VIRTUAL_INVOKE:
+        {
+          Local base = readLocal();
+          MethodSignature methodSignature = readMethodSignature();
+          return Jimple.newVirtualInvokeExpr(base, methodSignature, readImmediates());
+        }
+      case INTERFACE_INVOKE:
+        {
+          Local base = readLocal();
+          MethodSignature methodSignature = readMethodSignature();
+          return Jimple.newInterfaceInvokeExpr(base, methodSignature, readImmediates());
+        }
+      case STATIC_INVOKE:
+        {
+          MethodSignature methodSignature = readMethodSignature();
+          return Jimple.newStaticInvokeExpr(methodSignature, readImmediates());
+        }
+      case STATIC_FIELD_REF:
+        return Jimple.newStaticFieldRef(readFieldSignature());
+      case INSTANCE_FIELD_REF:
+        {
+          Local base = readLocal();
+          return Jimple.newInstanceFieldRef(base, readFieldSignature());
+        }
+      case ARRAY_REF:
+        {
+          Local base = readLocal();
+          return new JArrayRef(base, readImmediate());
+        }
+      case PARAMETER_REF:
+        {
+          Type type = readType();
+          return Jimple.newParameterRef(type, readVarInt());
+        }
+      case CAUGHT_EXCEPTION_REF:
+        return new JCaughtExceptionRef(readType());
+      case THIS_REF:
+        return Jimple.newThisRef(readClassType());
+      default:
+        throw new IOException("Unknown Value tag " + tag + ".");
+    }
+  }
+
+  @Nonnull
+  private <T extends Value> T readValue(@Nonnull Class<T> expectedClass) throws IOException {
+    Value value = readValue();
+    if (!expectedClass.isInstance(value)) {
+      throw new IOException(
+          "Expected a " + expectedClass.getSimpleName() + " but found " + value + ".");
+    }
+    return expectedClass.cast(value);
+  }
+
+  @Nonnull
+  private Immediate readImmediate() throws IOException {
+    return readValue(Immediate.class);
+  }
+
+  @Nonnull
+  private Local readLocal() throws IOException {
+    return readValue(Local.class);
+  }
+
+  @Nonnull
+  private List<Immediate> readImmediates() throws IOException {
+    int count = readVarInt();
+    List<Immediate> immediates = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      immediates.add(readImmediate());
+    }
+    return immediates;
+  }
+
+  @Nonnull
+  public Type readType() throws IOException {
+    int tag = in.readUnsignedByte();
+    switch (tag) {
+      case TYPE_PRIMITIVE:
+        {
+          String name = readString();
+          return identifierFactory
+              .getPrimitiveType(name)
+              .orElseThrow(() -> new IOException("Unknown primitive type " + name + "."));
+        }
+      case TYPE_CLASS:
+        return identifierFactory.getClassType(readString());
+      case TYPE_ARRAY:
+        {
+          Type baseType = readType();
+          return identifierFactory.getArrayType(baseType, readVarInt());
+        }
+      case TYPE_NULL:
+        return NullType.getInstance();
+      case TYPE_VOID:
+        return VoidType.getInstance();
+      case TYPE_UNKNOWN:
+        return UnknownType.getInstance();
+      default:
+        throw new IOException("Unknown Type tag " + tag + ".");
+    }
+  }
+
+  @Nonnull
+  public ClassType readClassType() throws IOException {
+    Type type = readType();
+    if (!(type instanceof ClassType)) {
+      throw new IOException("Expected a ClassType but found " + type + ".");
+    }
+    return (ClassType) type;
+  }
+
+  @Nonnull
+  public List<Type> readTypes() throws IOException {
+    int count = readVarInt();
+    List<Type> types = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      types.add(readType());
+    }
+    return types;
+  }
+
+  @Nonnull
+  public MethodSignature readMethodSignature() throws IOException {
+    ClassType declClassType = readClassType();
+    String name = readString();
+    Type returnType = readType();
+    return identifierFactory.getMethodSignature(declClassType, name, returnType, readTypes());
+  }
+
+  @Nonnull
+  public FieldSignature readFieldSignature() throws IOException {
+    ClassType declClassType = readClassType();
+    String name = readString();
+    return identifierFactory.getFieldSignature(name, declClassType, readType());
+  }
+
+  @Nonnull
+  private StmtPositionInfo readStmtPositionInfo() throws IOException {
+    Position position = readPosition();
+    if (position instanceof NoPositionInformation) {
+      return StmtPositionInfo.createNoStmtPositionInfo();
+    }
+    return new SimpleStmtPositionInfo(position);
+  }
+
+  @Nonnull
+  public Position readPosition() throws IOException {
+    int tag = in.readUnsignedByte();
+    switch (tag) {
+      case NO_POSITION:
+        return NoPositionInformation.getInstance();
+      case LINE_POSITION:
+        return new LinePosition(readVarInt());
+      case FULL_POSITION:
+        return new FullPosition(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+      default:
+        throw new IOException("Unknown Position tag " + tag + ".");
+    }
+  }
+
+  /** Reads a string or the index of a string that has been read before. */
+  @Nonnull
+  public String readString() throws IOException {
+    int index = readVarInt();
+    if (index == 0) {
+      String string = in.readUTF();
+      strings.add(string);
+      return string;
+    }
+    if (index > strings.size()) {
+      throw new IOException("There is no string with the index " + (index - 1) + ".");
+    }
+    return strings.get(index - 1);
+  }
+
+  public int readVarInt() throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed varint.");
+  }
+}
@@ -0,0 +1,460 @@
+package sootup.java.core.jimple.binary;
+
+import static sootup.java.core.jimple.binary.JimpleBinaryFormat.*;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import sootup.core.jimple.basic.Immediate;
+import sootup.core.jimple.basic.Local;
+import sootup.core.jimple.basic.NoPositionInformation;
+import sootup.core.jimple.basic.StmtPositionInfo;
+import sootup.core.jimple.basic.Trap;
+import sootup.core.jimple.basic.Value;
+import sootup.core.jimple.common.constant.BooleanConstant;
+import sootup.core.jimple.common.constant.ClassConstant;
+import sootup.core.jimple.common.constant.DoubleConstant;
+import sootup.core.jimple.common.constant.EnumConstant;
+import sootup.core.jimple.common.constant.FloatConstant;
+import sootup.core.jimple.common.constant.IntConstant;
+import sootup.core.jimple.common.constant.LongConstant;
+import sootup.core.jimple.common.constant.MethodHandle;
+import sootup.core.jimple.common.constant.MethodType;
+import sootup.core.jimple.common.constant.NullConstant;
+import sootup.core.jimple.common.constant.StringConstant;
+import sootup.core.jimple.common.expr.*;
+import sootup.core.jimple.common.ref.JArrayRef;
+import sootup.core.jimple.common.ref.JCaughtExceptionRef;
+import sootup.core.jimple.common.ref.JInstanceFieldRef;
+import sootup.core.jimple.common.ref.JParameterRef;
+import sootup.core.jimple.common.ref.JStaticFieldRef;
+import sootup.core.jimple.common.ref.JThisRef;
+import sootup.core.jimple.common.stmt.*;
+import sootup.core.jimple.javabytecode.stmt.JBreakpointStmt;
+import sootup.core.jimple.javabytecode.stmt.JEnterMonitorStmt;
+import sootup.core.jimple.javabytecode.stmt.JExitMonitorStmt;
+import sootup.core.jimple.javabytecode.stmt.JRetStmt;
+import sootup.core.jimple.javabytecode.stmt.JSwitchStmt;
+import sootup.core.model.Body;
+import sootup.core.model.LinePosition;
+import sootup.core.model.Position;
+import sootup.core.signatures.FieldSignature;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.types.ArrayType;
+import sootup.core.types.ClassType;
+import sootup.core.types.NullType;
+import sootup.core.types.PrimitiveType;
+import sootup.core.types.Type;
+import sootup.core.types.UnknownType;
+import sootup.core.types.VoidType;
+
+/**
+ * Writes Jimple in a compact binary format which is read by {@link JimpleBinaryReader}. In contrast
+ * to the textual Jimple format, nothing has to be parsed or resolved while reading: each string is
+ * written once and referenced by its index afterwards, locals and statements are referenced by
+ * their index in the body.
+ *
+ * <p>The statements of a body are written in the order of {@link Body#getStmts()} together with the
+ * branch targets and traps, i.e. the body is rebuilt like a body that is parsed from Jimple.
+ * Position information of operands is not written. A writer is not thread-safe.
+ */
+public class JimpleBinaryWriter {
+
+  @Nonnull private final DataOutput out;
+
+  /** the strings written so far -&gt; their index */
+  @Nonnull private final Map<String, Integer> strings = new HashMap<>();
+
+  /** the locals of the body that is currently written -&gt; their index */
+  @Nonnull private final Map<Local, Integer> locals = new HashMap<>();
+
+  public JimpleBinaryWriter(@Nonnull DataOutput out) {
+    this.out = out;
+  }
+
+  /**
+   * Writes a body with its signature, locals, statements, branches and traps.
+   *
+   * @throws IOException if writing fails or the body contains a value which can not be written,
+   *     e.g. a phi expression
+   */
+  public void writeBody(@Nonnull Body body) throws IOException {
+    writeMethodSignature(body.getMethodSignature());
+    writePosition(body.getPosition());
+
+    locals.clear();
+    writeVarInt(body.getLocals().size());
+    for (Local local : body.getLocals()) {
+      locals.put(local, locals.size());
+      writeString(local.getName());
+      writeType(local.getType());
+    }
+
+    List<Stmt> stmts = body.getStmts();
+    Map<Stmt, Integer> stmtIndices = new HashMap<>();
+    writeVarInt(stmts.size());
+    for (Stmt stmt : stmts) {
+      stmtIndices.put(stmt, stmtIndices.size());
+      writeStmt(stmt);
+    }
+
+    for (Stmt stmt : stmts) {
+      if (stmt instanceof BranchingStmt) {
+        List<Stmt> targets = body.getBranchTargetsOf((BranchingStmt) stmt);
+        writeVarInt(targets.size());
+        for (Stmt target : targets) {
+          writeVarInt(stmtIndices.get(target));
+        }
+      }
+    }
+
+    List<Trap> traps = body.getTraps();
+    writeVarInt(traps.size());
+    for (Trap trap : traps) {
+      writeType(trap.getExceptionType());
+      writeVarInt(stmtIndices.get(trap.getBeginStmt()));
+      writeVarInt(stmtIndices.get(trap.getEndStmt()));
+      writeVarInt(stmtIndices.get(trap.getHandlerStmt()));
+    }
+    locals.clear();
+  }
+
+  private void writeStmt(@Nonnull Stmt stmt) throws IOException {
+    if (stmt instanceof JAssignStmt) {
+      out.writeByte(ASSIGN_STMT);
+      writeValue(((JAssignStmt<?, ?>) stmt).getLeftOp());
+      writeValue(((JAssignStmt<?, ?>) stmt).getRightOp());
+    } else if (stmt instanceof JIdentityStmt) {
+      out.writeByte(IDENTITY_STMT);
+      writeValue(((JIdentityStmt<?>) stmt).getLeftOp());
+      writeValue(((JIdentityStmt<?>) stmt).getRightOp());
+    } else if (stmt instanceof JInvokeStmt) {
+      out.writeByte(INVOKE_STMT);
+      writeValue(((JInvokeStmt) stmt).getInvokeExpr());
+    } else if (stmt instanceof JIfStmt) {
+      out.writeByte(IF_STMT);
+      writeValue(((JIfStmt) stmt).getCondition());
+    } else if (stmt instanceof JGotoStmt) {
+      out.writeByte(GOTO_STMT);
+    } else if (stmt instanceof JSwitchStmt) {
+      JSwitchStmt switchStmt = (JSwitchStmt) stmt;
+      if (switchStmt.isTableSwitch()) {
+        out.writeByte(TABLE_SWITCH_STMT);
+        writeValue(switchStmt.getKey());
+        List<IntConstant> values = switchStmt.getValues();
+        out.writeInt(values.get(0).getValue());
+        out.writeInt(values.get(values.size() - 1).getValue());
+      } else {
+        out.writeByte(LOOKUP_SWITCH_STMT);
+        writeValue(switchStmt.getKey());
+        // getValueCount() counts the default target as well
+        List<IntConstant> values = switchStmt.getValues();
+        writeVarInt(values.size());
+        for (IntConstant value : values) {
+          out.writeInt(value.getValue());
+        }
+      }
+    } else if (stmt instanceof JReturnStmt) {
+      out.writeByte(RETURN_STMT);
+      writeValue(((JReturnStmt) stmt).getOp());
+    } else if (stmt instanceof JReturnVoidStmt) {
+      out.writeByte(RETURN_VOID_STMT);
+    } else if (stmt instanceof JThrowStmt) {
+      out.writeByte(THROW_STMT);
+      writeValue(((JThrowStmt) stmt).getOp());
+    } else if (stmt instanceof JEnterMonitorStmt) {
+      out.writeByte(ENTER_MONITOR_STMT);
+      writeValue(((JEnterMonitorStmt) stmt).getOp());
+    } else if (stmt instanceof JExitMonitorStmt) {
+      out.writeByte(EXIT_MONITOR_STMT);
+      writeValue(((JExitMonitorStmt) stmt).getOp());
+    } else if (stmt instanceof JNopStmt) {
+      out.writeByte(NOP_STMT);
+    } else if (stmt instanceof JBreakpointStmt) {
+      out.writeByte(BREAKPOINT_STMT);
+    } else if (stmt instanceof JRetStmt) {
+      out.writeByte(RET_STMT);
+      writeValue(((JRetStmt) stmt).getStmtAddress());
+    } else {
+      throw new IOException("Can not write " + stmt.getClass().getSimpleName() + ": " + stmt);
+    }
+    writeStmtPositionInfo(stmt.getPositionInfo());
+  }
+
+  /** Writes a local of the current body, a constant, an expression or a reference. */
+  public void writeValue(@Nonnull Value value) throws IOException {
+    if (value instanceof Local) {
+      Integer index = locals.get(value);
+      if (index == null) {
+        throw new IOException("The local " + value + " is not declared in the body.");
+      }
+      out.writeByte(LOCAL);
+      writeVarInt(index);
+    } else if (value instanceof IntConstant) {
+      out.writeByte(INT_CONSTANT);
+      out.writeInt(((IntConstant) value).getValue());
+    } else if (value instanceof LongConstant) {
+      out.writeByte(LONG_CONSTANT);
+      out.writeLong(((LongConstant) value).getValue());
+    } else if (value instanceof FloatConstant) {
+      out.writeByte(FLOAT_CONSTANT);
+      out.writeFloat(((FloatConstant) value).getValue());
+    } else if (value instanceof DoubleConstant) {
+      out.writeByte(DOUBLE_CONSTANT);
+      out.writeDouble(((DoubleConstant) value).getValue());
+    } else if (value instanceof NullConstant) {
+      out.writeByte(NULL_CONSTANT);
+    } else if (value instanceof BooleanConstant) {
+      out.writeByte(BOOLEAN_CONSTANT);
+      out.writeBoolean(value == BooleanConstant.getTrue());
+    } else if (value instanceof StringConstant) {
+      out.writeByte(STRING_CONSTANT);
+      writeString(((StringConstant) value).getValue());
+      writeType(value.getType());
+    } else if (value instanceof ClassConstant) {
+      out.writeByte(CLASS_CONSTANT);
+      writeString(((ClassConstant) value).getValue());
+      writeType(value.getType());
+    } else if (value instanceof EnumConstant) {
+      out.writeByte(ENUM_CONSTANT);
+      writeString(((EnumConstant) value).getValue());
+      writeType(value.getType());
+    } else if (value instanceof MethodHandle) {
+      MethodHandle handle = (MethodHandle) value;
+      out.writeByte(METHOD_HANDLE);
+      writeVarInt(handle.tag);
+      writeType(handle.getType());
+      if (handle.getMethodSignature() != null) {
+        out.writeBoolean(true);
+        writeMethodSignature(handle.getMethodSignature());
+      } else {
+        out.writeBoolean(false);
+        writeValue(handle.getFieldRef());
+      }
+    } else if (value instanceof MethodType) {
+      MethodType methodType = (MethodType) value;
+      out.writeByte(METHOD_TYPE);
+      writeType(methodType.getType());
+      writeType(methodType.getReturnType());
+      writeTypes(methodType.getParameterTypes());
+    } else if (value instanceof AbstractBinopExpr) {
+      out.writeByte(getBinopTag((AbstractBinopExpr) value));
+      writeValue(((AbstractBinopExpr) value).getOp1());
+      writeValue(((AbstractBinopExpr) value).getOp2());
+    } else if (value instanceof JNegExpr) {
+      out.writeByte(NEG);
+      writeValue(((JNegExpr) value).getOp());
+    } else if (value instanceof JLengthExpr) {
+      out.writeByte(LENGTH);
+      writeValue(((JLengthExpr) value).getOp());
+    } else if (value instanceof JCastExpr) {
+      out.writeByte(CAST);
+      writeValue(((JCastExpr) value).getOp());
+      writeType(value.getType());
+    } else if (value instanceof JInstanceOfExpr) {
+      out.writeByte(INSTANCE_OF);
+      writeValue(((JInstanceOfExpr) value).getOp());
+      writeType(((JInstanceOfExpr) value).getCheckType());
+    } else if (value instanceof JNewExpr) {
+      out.writeByte(NEW);
+      writeType(((JNewExpr) value).getType());
+    } else if (value instanceof JNewArrayExpr) {
+      out.writeByte(NEW_ARRAY);
+      writeType(((JNewArrayExpr) value).getBaseType());
+      writeValue(((JNewArrayExpr) value).getSize());
+    } else if (value instanceof JNewMultiArrayExpr) {
+      out.writeByte(NEW_MULTI_ARRAY);
+      writeType(((JNewMultiArrayExpr) value).getBaseType());
+      writeImmediates(((JNewMultiArrayExpr) value).getSizes());
+    } else if (value instanceof JDynamicInvokeExpr) {
+      JDynamicInvokeExpr expr = (JDynamicInvokeExpr) value;
+      out.writeByte(DYNAMIC_INVOKE);
+      writeMethodSignature(expr.getBootstrapMethodSignature());
+      writeImmediates(expr.getBootstrapArgs());
+      writeMethodSignature(expr.getMethodSignature());
+      writeVarInt(expr.getHandleTag());
+      writeImmediates(expr.getArgs());
+    } else if (value instanceof AbstractInvokeExpr) {
+      AbstractInvokeExpr expr = (AbstractInvokeExpr) value;
+      if (expr instanceof JSpecialInvokeExpr) {
+        out.writeByte(SPECIAL_INVOKE);
+      } else if (expr instanceof JVirtualInvokeExpr) {
+        out.writeByte(VIRTUAL_INVOKE);
+      } else if (expr instanceof JInterfaceInvokeExpr) {
+        out.writeByte(INTERFACE_INVOKE);
+      } else if (expr instanceof JStaticInvokeExpr) {
+        out.writeByte(STATIC_INVOKE);
+      } else {
+        throw new IOException("Can not write " + expr.getClass().getSimpleName() + ": " + expr);
+      }
+      if (expr instanceof AbstractInstanceInvokeExpr) {
+        writeValue(((AbstractInstanceInvokeExpr) expr).getBase());
+      }
+      writeMethodSignature(expr.getMethodSignature());
+      writeImmediates(expr.getArgs());
+    } else if (value instanceof JStaticFieldRef) {
+      out.writeByte(STATIC_FIELD_REF);
+      writeFieldSignature(((JStaticFieldRef) value).getFieldSignature());
+    } else if (value instanceof JInstanceFieldRef) {
+      out.writeByte(INSTANCE_FIELD_REF);
+      writeValue(((JInstanceFieldRef) value).getBase());
+      writeFieldSignature(((JInstanceFieldRef) value).getFieldSignature());
+    } else if (value instanceof JArrayRef) {
+      out.writeByte(ARRAY_REF);
+      writeValue(((JArrayRef) value).getBase());
+      writeValue(((JArrayRef) value).getIndex());
+    } else if (value instanceof JParameterRef) {
+      out.writeByte(PARAMETER_REF);
+      writeType(value.getType());
+      writeVarInt(((JParameterRef) value).getIndex());
+    } else if (value instanceof JCaughtExceptionRef) {
+      out.writeByte(CAUGHT_EXCEPTION_REF);
+      writeType(value.getType());
+    } else if (value instanceof JThisRef) {
+      out.writeByte(THIS_REF);
+      writeType(value.getType());
+    } else {
+      throw new IOException("Can not write " + value.getClass().getSimpleName() + ": " + value);
+    }
+  }
+
+  private static int getBinopTag(@Nonnull AbstractBinopExpr expr) throws IOException {
+    if (expr instanceof JAddExpr) {
+      return ADD;
+    } else if (expr instanceof JAndExpr) {
+      return AND;
+    } else if (expr instanceof JCmpExpr) {
+      return CMP;
+    } else if (expr instanceof JCmpgExpr) {
+      return CMPG;
+    } else if (expr instanceof JCmplExpr) {
+      return CMPL;
+    } else if (expr instanceof JDivExpr) {
+      return DIV;
+    } else if (expr instanceof JEqExpr) {
+      return EQ;
+    } else if (expr instanceof JNeExpr) {
+      return NE;
+    } else if (expr instanceof JGeExpr) {
+      return GE;
+    } else if (expr instanceof JGtExpr) {
+      return GT;
+    } else if (expr instanceof JLeExpr) {
+      return LE;
+    } else if (expr instanceof JLtExpr) {
+      return LT;
+    } else if (expr instanceof JMulExpr) {
+      return MUL;
+    } else if (expr instanceof JOrExpr) {
+      return OR;
+    } else if (expr instanceof JRemExpr) {
+      return REM;
+    } else if (expr instanceof JShlExpr) {
+      return SHL;
+    } else if (expr instanceof JShrExpr) {
+      return SHR;
+    } else if (expr instanceof JUshrExpr) {
+      return USHR;
+    } else if (expr instanceof JSubExpr) {
+      return SUB;
+    } else if (expr instanceof JXorExpr) {
+      return XOR;
+    }
+    throw new IOException("Can not write " + expr.getClass().getSimpleName() + ": " + expr);
+  }
+
+  private void writeImmediates(@Nonnull List<Immediate> immediates) throws IOException {
+    writeVarInt(immediates.size());
+    for (Immediate immediate : immediates) {
+      writeValue(immediate);
+    }
+  }
+
+  public void writeType(@Nonnull Type type) throws IOException {
+    if (type instanceof PrimitiveType) {
+      out.writeByte(TYPE_PRIMITIVE);
+      writeString(((PrimitiveType) type).getName());
+    } else if (type instanceof ClassType) {
+      out.writeByte(TYPE_CLASS);
+      writeString(((ClassType) type).getFullyQualifiedName());
+    } else if (type instanceof ArrayType) {
+      out.writeByte(TYPE_ARRAY);
+      writeType(((ArrayType) type).getBaseType());
+      writeVarInt(((ArrayType) type).getDimension());
+    } else if (type instanceof NullType) {
+      out.writeByte(TYPE_NULL);
+    } else if (type instanceof VoidType) {
+      out.writeByte(TYPE_VOID);
+    } else if (type instanceof UnknownType) {
+      out.writeByte(TYPE_UNKNOWN);
+    } else {
+      throw new IOException("Can not write the type " + type);
+    }
+  }
+
+  public void writeTypes(@Nonnull List<? extends Type> types) throws IOException {
+    writeVarInt(types.size());
+    for (Type type : types) {
+      writeType(type);
+    }
+  }
+
+  public void writeMethodSignature(@Nonnull MethodSignature signature) throws IOException {
+    writeType(signature.getDeclClassType());
+    writeString(signature.getName());
+    writeType(signature.getType());
+    writeTypes(signature.getParameterTypes());
+  }
+
+  public void writeFieldSignature(@Nonnull FieldSignature signature) throws IOException {
+    writeType(signature.getDeclClassType());
+    writeString(signature.getName());
+    writeType(signature.getType());
+  }
+
+  private void writeStmtPositionInfo(@Nonnull StmtPositionInfo positionInfo) throws IOException {
+    writePosition(positionInfo.getStmtPosition());
+  }
+
+  public void writePosition(@Nonnull Position position) throws IOException {
+    if (position instanceof NoPositionInformation) {
+      out.writeByte(NO_POSITION);
+    } else if (position instanceof LinePosition) {
+      out.writeByte(LINE_POSITION);
+      writeVarInt(position.getFirstLine());
+    } else {
+      out.writeByte(FULL_POSITION);
+      out.writeInt(position.getFirstLine());
+      out.writeInt(position.getFirstCol());
+      out.writeInt(position.getLastLine());
+      out.writeInt(position.getLastCol());
+    }
+  }
+
+  /** Writes a string, or only its index if it has been written before. */
+  public void writeString(@Nonnull String string) throws IOException {
+    Integer index = strings.get(string);
+    if (index != null) {
+      writeVarInt(index + 1);
+    } else {
+      strings.put(string, strings.size());
+      writeVarInt(0);
+      out.writeUTF(string);
+    }
+  }
+
+  /** Writes a non-negative int in as few bytes as possible: 7 bits per byte. */
+  public void writeVarInt(int value) throws IOException {
+    if (value < 0) {
+      throw new IOException("Can not write the negative number " + value + " as varint.");
+    }
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+}
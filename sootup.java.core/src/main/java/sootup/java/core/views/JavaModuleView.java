@@ -23,6 +23,7 @@ package sootup.java.core.views;
  */
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -52,7 +53,7 @@ import sootup.java.core.types.JavaClassType;
  */
 public class JavaModuleView extends JavaView {
 
-  @Nonnull final HashMap<ModuleSignature, JavaModuleInfo> moduleInfoMap = new HashMap<>();
+  @Nonnull final Map<ModuleSignature, JavaModuleInfo> moduleInfoMap = new ConcurrentHashMap<>();
 
   @Nonnull
   protected Function<AnalysisInputLocation<? extends JavaSootClass>, ClassLoadingOptions>
@@ -164,8 +165,13 @@ public class JavaModuleView extends JavaView {
     return super.getAbstractClass(type);
   }
 
+  /**
+   * Resolves the class of the given type as it is visible from the given package. Like {@link
+   * #getClass(ClassType)}, lookups may run concurrently and concurrent lookups of the same class
+   * build it only once.
+   */
   @Nonnull
-  public synchronized Optional<JavaSootClass> getClass(
+  public Optional<JavaSootClass> getClass(
       @Nonnull ModulePackageName entryPackage, @Nonnull JavaClassType type) {
 
     Optional<JavaModuleInfo> startOpt = getModuleInfo(entryPackage.getModuleSignature());
@@ -178,6 +184,7 @@ public class JavaModuleView extends JavaView {
       // unnamed module
 
       // find type in all exported packages of modules on module path first
+      long lookupStart = System.nanoTime();
       final List<AbstractClassSource<JavaSootClass>> foundClassSources =
           getAbstractClassSourcesForModules(entryPackage.getModuleSignature(), type)
               .filter(Optional::isPresent)
@@ -186,7 +193,7 @@ public class JavaModuleView extends JavaView {
               .collect(Collectors.toList());
 
       if (!foundClassSources.isEmpty()) {
-
+        cache.getStatistics().recordLookup(System.nanoTime() - lookupStart);
         return buildClassFrom(foundClassSources.get(0));
       } else {
         PackageName packageName = type.getPackageName();
@@ -194,8 +201,9 @@ public class JavaModuleView extends JavaView {
             && ((ModulePackageName) packageName).getModuleSignature().isUnnamedModule()) {
           // if not already found on module path AND the target class is in unnamed module: search
           // in unnamed module itself
-          return getClass(type);
+          return getClass(type, lookupStart);
         }
+        cache.getStatistics().recordLookup(System.nanoTime() - lookupStart);
       }
 
     } else {
@@ -205,6 +213,7 @@ public class JavaModuleView extends JavaView {
         // automatic module can read every exported package of an explicit module
 
         // find the class in exported packages of modules
+        long lookupStart = System.nanoTime();
         final List<AbstractClassSource<JavaSootClass>> foundClassSources =
             getAbstractClassSourcesForModules(entryPackage.getModuleSignature(), type)
                 .filter(Optional::isPresent)
@@ -213,11 +222,12 @@ public class JavaModuleView extends JavaView {
                 .collect(Collectors.toList());
 
         if (!foundClassSources.isEmpty()) {
+          cache.getStatistics().recordLookup(System.nanoTime() - lookupStart);
           return buildClassFrom(foundClassSources.get(0));
         } else {
           // automatic module can access the unnamed module -> try to find in classpath (as if
           // modules do not exist)
-          return super.getClass(type);
+          return getClass(type, lookupStart);
         }
       } else {
         // explicit module
@@ -226,6 +236,7 @@ public class JavaModuleView extends JavaView {
                 && ((ModulePackageName) type.getPackageName()).getModuleSignature()
                     == entryPackage.getModuleSignature();
 
+        long lookupStart = System.nanoTime();
         final Optional<? extends AbstractClassSource<JavaSootClass>> foundClassSources =
             getAbstractClassSourcesForModules(entryPackage.getModuleSignature(), type)
                 .filter(Optional::isPresent)
@@ -254,11 +265,16 @@ public class JavaModuleView extends JavaView {
                           || isProvidedInterfaceImplementation((JavaClassType) sc.getClassType());
                     })
                 .findAny();
+        cache.getStatistics().recordLookup(System.nanoTime() - lookupStart);
 
+        if (!foundClassSources.isPresent()) {
+          cache.getStatistics().recordMiss();
+        }
         return foundClassSources.flatMap(this::buildClassFrom);
       }
     }
 
+    cache.getStatistics().recordMiss();
     return Optional.empty();
   }
 
@@ -303,8 +319,7 @@ public class JavaModuleView extends JavaView {
 
   /** return the classes which belong to the moduleSignature */
   @Nonnull
-  public synchronized Collection<JavaSootClass> getModuleClasses(
-      @Nonnull ModuleSignature moduleSignature) {
+  public Collection<JavaSootClass> getModuleClasses(@Nonnull ModuleSignature moduleSignature) {
 
     Optional<JavaModuleInfo> startOpt = getModuleInfo(moduleSignature);
     if (!startOpt.isPresent()) {
@@ -359,7 +374,7 @@ public class JavaModuleView extends JavaView {
 
   /*
       @Nonnull
-      public synchronized Collection<JavaSootClass> getTransitiveClasses(@Nonnull ModuleSignature moduleSignature) {
+      public Collection<JavaSootClass> getTransitiveClasses(@Nonnull ModuleSignature moduleSignature) {
 
           Optional<JavaModuleInfo> startOpt = getModuleInfo(moduleSignature);
           if (!startOpt.isPresent()) {
@@ -450,7 +465,16 @@ public class JavaModuleView extends JavaView {
 
   @Override
   @Nonnull
-  protected synchronized Collection<JavaSootClass> resolveAll() {
+  protected List<AnalysisInputLocation<? extends JavaSootClass>> getResolvableInputLocations() {
+    List<AnalysisInputLocation<? extends JavaSootClass>> locations =
+        super.getResolvableInputLocations();
+    locations.addAll(getProject().getModuleInfoAnalysisInputLocation());
+    return locations;
+  }
+
+  @Override
+  @Nonnull
+  protected Collection<JavaSootClass> resolveAll() {
     if (isFullyResolved && cache instanceof FullCache) {
       return cache.getClasses();
     }
@@ -22,22 +22,40 @@ package sootup.java.core.views;
  * #L%
  */
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import sootup.core.Project;
+import sootup.core.cache.BodyCache;
 import sootup.core.cache.ClassCache;
+import sootup.core.cache.ClassCacheStatistics;
 import sootup.core.cache.FullCache;
+import sootup.core.cache.PhantomClassCache;
 import sootup.core.cache.provider.ClassCacheProvider;
 import sootup.core.cache.provider.FullCacheProvider;
 import sootup.core.frontend.AbstractClassSource;
+import sootup.core.frontend.ResolveException;
 import sootup.core.inputlocation.AnalysisInputLocation;
 import sootup.core.inputlocation.ClassLoadingOptions;
+import sootup.core.inputlocation.ClassLocationIndex;
 import sootup.core.inputlocation.EmptyClassLoadingOptions;
 import sootup.core.transform.BodyInterceptor;
+import sootup.core.transform.BodyInterceptorStatistics;
 import sootup.core.types.ClassType;
 import sootup.core.views.AbstractView;
 import sootup.java.core.AnnotationUsage;
@@ -56,6 +74,31 @@ public class JavaView extends AbstractView<JavaSootClass> {
 
   @Nonnull protected final ClassCache<JavaSootClass> cache;
 
+  /**
+   * Classes that are currently being built. Threads that request a class which is already under
+   * construction wait for the pending result instead of building the class a second time.
+   */
+  @Nonnull
+  private final Map<ClassType, FutureTask<JavaSootClass>> pendingClasses =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Maps every class of the input locations to the input location it is loaded from. It is built on
+   * the first lookup of a class, so that creating a view stays cheap.
+   */
+  @Nonnull
+  private final Supplier<ClassLocationIndex<JavaSootClass>> classLocationIndex =
+      Suppliers.memoize(() -> new ClassLocationIndex<>(getProject().getInputLocations(), this));
+
+  @Nullable protected volatile BodyCache bodyCache = null;
+
+  @Nonnull
+  protected volatile BodyInterceptorStatistics bodyInterceptorStatistics =
+      BodyInterceptorStatistics.disabled();
+
+  /** Remembers the types whose classes could not be found in any input location. */
+  @Nonnull protected volatile PhantomClassCache phantomClasses = new PhantomClassCache();
+
   protected volatile boolean isFullyResolved = false;
 
   @Nonnull
@@ -105,6 +148,12 @@ public class JavaView extends AbstractView<JavaSootClass> {
     return this.classLoadingOptionsSpecifier.apply(clazz).getBodyInterceptors();
   }
 
+  @Nonnull
+  @Override
+  public ClassLoadingOptions getClassLoadingOptions(AnalysisInputLocation inputLocation) {
+    return this.classLoadingOptionsSpecifier.apply(inputLocation);
+  }
+
   public void configBodyInterceptors(
       @Nonnull
           Function<AnalysisInputLocation<? extends JavaSootClass>, ClassLoadingOptions>
@@ -112,25 +161,126 @@ public class JavaView extends AbstractView<JavaSootClass> {
     this.classLoadingOptionsSpecifier = classLoadingOptionsSpecifier;
   }
 
+  /**
+   * Sets the cache that stores the method bodies of this view. Without a body cache (the default) a
+   * resolved body is kept by its method as long as the method is reachable.
+   *
+   * @param bodyCache the cache to use for bodies which are resolved from now on or <code>null
+   *     </code> to let the methods keep their bodies
+   */
+  public void configBodyCache(@Nullable BodyCache bodyCache) {
+    this.bodyCache = bodyCache;
+  }
+
+  @Nonnull
+  @Override
+  public Optional<BodyCache> getBodyCache() {
+    return Optional.ofNullable(bodyCache);
+  }
+
+  /**
+   * Sets the statistics that record the effect of each BodyInterceptor on the bodies which are
+   * resolved from now on, e.g. <code>new BodyInterceptorStatistics()</code> to find the
+   * interceptors which take the most time.
+   */
+  public void configBodyInterceptorStatistics(
+      @Nonnull BodyInterceptorStatistics bodyInterceptorStatistics) {
+    this.bodyInterceptorStatistics = bodyInterceptorStatistics;
+  }
+
+  @Nonnull
+  @Override
+  public BodyInterceptorStatistics getBodyInterceptorStatistics() {
+    return bodyInterceptorStatistics;
+  }
+
+  /**
+   * Sets the cache that remembers the types whose classes could not be found, e.g. to increase its
+   * size for an application with many missing dependencies.
+   */
+  public void configPhantomClassCache(@Nonnull PhantomClassCache phantomClasses) {
+    this.phantomClasses = phantomClasses;
+  }
+
   /** Resolves all classes that are part of the view and stores them in the cache. */
   @Override
   @Nonnull
-  public synchronized Collection<JavaSootClass> getClasses() {
+  public Collection<JavaSootClass> getClasses() {
     return resolveAll();
   }
 
-  /** Resolves the class matching the provided {@link ClassType ClassType}. */
+  /**
+   * Resolves all classes that are part of the view and stores them in the cache. In contrast to
+   * {@link #getClasses()}, the input locations are scanned and the classes are built concurrently
+   * by the given executor, e.g. a {@link java.util.concurrent.ForkJoinPool}.
+   */
+  @Nonnull
+  public Collection<JavaSootClass> getClasses(@Nonnull Executor executor) {
+    return resolveAll(executor);
+  }
+
+  /**
+   * Resolves the class matching the provided {@link ClassType ClassType}. Lookups of different
+   * classes may run concurrently; concurrent lookups of the same class build it only once.
+   */
   @Override
   @Nonnull
-  public synchronized Optional<JavaSootClass> getClass(@Nonnull ClassType type) {
+  public Optional<JavaSootClass> getClass(@Nonnull ClassType type) {
+    JavaSootClass cachedClass = cache.getClass(type);
+    if (cachedClass != null) {
+      cache.getStatistics().recordHit();
+      return Optional.of(cachedClass);
+    }
+
+    if (phantomClasses.isPhantom(type)) {
+      cache.getStatistics().recordMiss();
+      return Optional.empty();
+    }
+    return lookUpClass(type, System.nanoTime());
+  }
+
+  /**
+   * Resolves the class like {@link #getClass(ClassType)} after the caller searched other input
+   * locations for it since <code>lookupStart</code> (see {@link System#nanoTime()}), so that both
+   * searches are recorded as a single lookup.
+   */
+  @Nonnull
+  protected Optional<JavaSootClass> getClass(@Nonnull ClassType type, long lookupStart) {
     JavaSootClass cachedClass = cache.getClass(type);
     if (cachedClass != null) {
+      cache.getStatistics().recordLookup(System.nanoTime() - lookupStart);
+      cache.getStatistics().recordHit();
       return Optional.of(cachedClass);
     }
 
+    if (phantomClasses.isPhantom(type)) {
+      cache.getStatistics().recordLookup(System.nanoTime() - lookupStart);
+      cache.getStatistics().recordMiss();
+      return Optional.empty();
+    }
+    return lookUpClass(type, lookupStart);
+  }
+
+  @Nonnull
+  private Optional<JavaSootClass> lookUpClass(@Nonnull ClassType type, long lookupStart) {
     Optional<? extends AbstractClassSource<? extends JavaSootClass>> abstractClass =
         getAbstractClass(type);
-    return abstractClass.flatMap(this::buildClassFrom);
+    cache.getStatistics().recordLookup(System.nanoTime() - lookupStart);
+    if (!abstractClass.isPresent()) {
+      cache.getStatistics().recordMiss();
+      phantomClasses.addPhantom(type);
+      return Optional.empty();
+    }
+    return buildClassFrom(abstractClass.get());
+  }
+
+  /**
+   * Returns the statistics of the class cache of this view, e.g. to find out whether the cache is
+   * too small or whether the time is spent searching or loading classes.
+   */
+  @Nonnull
+  public ClassCacheStatistics getCacheStatistics() {
+    return cache.getStatistics();
   }
 
   /** Returns the amount of classes that are currently stored in the cache. */
@@ -141,28 +291,52 @@ public class JavaView extends AbstractView<JavaSootClass> {
   @Nonnull
   protected Optional<? extends AbstractClassSource<? extends JavaSootClass>> getAbstractClass(
       @Nonnull ClassType type) {
-    return getProject().getInputLocations().stream()
-        .map(location -> location.getClassSource(type, this))
-        .filter(Optional::isPresent)
-        // like javas behaviour: if multiple matching Classes(ClassTypes) are found on the
-        // classpath the first is returned (see splitpackage)
-        .limit(1)
-        .map(Optional::get)
-        .findAny();
+    // like javas behaviour: if multiple matching Classes(ClassTypes) are found on the
+    // classpath the first is returned (see splitpackage)
+    return classLocationIndex.get().getClassSource(type, this);
   }
 
   @Nonnull
-  protected synchronized Optional<JavaSootClass> buildClassFrom(
+  protected Optional<JavaSootClass> buildClassFrom(
       AbstractClassSource<? extends JavaSootClass> classSource) {
 
     ClassType classType = classSource.getClassType();
-    JavaSootClass theClass;
-    if (!cache.hasClass(classType)) {
-      theClass =
-          classSource.buildClass(getProject().getSourceTypeSpecifier().sourceTypeFor(classSource));
-      cache.putClass(classType, theClass);
+    JavaSootClass theClass = cache.getClass(classType);
+    if (theClass != null) {
+      cache.getStatistics().recordHit();
     } else {
-      theClass = cache.getClass(classType);
+      FutureTask<JavaSootClass> task =
+          new FutureTask<>(
+              () -> {
+                // another thread could have finished building the class in the meantime
+                JavaSootClass cachedClass = cache.getClass(classType);
+                if (cachedClass != null) {
+                  cache.getStatistics().recordHit();
+                  return cachedClass;
+                }
+                cache.getStatistics().recordMiss();
+                long loadStart = System.nanoTime();
+                JavaSootClass builtClass =
+                    classSource.buildClass(
+                        getProject().getSourceTypeSpecifier().sourceTypeFor(classSource));
+                cache.putClass(classType, builtClass);
+                cache.getStatistics().recordLoad(System.nanoTime() - loadStart);
+                return builtClass;
+              });
+
+      FutureTask<JavaSootClass> pendingTask = pendingClasses.putIfAbsent(classType, task);
+      if (pendingTask == null) {
+        pendingTask = task;
+        try {
+          task.run();
+        } finally {
+          pendingClasses.remove(classType, task);
+        }
+      } else {
+        // the class is built by another thread, i.e. it was not in the cache
+        cache.getStatistics().recordMiss();
+      }
+      theClass = awaitClass(pendingTask, classSource);
     }
 
     if (theClass.getType() instanceof AnnotationType) {
@@ -174,7 +348,34 @@ public class JavaView extends AbstractView<JavaSootClass> {
   }
 
   @Nonnull
-  protected synchronized Collection<JavaSootClass> resolveAll() {
+  private JavaSootClass awaitClass(
+      @Nonnull FutureTask<JavaSootClass> task,
+      @Nonnull AbstractClassSource<? extends JavaSootClass> classSource) {
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ResolveException(
+          "Interrupted while waiting for " + classSource.getClassType() + " to be built.",
+          classSource.getSourcePath(),
+          e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new ResolveException(
+          "Could not build " + classSource.getClassType() + ".",
+          classSource.getSourcePath(),
+          (Exception) cause);
+    }
+  }
+
+  @Nonnull
+  protected Collection<JavaSootClass> resolveAll() {
     if (isFullyResolved && cache instanceof FullCache) {
       return cache.getClasses();
     }
@@ -195,4 +396,69 @@ public class JavaView extends AbstractView<JavaSootClass> {
 
     return resolvedClasses;
   }
+
+  /** Returns the input locations whose classes are part of this view. */
+  @Nonnull
+  protected List<AnalysisInputLocation<? extends JavaSootClass>> getResolvableInputLocations() {
+    return new ArrayList<>(getProject().getInputLocations());
+  }
+
+  @Nonnull
+  protected Collection<JavaSootClass> resolveAll(@Nonnull Executor executor) {
+    if (isFullyResolved && cache instanceof FullCache) {
+      return cache.getClasses();
+    }
+
+    List<
+            CompletableFuture<
+                ? extends Collection<? extends AbstractClassSource<? extends JavaSootClass>>>>
+        classSourcesOfLocations = new ArrayList<>();
+    for (AnalysisInputLocation<? extends JavaSootClass> location : getResolvableInputLocations()) {
+      classSourcesOfLocations.add(
+          CompletableFuture.supplyAsync(() -> location.getClassSources(this, executor), executor));
+    }
+
+    // like javas behaviour: if multiple matching Classes(ClassTypes) are found on the
+    // classpath the first is used (see splitpackage) - independent of which location is scanned
+    // first
+    Map<ClassType, AbstractClassSource<? extends JavaSootClass>> classSources =
+        new LinkedHashMap<>();
+    for (CompletableFuture<
+            ? extends Collection<? extends AbstractClassSource<? extends JavaSootClass>>>
+        future : classSourcesOfLocations) {
+      for (AbstractClassSource<? extends JavaSootClass> classSource : join(future)) {
+        classSources.putIfAbsent(classSource.getClassType(), classSource);
+      }
+    }
+
+    List<CompletableFuture<Optional<JavaSootClass>>> builtClasses =
+        new ArrayList<>(classSources.size());
+    for (AbstractClassSource<? extends JavaSootClass> classSource : classSources.values()) {
+      builtClasses.add(CompletableFuture.supplyAsync(() -> buildClassFrom(classSource), executor));
+    }
+
+    List<JavaSootClass> resolvedClasses = new ArrayList<>(builtClasses.size());
+    for (CompletableFuture<Optional<JavaSootClass>> future : builtClasses) {
+      join(future).ifPresent(resolvedClasses::add);
+    }
+
+    isFullyResolved = true;
+
+    return resolvedClasses;
+  }
+
+  private static <T> T join(@Nonnull CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw e;
+    }
+  }
 }
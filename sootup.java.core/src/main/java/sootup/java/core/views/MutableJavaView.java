@@ -39,6 +39,8 @@ public class MutableJavaView extends JavaView implements MutableView {
       return;
     }
     this.cache.putClass(classType, clazz);
+    this.phantomClasses.removePhantom(classType);
+    this.getTypeHierarchyCache().clear();
     this.fireAddition(clazz);
   }
 
@@ -48,6 +50,7 @@ public class MutableJavaView extends JavaView implements MutableView {
   public void removeClass(ClassType classType) {
     JavaSootClass removedClass =
         ((MutableClassCache<JavaSootClass>) this.cache).removeClass(classType);
+    this.getTypeHierarchyCache().clear();
     this.fireRemoval(removedClass);
   }
 
@@ -93,21 +93,26 @@ public class JimpleAnalysisInputLocation<T extends SootClass<? extends SootClass
     }
   }
 
+  /** Creates the provider which converts the files of this input location into class sources. */
+  @Nonnull
+  protected ClassProvider<T> getClassProvider(@Nonnull View<?> view) {
+    return new JimpleClassProvider<>(view.getBodyInterceptors(this));
+  }
+
   @Override
   @Nonnull
   public Collection<? extends SootClassSource<T>> getClassSources(@Nonnull View<?> view) {
-    return walkDirectory(
-        path, view.getIdentifierFactory(), new JimpleClassProvider(view.getBodyInterceptors(this)));
+    final ClassProvider classProvider = getClassProvider(view);
+    return walkDirectory(path, view.getIdentifierFactory(), classProvider);
   }
 
   @Override
   @Nonnull
   public Optional<? extends SootClassSource<T>> getClassSource(
       @Nonnull ClassType type, @Nonnull View<?> view) {
-    final JimpleClassProvider<T> classProvider =
-        new JimpleClassProvider<>(view.getBodyInterceptors(this));
+    final ClassProvider<T> classProvider = getClassProvider(view);
 
-    final String ext = classProvider.getHandledFileType().toString().toLowerCase();
+    final String ext = classProvider.getHandledFileType().getExtension();
 
     // is file under path:  with name package.subpackage.class.jimple
     Path pathToClass = path.resolve(type.getFullyQualifiedName() + "." + ext);
@@ -130,7 +135,7 @@ public class JimpleAnalysisInputLocation<T extends SootClass<? extends SootClass
 
   @Override
   public boolean equals(Object o) {
-    if (!(o instanceof JimpleAnalysisInputLocation)) {
+    if (o == null || o.getClass() != getClass()) {
       return false;
     }
     return path.equals(((JimpleAnalysisInputLocation<?>) o).path);
@@ -0,0 +1,34 @@
+package sootup.jimple.parser;
+
+import java.nio.file.Path;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import sootup.core.frontend.ClassProvider;
+import sootup.core.frontend.SootClassSource;
+import sootup.core.model.SootClass;
+import sootup.core.model.SourceType;
+import sootup.core.views.View;
+
+/**
+ * An input location for a directory of binary Jimple files written by {@link
+ * JimpleBinaryClassWriter}, e.g. to pass classes which were already processed from one analysis to
+ * the next one without printing and parsing textual Jimple. A file is only read if its class is
+ * requested, and the body of a method is only read if it is resolved.
+ */
+public class JimpleBinaryAnalysisInputLocation<T extends SootClass<? extends SootClassSource<T>>>
+    extends JimpleAnalysisInputLocation<T> {
+
+  public JimpleBinaryAnalysisInputLocation(@Nonnull Path path) {
+    super(path);
+  }
+
+  public JimpleBinaryAnalysisInputLocation(@Nonnull Path path, @Nullable SourceType srcType) {
+    super(path, srcType);
+  }
+
+  @Nonnull
+  @Override
+  protected ClassProvider<T> getClassProvider(@Nonnull View<?> view) {
+    return new JimpleBinaryClassProvider<>(view.getIdentifierFactory());
+  }
+}
@@ -0,0 +1,228 @@
+package sootup.jimple.parser;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import sootup.core.IdentifierFactory;
+import sootup.core.frontend.BodySource;
+import sootup.core.frontend.ClassProvider;
+import sootup.core.frontend.OverridingClassSource;
+import sootup.core.frontend.ResolveException;
+import sootup.core.frontend.SootClassSource;
+import sootup.core.inputlocation.AnalysisInputLocation;
+import sootup.core.inputlocation.FileType;
+import sootup.core.model.Body;
+import sootup.core.model.ClassModifier;
+import sootup.core.model.FieldModifier;
+import sootup.core.model.MethodModifier;
+import sootup.core.model.Position;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootField;
+import sootup.core.model.SootMethod;
+import sootup.core.signatures.MethodSignature;
+import sootup.core.types.ClassType;
+import sootup.core.types.Type;
+import sootup.java.core.jimple.binary.JimpleBinaryReader;
+
+/**
+ * A {@link ClassProvider} for files written by {@link JimpleBinaryClassWriter}. The header of a
+ * class is read when its class source is created, the body of a method is read when it is resolved.
+ * The bodies are loaded as they were written, i.e. no interceptors are applied.
+ */
+public class JimpleBinaryClassProvider<T extends SootClass<? extends SootClassSource<T>>>
+    implements ClassProvider<T> {
+
+  private static final @Nonnull Logger logger =
+      LoggerFactory.getLogger(JimpleBinaryClassProvider.class);
+
+  @Nonnull private final IdentifierFactory identifierFactory;
+
+  public JimpleBinaryClassProvider(@Nonnull IdentifierFactory identifierFactory) {
+    this.identifierFactory = identifierFactory;
+  }
+
+  @Override
+  public Optional<SootClassSource<T>> createClassSource(
+      AnalysisInputLocation<? extends SootClass<?>> inputlocation,
+      Path sourcePath,
+      ClassType classSignature) {
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(sourcePath)))) {
+      return Optional.of(readClass(in, inputlocation, sourcePath));
+    } catch (IOException | IllegalArgumentException e) {
+      logger.warn(
+          "The binary jimple file of "
+              + classSignature
+              + " in path: "
+              + sourcePath
+              + " could not be read because of: "
+              + e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  @Nonnull
+  private OverridingClassSource readClass(
+      @Nonnull DataInputStream in,
+      @Nonnull AnalysisInputLocation<? extends SootClass<?>> inputlocation,
+      @Nonnull Path sourcePath)
+      throws IOException {
+    if (in.readInt() != JimpleBinaryClassWriter.MAGIC) {
+      throw new IOException("The file is not a binary jimple file of this version.");
+    }
+    JimpleBinaryReader reader = new JimpleBinaryReader(in, identifierFactory);
+
+    ClassType classType = reader.readClassType();
+    EnumSet<ClassModifier> modifiers = readModifiers(reader, ClassModifier.class);
+    ClassType superclass = readOptionalClassType(reader);
+    int interfaceCount = reader.readVarInt();
+    Set<ClassType> interfaces = new HashSet<>(interfaceCount);
+    for (int i = 0; i < interfaceCount; i++) {
+      interfaces.add(reader.readClassType());
+    }
+    ClassType outerclass = readOptionalClassType(reader);
+    Position position = reader.readPosition();
+
+    int fieldCount = reader.readVarInt();
+    Set<SootField> fields = new HashSet<>(fieldCount);
+    for (int i = 0; i < fieldCount; i++) {
+      String name = reader.readString();
+      Type type = reader.readType();
+      EnumSet<FieldModifier> fieldModifiers = readModifiers(reader, FieldModifier.class);
+      fields.add(
+          new SootField(
+              identifierFactory.getFieldSignature(name, classType, type),
+              fieldModifiers,
+              reader.readPosition()));
+    }
+
+    int methodCount = reader.readVarInt();
+    Set<SootMethod> methods = new HashSet<>(methodCount);
+    for (int i = 0; i < methodCount; i++) {
+      String name = reader.readString();
+      Type returnType = reader.readType();
+      List<Type> parameterTypes = reader.readTypes();
+      MethodSignature signature =
+          identifierFactory.getMethodSignature(classType, name, returnType, parameterTypes);
+      EnumSet<MethodModifier> methodModifiers = readModifiers(reader, MethodModifier.class);
+      List<ClassType> exceptions = new ArrayList<>();
+      for (Type exception : reader.readTypes()) {
+        if (!(exception instanceof ClassType)) {
+          throw new IOException("Expected a ClassType but found " + exception + ".");
+        }
+        exceptions.add((ClassType) exception);
+      }
+      Position methodPosition = reader.readPosition();
+      int bodyLength = reader.readVarInt();
+      byte[] body = null;
+      if (bodyLength > 0) {
+        body = new byte[bodyLength - 1];
+        in.readFully(body);
+      }
+      methods.add(
+          new SootMethod(
+              new JimpleBinaryBodySource(signature, body, identifierFactory, sourcePath),
+              signature,
+              methodModifiers,
+              exceptions,
+              methodPosition));
+    }
+
+    return new OverridingClassSource(
+        methods,
+        fields,
+        modifiers,
+        interfaces,
+        superclass,
+        outerclass,
+        position,
+        sourcePath,
+        classType,
+        inputlocation);
+  }
+
+  @Nullable
+  private static ClassType readOptionalClassType(@Nonnull JimpleBinaryReader reader)
+      throws IOException {
+    return reader.readVarInt() == 0 ? null : reader.readClassType();
+  }
+
+  @Nonnull
+  private static <E extends Enum<E>> EnumSet<E> readModifiers(
+      @Nonnull JimpleBinaryReader reader, @Nonnull Class<E> modifierClass) throws IOException {
+    EnumSet<E> modifiers = EnumSet.noneOf(modifierClass);
+    int count = reader.readVarInt();
+    for (int i = 0; i < count; i++) {
+      modifiers.add(Enum.valueOf(modifierClass, reader.readString()));
+    }
+    return modifiers;
+  }
+
+  @Override
+  public FileType getHandledFileType() {
+    return FileType.JIMPLEBIN;
+  }
+
+  /** Reads the body of a method from its encoded form when it is resolved. */
+  private static class JimpleBinaryBodySource implements BodySource {
+
+    @Nonnull private final MethodSignature signature;
+
+    /** the encoded body or null if the method has no body */
+    @Nullable private final byte[] body;
+
+    @Nonnull private final IdentifierFactory identifierFactory;
+    @Nonnull private final Path sourcePath;
+
+    JimpleBinaryBodySource(
+        @Nonnull MethodSignature signature,
+        @Nullable byte[] body,
+        @Nonnull IdentifierFactory identifierFactory,
+        @Nonnull Path sourcePath) {
+      this.signature = signature;
+      this.body = body;
+      this.identifierFactory = identifierFactory;
+      this.sourcePath = sourcePath;
+    }
+
+    @Nonnull
+    @Override
+    public Body resolveBody(@Nonnull Iterable<MethodModifier> modifiers) throws IOException {
+      if (body == null) {
+        throw new ResolveException("The method " + signature + " has no body.", sourcePath);
+      }
+      return new JimpleBinaryReader(
+              new DataInputStream(new ByteArrayInputStream(body)), identifierFactory)
+          .readBody();
+    }
+
+    @Override
+    public int estimateBodySize() {
+      return body == null ? 0 : body.length;
+    }
+
+    @Override
+    public Object resolveAnnotationsDefaultValue() {
+      return null;
+    }
+
+    @Nonnull
+    @Override
+    public MethodSignature getSignature() {
+      return signature;
+    }
+  }
+}
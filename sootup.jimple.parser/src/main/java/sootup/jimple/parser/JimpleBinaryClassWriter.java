@@ -0,0 +1,129 @@
+package sootup.jimple.parser;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import sootup.core.inputlocation.FileType;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootField;
+import sootup.core.model.SootMethod;
+import sootup.core.types.ClassType;
+import sootup.java.core.jimple.binary.JimpleBinaryWriter;
+
+/**
+ * Writes a {@link SootClass} in the binary Jimple format, which is loaded by {@link
+ * JimpleBinaryAnalysisInputLocation} considerably faster than textual Jimple can be parsed.
+ *
+ * <p>A file starts with the header of the class, i.e. its modifiers, its hierarchy, its fields and
+ * its method signatures. The strings of the header are written once and referenced by their index
+ * afterwards. The body of each method follows its signature as a separate block with its own
+ * strings, so that a body can be read when it is resolved without reading the other bodies.
+ */
+public class JimpleBinaryClassWriter {
+
+  static final int MAGIC = 0x4A424E31; // "JBN1"
+
+  /**
+   * Writes the class into the directory of an input location, i.e. into a file which is named by
+   * the fully qualified name of the class. The class is written into a temporary file first, so
+   * that the file is either replaced completely or not at all if the class can not be written.
+   *
+   * @return the written file
+   */
+  @Nonnull
+  public Path write(@Nonnull SootClass<?> sootClass, @Nonnull Path directory) throws IOException {
+    Path file =
+        directory.resolve(
+            sootClass.getType().getFullyQualifiedName() + FileType.JIMPLEBIN.getExtensionWithDot());
+    Path tempFile = Files.createTempFile(directory, "class", ".tmp");
+    try {
+      try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+        write(sootClass, out);
+      }
+      Files.move(
+          tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tempFile);
+    }
+    return file;
+  }
+
+  /**
+   * Writes the class with the bodies of its methods.
+   *
+   * @throws IOException if writing fails or a body contains a value which can not be written, e.g.
+   *     a phi expression
+   */
+  public void write(@Nonnull SootClass<?> sootClass, @Nonnull OutputStream outputStream)
+      throws IOException {
+    DataOutputStream out = new DataOutputStream(outputStream);
+    JimpleBinaryWriter writer = new JimpleBinaryWriter(out);
+    out.writeInt(MAGIC);
+
+    writer.writeType(sootClass.getType());
+    writeModifiers(writer, sootClass.getModifiers());
+    writeOptionalType(writer, sootClass.getSuperclass());
+    writer.writeVarInt(sootClass.getInterfaces().size());
+    for (ClassType interfaceType : sootClass.getInterfaces()) {
+      writer.writeType(interfaceType);
+    }
+    writeOptionalType(writer, sootClass.getOuterClass());
+    writer.writePosition(sootClass.getPosition());
+
+    writer.writeVarInt(sootClass.getFields().size());
+    for (SootField field : sootClass.getFields()) {
+      writer.writeString(field.getName());
+      writer.writeType(field.getType());
+      writeModifiers(writer, field.getModifiers());
+      writer.writePosition(field.getPosition());
+    }
+
+    writer.writeVarInt(sootClass.getMethods().size());
+    ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+    for (SootMethod method : sootClass.getMethods()) {
+      writer.writeString(method.getName());
+      writer.writeType(method.getReturnType());
+      writer.writeTypes(method.getParameterTypes());
+      writeModifiers(writer, method.getModifiers());
+      writer.writeTypes(method.getExceptionSignatures());
+      writer.writePosition(method.getPosition());
+      if (method.hasBody()) {
+        bodyBytes.reset();
+        new JimpleBinaryWriter(new DataOutputStream(bodyBytes)).writeBody(method.getBody());
+        writer.writeVarInt(bodyBytes.size() + 1);
+        bodyBytes.writeTo(out);
+      } else {
+        writer.writeVarInt(0);
+      }
+    }
+    out.flush();
+  }
+
+  private static void writeOptionalType(
+      @Nonnull JimpleBinaryWriter writer, @Nonnull Optional<? extends ClassType> type)
+      throws IOException {
+    if (type.isPresent()) {
+      writer.writeVarInt(1);
+      writer.writeType(type.get());
+    } else {
+      writer.writeVarInt(0);
+    }
+  }
+
+  private static void writeModifiers(
+      @Nonnull JimpleBinaryWriter writer, @Nonnull Set<? extends Enum<?>> modifiers)
+      throws IOException {
+    writer.writeVarInt(modifiers.size());
+    for (Enum<?> modifier : modifiers) {
+      writer.writeString(modifier.name());
+    }
+  }
+}
@@ -3,14 +3,20 @@ package sootup.jimple.parser;
 import static junit.framework.TestCase.assertEquals;
 import static org.junit.Assert.*;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Optional;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
 import sootup.core.inputlocation.AnalysisInputLocation;
 import sootup.core.model.SootClass;
+import sootup.core.model.SootField;
+import sootup.core.model.SootMethod;
 import sootup.core.model.SourceType;
 import sootup.core.signatures.PackageName;
 import sootup.core.types.ClassType;
@@ -20,6 +26,8 @@ import sootup.jimple.parser.categories.Java8Test;
 @Category(Java8Test.class)
 public class JimpleAnalysisInputLocationTest {
 
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
   @Test
   public void testClassResolving() {
 
@@ -137,4 +145,47 @@ public class JimpleAnalysisInputLocationTest {
 
     assertEquals("User Defined class found, expected none", 0, classes.size());
   }
+
+  @Test
+  public void testBinaryJimpleRoundTrip() throws IOException {
+    final JimpleAnalysisInputLocation<JavaSootClass> textInputLocation =
+        new JimpleAnalysisInputLocation<>(Paths.get("src/test/java/resources/jimple"));
+    JimpleView textView = new JimpleProject(textInputLocation).createView();
+    Collection<SootClass<?>> classes = textView.getClasses();
+    assertFalse(classes.isEmpty());
+
+    Path binaryDir = tempFolder.newFolder("binary").toPath();
+    JimpleBinaryClassWriter writer = new JimpleBinaryClassWriter();
+    for (SootClass<?> sootClass : classes) {
+      writer.write(sootClass, binaryDir);
+    }
+
+    JimpleView binaryView =
+        new JimpleProject(new JimpleBinaryAnalysisInputLocation<JavaSootClass>(binaryDir))
+            .createView();
+    for (SootClass<?> expected : classes) {
+      SootClass<?> actual = binaryView.getClass(expected.getType()).get();
+      assertEquals(expected.getModifiers(), actual.getModifiers());
+      assertEquals(expected.getSuperclass(), actual.getSuperclass());
+      assertEquals(expected.getInterfaces(), actual.getInterfaces());
+      assertEquals(expected.getFields().size(), actual.getFields().size());
+      for (SootField expectedField : expected.getFields()) {
+        SootField actualField = actual.getField(expectedField.getName()).get();
+        assertEquals(expectedField.getSignature(), actualField.getSignature());
+        assertEquals(expectedField.getModifiers(), actualField.getModifiers());
+      }
+      assertEquals(expected.getMethods().size(), actual.getMethods().size());
+      for (SootMethod expectedMethod : expected.getMethods()) {
+        SootMethod actualMethod =
+            actual.getMethod(expectedMethod.getSignature().getSubSignature()).get();
+        assertEquals(expectedMethod.getModifiers(), actualMethod.getModifiers());
+        assertEquals(
+            expectedMethod.getExceptionSignatures(), actualMethod.getExceptionSignatures());
+        if (expectedMethod.hasBody()) {
+          assertEquals(expectedMethod.getBody().toString(), actualMethod.getBody().toString());
+        }
+      }
+    }
+    assertEquals(classes.size(), binaryView.getClasses().size());
+  }
 }
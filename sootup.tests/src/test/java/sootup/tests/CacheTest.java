@@ -1,19 +1,39 @@
 package sootup.tests;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import categories.Java8Test;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import sootup.core.cache.ClassCacheStatistics;
+import sootup.core.cache.LRUBodyCache;
+import sootup.core.cache.LRUCache;
+import sootup.core.cache.PhantomClassCache;
+import sootup.core.cache.provider.ConcurrentFullCacheProvider;
 import sootup.core.cache.provider.FullCacheProvider;
 import sootup.core.cache.provider.LRUCacheProvider;
+import sootup.core.cache.provider.SoftReferenceCacheProvider;
+import sootup.core.model.Body;
+import sootup.core.model.SootMethod;
 import sootup.core.model.SourceType;
 import sootup.core.types.ClassType;
 import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
 import sootup.java.core.JavaProject;
+import sootup.java.core.JavaSootClass;
 import sootup.java.core.language.JavaLanguage;
 import sootup.java.core.views.JavaView;
 
@@ -73,4 +93,171 @@ public class CacheTest {
     newView.getClasses();
     assertEquals(6, newView.getAmountOfStoredClasses());
   }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void lruCacheRejectsEmptyCapacityTest() {
+    new LRUCache<>(0);
+  }
+
+  /** Test the {@link sootup.core.cache.LRUCache} class with a weight based bound */
+  @Test
+  public void weightedLruCacheTest() {
+    JavaView view = p.createView(new LRUCacheProvider<>(4, sootClass -> 2));
+
+    ClassType miniAppClassType = p.getIdentifierFactory().getClassType("MiniApp");
+    ClassType utilsOperationClassType = p.getIdentifierFactory().getClassType("utils.Operations");
+    ClassType employeeClassType = p.getIdentifierFactory().getClassType("ds.Employee");
+
+    JavaSootClass miniAppClass = view.getClass(miniAppClassType).get();
+    view.getClass(utilsOperationClassType);
+    assertEquals(2, view.getAmountOfStoredClasses());
+
+    // access MiniApp so that utils.Operations becomes the least recently used class
+    assertSame(miniAppClass, view.getClass(miniAppClassType).get());
+    view.getClass(employeeClassType);
+    assertEquals(2, view.getAmountOfStoredClasses());
+    assertSame(miniAppClass, view.getClass(miniAppClassType).get());
+    assertEquals(2, view.getAmountOfStoredClasses());
+  }
+
+  /** Test the {@link sootup.core.cache.SoftReferenceCache} class */
+  @Test
+  public void softReferenceCacheTest() {
+    JavaView view = p.createView(new SoftReferenceCacheProvider<>());
+    assertEquals(0, view.getAmountOfStoredClasses());
+
+    ClassType miniAppClassType = p.getIdentifierFactory().getClassType("MiniApp");
+    JavaSootClass miniAppClass = view.getClass(miniAppClassType).get();
+    assertEquals(1, view.getAmountOfStoredClasses());
+    // the class is strongly reachable, hence it has to be served from the cache
+    assertSame(miniAppClass, view.getClass(miniAppClassType).get());
+
+    assertEquals(6, view.getClasses().size());
+    assertTrue(view.getAmountOfStoredClasses() <= 6);
+  }
+
+  /** Test the {@link sootup.core.cache.ConcurrentFullCache} class */
+  @Test
+  public void concurrentFullCacheTest() throws Exception {
+    JavaView view = p.createView(new ConcurrentFullCacheProvider<>());
+    assertEquals(0, view.getAmountOfStoredClasses());
+
+    ClassType miniAppClassType = p.getIdentifierFactory().getClassType("MiniApp");
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<JavaSootClass>> futures = new ArrayList<>();
+      for (int i = 0; i < 16; i++) {
+        futures.add(executor.submit(() -> view.getClass(miniAppClassType).get()));
+      }
+      JavaSootClass miniAppClass = futures.get(0).get();
+      for (Future<JavaSootClass> future : futures) {
+        assertSame(miniAppClass, future.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(1, view.getAmountOfStoredClasses());
+
+    view.getClasses();
+    assertEquals(6, view.getAmountOfStoredClasses());
+  }
+
+  /** Test the {@link sootup.core.cache.LRUBodyCache} class */
+  @Test
+  public void lruBodyCacheTest() {
+    JavaView view = p.createView();
+    LRUBodyCache bodyCache = new LRUBodyCache(1, body -> 1);
+    view.configBodyCache(bodyCache);
+
+    ClassType utilsOperationClassType = p.getIdentifierFactory().getClassType("utils.Operations");
+    List<SootMethod> methods =
+        view.getClass(utilsOperationClassType).get().getMethods().stream()
+            .filter(SootMethod::isConcrete)
+            .collect(Collectors.toList());
+    SootMethod firstMethod = methods.get(0);
+    SootMethod secondMethod = methods.get(1);
+
+    Body firstBody = firstMethod.getBody();
+    assertSame(firstBody, firstMethod.getBody());
+    assertEquals(1, bodyCache.size());
+
+    // evicts the body of the first method
+    secondMethod.getBody();
+    assertEquals(1, bodyCache.size());
+
+    Body reresolvedBody = firstMethod.getBody();
+    assertNotSame(firstBody, reresolvedBody);
+    assertEquals(firstBody.toString(), reresolvedBody.toString());
+  }
+
+  /** Test the {@link sootup.core.cache.ClassCacheStatistics} recorded by the view */
+  @Test
+  public void cacheStatisticsTest() {
+    JavaView view = p.createView(new LRUCacheProvider<>(1));
+    ClassCacheStatistics statistics = view.getCacheStatistics();
+
+    ClassType miniAppClassType = p.getIdentifierFactory().getClassType("MiniApp");
+    view.getClass(miniAppClassType);
+    view.getClass(miniAppClassType);
+    assertEquals(1, statistics.getHitCount());
+    assertEquals(1, statistics.getMissCount());
+    assertEquals(1, statistics.getLookupCount());
+    assertEquals(1, statistics.getLoadCount());
+    assertEquals(1, statistics.getWeight());
+
+    ClassType utilsOperationClassType = p.getIdentifierFactory().getClassType("utils.Operations");
+    view.getClass(utilsOperationClassType);
+    assertEquals(2, statistics.getLoadCount());
+    assertEquals(1, statistics.getEvictionCount());
+
+    ClassType unknownClassType = p.getIdentifierFactory().getClassType("does.not.Exist");
+    assertFalse(view.getClass(unknownClassType).isPresent());
+    assertEquals(3, statistics.getMissCount());
+    assertEquals(3, statistics.getLookupCount());
+    assertEquals(2, statistics.getLoadCount());
+  }
+
+  /** Test that a class which can not be found is searched in the input locations only once. */
+  @Test
+  public void phantomClassCacheTest() {
+    JavaView view = p.createView();
+    ClassCacheStatistics statistics = view.getCacheStatistics();
+
+    ClassType unknownClassType = p.getIdentifierFactory().getClassType("does.not.Exist");
+    assertFalse(view.getClass(unknownClassType).isPresent());
+    assertTrue(view.isPhantomClass(unknownClassType));
+    assertFalse(view.getClass(unknownClassType).isPresent());
+    assertEquals(3, statistics.getMissCount());
+    assertEquals(1, statistics.getLookupCount());
+
+    ClassType miniAppClassType = p.getIdentifierFactory().getClassType("MiniApp");
+    assertFalse(view.isPhantomClass(miniAppClassType));
+
+    // a bounded cache forgets the least recently queried phantom class
+    PhantomClassCache phantomClasses = new PhantomClassCache(1);
+    view.configPhantomClassCache(phantomClasses);
+    ClassType otherUnknownClassType = p.getIdentifierFactory().getClassType("does.not.Exist2");
+    assertTrue(view.isPhantomClass(unknownClassType));
+    assertTrue(view.isPhantomClass(otherUnknownClassType));
+    assertEquals(1, phantomClasses.size());
+    assertTrue(phantomClasses.isPhantom(otherUnknownClassType));
+    assertFalse(phantomClasses.isPhantom(unknownClassType));
+  }
+
+  /**
+   * Test the parallel resolution of all classes into a {@link
+   * sootup.core.cache.ConcurrentFullCache}
+   */
+  @Test
+  public void parallelResolveAllTest() {
+    JavaView view = p.createView(new ConcurrentFullCacheProvider<>());
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      assertEquals(6, view.getClasses(pool).size());
+    } finally {
+      pool.shutdown();
+    }
+    assertEquals(6, view.getAmountOfStoredClasses());
+    assertEquals(6, view.getClasses().size());
+  }
 }
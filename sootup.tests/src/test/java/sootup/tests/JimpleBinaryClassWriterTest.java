@@ -0,0 +1,160 @@
+package sootup.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import categories.Java8Test;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import sootup.core.jimple.common.expr.JDynamicInvokeExpr;
+import sootup.core.jimple.common.stmt.Stmt;
+import sootup.core.jimple.javabytecode.stmt.JSwitchStmt;
+import sootup.core.model.Body;
+import sootup.core.model.SootClass;
+import sootup.core.model.SootMethod;
+import sootup.core.model.SourceType;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.core.JavaIdentifierFactory;
+import sootup.java.core.JavaProject;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+import sootup.jimple.parser.JimpleBinaryAnalysisInputLocation;
+import sootup.jimple.parser.JimpleBinaryClassWriter;
+import sootup.jimple.parser.JimpleProject;
+import sootup.jimple.parser.JimpleView;
+
+/**
+ * Writes classes which are loaded from bytecode in the binary Jimple format and reads them again
+ * (see {@link JimpleBinaryAnalysisInputLocation}).
+ */
+@Category(Java8Test.class)
+public class JimpleBinaryClassWriterTest {
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  /**
+   * Writes classes of the mini test suites and reads them again. Their bodies contain the
+   * statements which are the hardest to write: switches, traps and invokedynamic.
+   */
+  @Test
+  public void testBytecodeRoundTrip() throws IOException {
+    Map<String, List<String>> classNamesByDirectory = new LinkedHashMap<>();
+    classNamesByDirectory.put(
+        "../shared-test-resources/miniTestSuite/java6/binary",
+        Arrays.asList("SwitchCaseStatement", "TryCatchFinally"));
+    classNamesByDirectory.put(
+        "../shared-test-resources/miniTestSuite/java8/binary",
+        Arrays.asList("MethodAcceptingLamExpr", "MethodReference"));
+
+    int switchCount = 0;
+    int trapCount = 0;
+    int dynamicInvokeCount = 0;
+    for (Map.Entry<String, List<String>> classNames : classNamesByDirectory.entrySet()) {
+      JavaView bytecodeView =
+          JavaProject.builder(new JavaLanguage(8))
+              .addInputLocation(
+                  PathBasedAnalysisInputLocation.create(
+                      Paths.get(classNames.getKey()), SourceType.Application))
+              .build()
+              .createView();
+      List<JavaSootClass> classes = new ArrayList<>();
+      for (String className : classNames.getValue()) {
+        classes.add(
+            bytecodeView
+                .getClass(JavaIdentifierFactory.getInstance().getClassType(className))
+                .get());
+      }
+
+      Path directory = tempFolder.newFolder().toPath();
+      JimpleBinaryClassWriter writer = new JimpleBinaryClassWriter();
+      for (JavaSootClass sootClass : classes) {
+        writer.write(sootClass, directory);
+      }
+
+      JimpleView binaryView =
+          new JimpleProject(new JimpleBinaryAnalysisInputLocation<JavaSootClass>(directory))
+              .createView();
+      for (JavaSootClass expected : classes) {
+        SootClass<?> actual = binaryView.getClass(expected.getType()).get();
+        assertEquals(expected.getMethods().size(), actual.getMethods().size());
+        for (SootMethod expectedMethod : expected.getMethods()) {
+          SootMethod actualMethod =
+              actual.getMethod(expectedMethod.getSignature().getSubSignature()).get();
+          assertEquals(expectedMethod.hasBody(), actualMethod.hasBody());
+          if (!expectedMethod.hasBody()) {
+            continue;
+          }
+          Body expectedBody = expectedMethod.getBody();
+          assertEquals(expectedBody.toString(), actualMethod.getBody().toString());
+
+          trapCount += expectedBody.getTraps().size();
+          for (Stmt stmt : expectedBody.getStmts()) {
+            if (stmt instanceof JSwitchStmt) {
+              switchCount++;
+            } else if (stmt.containsInvokeExpr()
+                && stmt.getInvokeExpr() instanceof JDynamicInvokeExpr) {
+              dynamicInvokeCount++;
+            }
+          }
+        }
+      }
+    }
+    assertTrue(switchCount > 0);
+    assertTrue(trapCount > 0);
+    assertTrue(dynamicInvokeCount > 0);
+  }
+
+  @Test
+  public void testFailedWriteKeepsTheWrittenFile() throws IOException {
+    JavaView view =
+        JavaProject.builder(new JavaLanguage(8))
+            .addInputLocation(
+                PathBasedAnalysisInputLocation.create(
+                    Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar"),
+                    SourceType.Application))
+            .build()
+            .createView();
+    JavaSootClass sootClass =
+        view.getClass(JavaIdentifierFactory.getInstance().getClassType("utils.Operations")).get();
+    Path directory = tempFolder.newFolder("binary").toPath();
+    JimpleBinaryClassWriter writer = new JimpleBinaryClassWriter();
+    Path file = writer.write(sootClass, directory);
+    byte[] written = Files.readAllBytes(file);
+
+    // a body which uses undeclared locals can not be written
+    SootMethod method =
+        sootClass.getMethods().stream().filter(SootMethod::hasBody).findFirst().get();
+    Body invalidBody =
+        Body.builder(method.getBody(), method.getModifiers())
+            .setLocals(Collections.emptySet())
+            .build();
+    JavaSootClass invalidClass = sootClass.withReplacedMethod(method, method.withBody(invalidBody));
+    try {
+      writer.write(invalidClass, directory);
+      fail("the body of " + method + " can not be written");
+    } catch (IOException expected) {
+      // the file is not replaced by a truncated one
+    }
+    assertArrayEquals(written, Files.readAllBytes(file));
+    try (Stream<Path> files = Files.list(directory)) {
+      assertEquals(Collections.singletonList(file), files.collect(Collectors.toList()));
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package sootup.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import categories.Java8Test;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import sootup.core.model.SootMethod;
+import sootup.core.model.SourceType;
+import sootup.java.bytecode.inputlocation.PathBasedAnalysisInputLocation;
+import sootup.java.core.JavaProject;
+import sootup.java.core.JavaSootClass;
+import sootup.java.core.language.JavaLanguage;
+import sootup.java.core.views.JavaView;
+
+/**
+ * Tests {@link sootup.core.views.View#resolveBodies(java.util.Collection,
+ * java.util.concurrent.Executor)} with the MiniApp.jar.
+ */
+@Category(Java8Test.class)
+public class ResolveBodiesTest {
+  static JavaProject p;
+
+  @BeforeClass
+  public static void setupProject() {
+    PathBasedAnalysisInputLocation location =
+        PathBasedAnalysisInputLocation.create(
+            Paths.get("../shared-test-resources/java-miniapps/MiniApp.jar"),
+            SourceType.Application);
+    p = JavaProject.builder(new JavaLanguage(8)).addInputLocation(location).build();
+  }
+
+  @Test
+  public void testResolveBodiesConcurrently() {
+    JavaView view = p.createView();
+    List<SootMethod> methods = new ArrayList<>();
+    for (JavaSootClass sootClass : view.getClasses()) {
+      methods.addAll(sootClass.getMethods());
+    }
+    for (SootMethod method : methods) {
+      assertEquals(method.isConcrete(), method.getBodySource().estimateBodySize() > 0);
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      view.resolveBodies(methods, pool);
+    } finally {
+      pool.shutdown();
+    }
+
+    JavaView sequentialView = p.createView();
+    for (SootMethod method : methods) {
+      if (method.isConcrete()) {
+        assertEquals(
+            sequentialView.getMethod(method.getSignature()).get().getBody().toString(),
+            method.getBody().toString());
+      }
+    }
+  }
+}